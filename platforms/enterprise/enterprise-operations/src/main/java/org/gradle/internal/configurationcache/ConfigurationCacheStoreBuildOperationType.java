@@ -29,6 +29,13 @@ public interface Details {
     }
 
     public interface Result {
+
+        /**
+         * The size in bytes of the configuration cache state written to, including the state of any included builds.
+         *
+         * @since 8.5
+         */
+        long getCacheEntrySize();
     }
 
 }
@@ -1,5 +1,6 @@
 plugins {
     id("gradlebuild.distribution.api-java")
+    id("gradlebuild.jmh")
 }
 
 description = "Source for JavaCompile, JavaExec and Javadoc tasks, it also contains logic for incremental Java compilation"
@@ -62,6 +63,8 @@ dependencies {
     testFixturesImplementation(project(":persistent-cache"))
     testFixturesImplementation(libs.slf4jApi)
 
+    jmhImplementation(testFixtures(project(":core")))
+
     testRuntimeOnly(project(":distributions-core")) {
         because("ProjectBuilder test (JavaLanguagePluginTest) loads services from a Gradle distribution.")
     }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.compile.incremental.classpath;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.TestFiles;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationConstraint;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.operations.TestBuildOperationExecutor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the analysis of a class directory, comparing the batches of {@link DefaultClassSetAnalyzer} being run on the calling thread to them being run in parallel.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ClassSetAnalyzerBenchmark {
+    private static final int DEPENDENCIES_PER_CLASS = 8;
+
+    @Param({"3000", "20000"})
+    int classCount;
+
+    @Param({"sequential", "parallel"})
+    String execution;
+
+    private File classesDir;
+    private ExecutorService executorService;
+    private DefaultClassSetAnalyzer analyzer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        classesDir = Files.createTempDirectory("classes").toFile();
+        Random random = new Random(42);
+        for (int i = 0; i < classCount; i++) {
+            List<String> dependencies = new ArrayList<>();
+            for (int j = 0; j < DEPENDENCIES_PER_CLASS && i > 0; j++) {
+                dependencies.add(internalName(random.nextInt(i)));
+            }
+            File classFile = new File(classesDir, internalName(i) + ".class");
+            classFile.getParentFile().mkdirs();
+            Files.write(classFile.toPath(), generateClass(internalName(i), dependencies));
+        }
+
+        BuildOperationExecutor buildOperationExecutor;
+        if (execution.equals("parallel")) {
+            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            buildOperationExecutor = new ParallelBuildOperationExecutor(executorService);
+        } else {
+            buildOperationExecutor = new TestBuildOperationExecutor();
+        }
+        analyzer = new DefaultClassSetAnalyzer(
+            TestFiles.fileHasher(),
+            TestFiles.streamHasher(),
+            new DefaultClassDependenciesAnalyzer(new StringInterner()),
+            TestFiles.fileOperations(classesDir),
+            buildOperationExecutor
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+        try (Stream<Path> files = Files.walk(classesDir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static String internalName(int index) {
+        return "org/gradle/sample/p" + (index % 100) + "/Class" + index;
+    }
+
+    private static byte[] generateClass(String name, List<String> dependencies) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        for (int i = 0; i < dependencies.size(); i++) {
+            int access = i % 4 == 0 ? Opcodes.ACC_PUBLIC : Opcodes.ACC_PRIVATE;
+            writer.visitField(access, "field" + i, "L" + dependencies.get(i) + ";", null, null).visitEnd();
+        }
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(1, 1);
+        constructor.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    @Benchmark
+    public ClassSetAnalysisData analyzeClassDirectory() {
+        return analyzer.analyzeClasspathEntry(classesDir);
+    }
+
+    /**
+     * Runs the operations of a queue on a thread pool, like the real build operation executor does with its worker leases.
+     */
+    private static class ParallelBuildOperationExecutor extends TestBuildOperationExecutor {
+        private final ExecutorService executorService;
+
+        ParallelBuildOperationExecutor(ExecutorService executorService) {
+            this.executorService = executorService;
+        }
+
+        @Override
+        public <O extends RunnableBuildOperation> void runAll(Action<BuildOperationQueue<O>> schedulingAction, BuildOperationConstraint buildOperationConstraint) {
+            List<Future<?>> results = new ArrayList<>();
+            schedulingAction.execute(new BuildOperationQueue<O>() {
+                @Override
+                public void add(O operation) {
+                    results.add(executorService.submit(() -> operation.run(NoOpBuildOperationContext.INSTANCE)));
+                }
+
+                @Override
+                public void cancel() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void waitForCompletion() throws MultipleBuildOperationFailures {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void setLogLocation(String logLocation) {
+                    throw new UnsupportedOperationException();
+                }
+            });
+            try {
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private enum NoOpBuildOperationContext implements BuildOperationContext {
+        INSTANCE;
+
+        @Override
+        public void failed(@Nullable Throwable failure) {
+        }
+
+        @Override
+        public void setResult(@Nullable Object result) {
+        }
+
+        @Override
+        public void setStatus(String status) {
+        }
+
+        @Override
+        public void progress(String status) {
+        }
+
+        @Override
+        public void progress(long progress, long total, String units, String status) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steps of the recompilation spec computation for a synthetic module:
+ * building the class set analysis, merging classpath snapshots and finding the transitive dependents of changed classes.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ClassSetAnalysisBenchmark {
+    private static final int DEPENDENCIES_PER_CLASS = 8;
+    private static final int CHANGED_CLASSES = 10;
+
+    @Param({"3000", "30000"})
+    int classCount;
+
+    private final List<ClassAnalysis> classes = new ArrayList<>();
+    private final List<HashCode> hashes = new ArrayList<>();
+    private List<ClassSetAnalysisData> classpathEntries;
+    private ClassSetAnalysis analysis;
+    private List<String> changedClasses;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < classCount; i++) {
+            String className = className(i);
+            Set<String> privateDependencies = new HashSet<>();
+            Set<String> accessibleDependencies = new HashSet<>();
+            for (int j = 0; j < DEPENDENCIES_PER_CLASS && i > 0; j++) {
+                String dependency = className(random.nextInt(i));
+                if (j % 4 == 0) {
+                    accessibleDependencies.add(dependency);
+                } else {
+                    privateDependencies.add(dependency);
+                }
+            }
+            classes.add(new ClassAnalysis(className, privateDependencies, accessibleDependencies, null, IntSets.EMPTY_SET));
+            hashes.add(Hashing.hashString(className));
+        }
+        ClassSetAnalysisData data = accumulate(0, classCount);
+        analysis = new ClassSetAnalysis(data);
+        classpathEntries = ImmutableList.of(
+            accumulate(0, classCount / 2),
+            accumulate(classCount / 4, classCount),
+            data
+        );
+        changedClasses = new ArrayList<>();
+        for (int i = 0; i < CHANGED_CLASSES; i++) {
+            changedClasses.add(className(random.nextInt(classCount)));
+        }
+    }
+
+    private ClassSetAnalysisData accumulate(int from, int to) {
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (int i = from; i < to; i++) {
+            accumulator.addClass(classes.get(i), hashes.get(i));
+        }
+        return accumulator.getAnalysis();
+    }
+
+    private static String className(int index) {
+        return "org.gradle.sample.p" + (index % 100) + ".Class" + index;
+    }
+
+    @Benchmark
+    public ClassSetAnalysisData accumulateDependents() {
+        return accumulate(0, classCount);
+    }
+
+    @Benchmark
+    public ClassSetAnalysisData mergeClasspathSnapshots() {
+        return ClassSetAnalysisData.merge(classpathEntries);
+    }
+
+    @Benchmark
+    public Object findTransitiveDependents() {
+        return analysis.findTransitiveDependents(changedClasses, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public Object findChangedClasses() {
+        return classpathEntries.get(0).getChangedClassesSince(classpathEntries.get(1));
+    }
+}
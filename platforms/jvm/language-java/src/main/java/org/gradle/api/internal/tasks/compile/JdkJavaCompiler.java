@@ -25,13 +25,16 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -40,10 +43,17 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
 
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    @Nullable
+    private final transient ReusableFileManagers fileManagers;
 
     @Inject
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, null);
+    }
+
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, @Nullable ReusableFileManagers fileManagers) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.fileManagers = fileManagers;
     }
 
     @Override
@@ -64,7 +74,10 @@ private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, Api
         JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
         MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
         Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, charset);
+        ReusableFileManagers.Lease fileManagerLease = fileManagers != null
+            ? fileManagers.acquire(compiler, charset, options, classpathOf(spec))
+            : ReusableFileManagers.unshared(compiler, charset);
+        StandardJavaFileManager standardFileManager = fileManagerLease.getFileManager();
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSourceFiles());
         boolean hasEmptySourcepaths = JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options);
         JavaFileManager fileManager = GradleStandardJavaFileManager.wrap(standardFileManager, DefaultClassPath.of(spec.getAnnotationProcessorPath()), hasEmptySourcepaths);
@@ -80,10 +93,16 @@ private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, Api
         }
         Set<AnnotationProcessorDeclaration> annotationProcessors = spec.getEffectiveAnnotationProcessors();
         task = new AnnotationProcessingCompileTask(task, annotationProcessors, spec.getAnnotationProcessorPath(), result.getAnnotationProcessingResult());
-        task = new ResourceCleaningCompilationTask(task, fileManager);
+        task = new ResourceCleaningCompilationTask(task, fileManagerLease);
         return task;
     }
 
+    private static List<File> classpathOf(JavaCompileSpec spec) {
+        List<File> classpath = new ArrayList<>(spec.getCompileClasspath());
+        classpath.addAll(spec.getModulePath());
+        return classpath;
+    }
+
     private static boolean emptySourcepathIn(List<String> options) {
         Iterator<String> optionsIter = options.iterator();
         while (optionsIter.hasNext()) {
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.JavaVersion;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.os.OperatingSystem;
+import org.gradle.internal.service.scopes.Scopes;
+import org.gradle.internal.service.scopes.ServiceScope;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.Closeable;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the standard file managers of finished in-process compilations, so that later compilations of the same build
+ * can reuse the archives and package indexes they have already opened instead of reading every classpath jar again.
+ *
+ * A file manager is only reused for compilations that configure it the same way, and only as long as every class path and module path entry
+ * it has seen is in the same state: still missing, still a directory, or still a file with the same content hash. The file manager caches
+ * a container for each entry it has looked up, including missing ones, so a deleted or newly created jar must not be served from it.
+ * The idle file managers, and the archives they keep open, are closed at the end of the build.
+ * Reuse is disabled on Windows, where open archives can't be replaced or deleted, and on Java 8, where javac keeps its own shared archive cache.
+ */
+@ServiceScope(Scopes.BuildSession.class)
+public class ReusableFileManagers implements Closeable {
+
+    /**
+     * Options that select the platform classes, so file managers configured with different values can't be shared.
+     */
+    private static final ImmutableSet<String> PLATFORM_OPTIONS = ImmutableSet.of(
+        "--release", "--system", "-bootclasspath", "--boot-class-path", "-extdirs", "--upgrade-module-path", "-endorseddirs", "--multi-release"
+    );
+
+    /**
+     * Options that set a location on the file manager. A location stays set once a compilation has used it,
+     * so only compilations that set the same locations can share a file manager. Their values are set by every compilation.
+     */
+    private static final ImmutableSet<String> LOCATION_OPTIONS = ImmutableSet.of(
+        "-s", "-h", "-processorpath", "--processor-path", "--processor-module-path", "--module-path", "-p", "--module-source-path", "--patch-module"
+    );
+
+    /**
+     * A file manager holds on to every archive it has opened, so it is discarded once it has seen this many entries.
+     */
+    private static final int MAX_ENTRIES_PER_FILE_MANAGER = 2000;
+
+    private final FileHasher fileHasher;
+    private final boolean enabled;
+    private final int maxIdleFileManagers;
+    private final Deque<ReusableFileManager> idleFileManagers = new ArrayDeque<>();
+    private boolean closed;
+
+    public ReusableFileManagers(FileHasher fileHasher) {
+        this(fileHasher, JavaVersion.current().isJava9Compatible() && !OperatingSystem.current().isWindows(), Runtime.getRuntime().availableProcessors());
+    }
+
+    @VisibleForTesting
+    ReusableFileManagers(FileHasher fileHasher, boolean enabled, int maxIdleFileManagers) {
+        this.fileHasher = fileHasher;
+        this.enabled = enabled;
+        this.maxIdleFileManagers = maxIdleFileManagers;
+    }
+
+    /**
+     * Returns a lease on a new file manager, which is closed after the compilation. Used where no {@link ReusableFileManagers} service is available.
+     */
+    static Lease unshared(JavaCompiler compiler, @Nullable Charset charset) {
+        return new Lease(compiler.getStandardFileManager(null, null, charset), null, null);
+    }
+
+    /**
+     * Returns a file manager for a compilation with the given options and class path. The returned lease must be closed after the compilation.
+     */
+    Lease acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options, List<File> classpath) {
+        if (!enabled) {
+            return unshared(compiler, charset);
+        }
+        Key key = new Key(compiler.getClass().getName(), charset, configurationOf(options));
+        Map<File, EntryState> entries = entryStatesOf(classpath);
+        ReusableFileManager reusable = takeIdle(key, entries);
+        if (reusable == null) {
+            reusable = new ReusableFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        }
+        reusable.entries.putAll(entries);
+        return new Lease(reusable.fileManager, reusable, this);
+    }
+
+    @Nullable
+    private ReusableFileManager takeIdle(Key key, Map<File, EntryState> entries) {
+        List<ReusableFileManager> stale = null;
+        ReusableFileManager found = null;
+        synchronized (idleFileManagers) {
+            Iterator<ReusableFileManager> iterator = idleFileManagers.iterator();
+            while (iterator.hasNext()) {
+                ReusableFileManager candidate = iterator.next();
+                if (!candidate.key.equals(key)) {
+                    continue;
+                }
+                iterator.remove();
+                if (candidate.isUpToDateWith(entries)) {
+                    found = candidate;
+                    break;
+                }
+                if (stale == null) {
+                    stale = new ArrayList<>();
+                }
+                stale.add(candidate);
+            }
+        }
+        if (stale != null) {
+            for (ReusableFileManager fileManager : stale) {
+                fileManager.close();
+            }
+        }
+        return found;
+    }
+
+    private void release(ReusableFileManager reusable) {
+        if (reusable.entries.size() > MAX_ENTRIES_PER_FILE_MANAGER) {
+            reusable.close();
+            return;
+        }
+        ReusableFileManager evicted = null;
+        synchronized (idleFileManagers) {
+            if (closed) {
+                evicted = reusable;
+            } else {
+                idleFileManagers.addFirst(reusable);
+                if (idleFileManagers.size() > maxIdleFileManagers) {
+                    evicted = idleFileManagers.removeLast();
+                }
+            }
+        }
+        if (evicted != null) {
+            evicted.close();
+        }
+    }
+
+    /**
+     * Closes the idle file managers at the end of the build. File managers still in use are closed when their lease is closed.
+     */
+    @Override
+    public void close() {
+        List<ReusableFileManager> idle;
+        synchronized (idleFileManagers) {
+            closed = true;
+            idle = new ArrayList<>(idleFileManagers);
+            idleFileManagers.clear();
+        }
+        for (ReusableFileManager fileManager : idle) {
+            fileManager.close();
+        }
+    }
+
+    @VisibleForTesting
+    int getIdleCount() {
+        synchronized (idleFileManagers) {
+            return idleFileManagers.size();
+        }
+    }
+
+    /**
+     * Extracts the part of the compiler options which stays configured on a file manager after a compilation.
+     */
+    @VisibleForTesting
+    static List<String> configurationOf(List<String> options) {
+        ImmutableList.Builder<String> configuration = ImmutableList.builder();
+        Iterator<String> iterator = options.iterator();
+        while (iterator.hasNext()) {
+            String option = iterator.next();
+            if (PLATFORM_OPTIONS.contains(option)) {
+                configuration.add(option);
+                if (iterator.hasNext()) {
+                    configuration.add(iterator.next());
+                }
+            } else if (LOCATION_OPTIONS.contains(option) || option.startsWith("-Xbootclasspath")) {
+                configuration.add(option);
+            }
+        }
+        return configuration.build();
+    }
+
+    private Map<File, EntryState> entryStatesOf(List<File> classpath) {
+        Map<File, EntryState> entries = new HashMap<>();
+        for (File file : classpath) {
+            EntryState state;
+            if (file.isFile()) {
+                state = EntryState.file(fileHasher.hash(file));
+            } else if (file.isDirectory()) {
+                state = EntryState.DIRECTORY;
+            } else {
+                state = EntryState.MISSING;
+            }
+            entries.put(file, state);
+        }
+        return entries;
+    }
+
+    /**
+     * A file manager handed out for a single compilation. Closing it makes the file manager available to later compilations.
+     */
+    static class Lease implements Closeable {
+        private final StandardJavaFileManager fileManager;
+        private final ReusableFileManager reusable;
+        private final ReusableFileManagers owner;
+
+        private Lease(StandardJavaFileManager fileManager, @Nullable ReusableFileManager reusable, @Nullable ReusableFileManagers owner) {
+            this.fileManager = fileManager;
+            this.reusable = reusable;
+            this.owner = owner;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        @Override
+        public void close() {
+            if (reusable == null) {
+                CompositeStoppable.stoppable(fileManager).stop();
+            } else {
+                owner.release(reusable);
+            }
+        }
+    }
+
+    private static class ReusableFileManager {
+        private final Key key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, EntryState> entries = new HashMap<>();
+
+        ReusableFileManager(Key key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        /**
+         * Whether each of the given entries is in the state this file manager has seen it in. Entries it has never seen have no cached container, so they don't prevent reuse.
+         */
+        boolean isUpToDateWith(Map<File, EntryState> currentEntries) {
+            for (Map.Entry<File, EntryState> entry : currentEntries.entrySet()) {
+                EntryState seen = entries.get(entry.getKey());
+                if (seen != null && !seen.equals(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void close() {
+            CompositeStoppable.stoppable(fileManager).stop();
+        }
+    }
+
+    /**
+     * The state of a class path or module path entry: missing, a directory, or a file with the given content hash.
+     */
+    private static class EntryState {
+        static final EntryState MISSING = new EntryState(false, null);
+        static final EntryState DIRECTORY = new EntryState(true, null);
+
+        private final boolean directory;
+        private final HashCode fileHash;
+
+        private EntryState(boolean directory, @Nullable HashCode fileHash) {
+            this.directory = directory;
+            this.fileHash = fileHash;
+        }
+
+        static EntryState file(HashCode hash) {
+            return new EntryState(false, hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            EntryState that = (EntryState) o;
+            return directory == that.directory && Objects.equals(fileHash, that.fileHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(directory, fileHash);
+        }
+    }
+
+    private static class Key {
+        private final String compilerType;
+        private final Charset charset;
+        private final List<String> configuration;
+
+        Key(String compilerType, @Nullable Charset charset, List<String> configuration) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return compilerType.equals(key.compilerType) && Objects.equals(charset, key.charset) && configuration.equals(key.configuration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(compilerType, charset, configuration);
+        }
+    }
+}
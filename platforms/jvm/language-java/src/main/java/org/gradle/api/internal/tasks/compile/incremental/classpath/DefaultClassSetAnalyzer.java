@@ -15,7 +15,10 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.classpath;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.file.FileOperations;
@@ -24,30 +27,52 @@
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
 public class DefaultClassSetAnalyzer implements ClassSetAnalyzer {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultClassSetAnalyzer.class);
+    /**
+     * Directories with fewer class files than this are analyzed on the calling thread, since scheduling is more expensive than the analysis itself.
+     */
+    private static final int PARALLEL_ANALYSIS_THRESHOLD = 1000;
+    private static final int CLASSES_PER_BATCH = 500;
 
     private final FileHasher fileHasher;
     private final StreamHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
     private final FileOperations fileOperations;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final int parallelAnalysisThreshold;
 
-    public DefaultClassSetAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations) {
+    public DefaultClassSetAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations, BuildOperationExecutor buildOperationExecutor) {
+        this(fileHasher, streamHasher, analyzer, fileOperations, buildOperationExecutor, PARALLEL_ANALYSIS_THRESHOLD);
+    }
+
+    @VisibleForTesting
+    DefaultClassSetAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations, BuildOperationExecutor buildOperationExecutor, int parallelAnalysisThreshold) {
         this.fileHasher = fileHasher;
         this.hasher = streamHasher;
         this.analyzer = analyzer;
         this.fileOperations = fileOperations;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.parallelAnalysisThreshold = parallelAnalysisThreshold;
     }
 
     public ClassSetAnalysisData analyzeClasspathEntry(File classpathEntry) {
@@ -78,7 +103,49 @@ private void visit(File classpathEntry, ClassDependentsAccumulator accumulator,
             fileOperations.zipTreeNoLocking(classpathEntry).visit(new JarEntryVisitor(accumulator, abiOnly));
         }
         if (classpathEntry.isDirectory()) {
-            fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, abiOnly));
+            visitDirectory(classpathEntry, accumulator, abiOnly);
+        }
+    }
+
+    /**
+     * Class files in a directory stay accessible after the visit, so large directories like the output folder
+     * of a big module are analyzed in parallel batches. The results are added to the accumulator in visiting order,
+     * so the outcome is the same as for a sequential analysis. Like there, a class that can't be hashed fails the analysis of the whole directory,
+     * while a class that can't be analyzed only adds its own rebuild cause.
+     */
+    private void visitDirectory(File directory, ClassDependentsAccumulator accumulator, boolean abiOnly) {
+        List<FileVisitDetails> classFiles = new ArrayList<>();
+        fileOperations.fileTree(directory).visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                if (fileDetails.getName().endsWith(".class")) {
+                    classFiles.add(fileDetails);
+                }
+            }
+        });
+
+        DirectoryEntryVisitor visitor = new DirectoryEntryVisitor(accumulator, abiOnly);
+        if (classFiles.size() < parallelAnalysisThreshold) {
+            for (FileVisitDetails classFile : classFiles) {
+                visitor.visitFile(classFile);
+            }
+            return;
+        }
+
+        List<AnalyzeClasses> batches = new ArrayList<>();
+        buildOperationExecutor.runAll((Action<BuildOperationQueue<AnalyzeClasses>>) queue -> {
+            for (List<FileVisitDetails> batch : Lists.partition(classFiles, CLASSES_PER_BATCH)) {
+                AnalyzeClasses operation = new AnalyzeClasses(directory, batch, visitor);
+                batches.add(operation);
+                queue.add(operation);
+            }
+        });
+        for (AnalyzeClasses batch : batches) {
+            batch.addResultsTo(accumulator);
         }
     }
 
@@ -104,16 +171,16 @@ public void visitFile(FileVisitDetails fileDetails) {
             HashCode classFileHash = getHashCode(fileDetails);
 
             try {
-                ClassAnalysis analysis = maybeStripToAbi(analyzer.getClassAnalysis(classFileHash, fileDetails));
-                accumulator.addClass(analysis, classFileHash);
+                accumulator.addClass(analyze(classFileHash, fileDetails), classFileHash);
             } catch (Exception e) {
-                accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Could not analyze " + fileDetails.getName() + " for incremental compilation", e);
-                }
+                analysisFailed(accumulator, fileDetails, e);
             }
         }
 
+        ClassAnalysis analyze(HashCode classFileHash, FileVisitDetails fileDetails) {
+            return maybeStripToAbi(analyzer.getClassAnalysis(classFileHash, fileDetails));
+        }
+
         private ClassAnalysis maybeStripToAbi(ClassAnalysis analysis) {
             if (abiOnly) {
                 return new ClassAnalysis(analysis.getClassName(), ImmutableSet.of(), analysis.getAccessibleClassDependencies(), analysis.getDependencyToAllReason(), analysis.getConstants());
@@ -125,6 +192,13 @@ private ClassAnalysis maybeStripToAbi(ClassAnalysis analysis) {
         protected abstract HashCode getHashCode(FileVisitDetails fileDetails);
     }
 
+    private static void analysisFailed(ClassDependentsAccumulator accumulator, FileVisitDetails fileDetails, Exception e) {
+        accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Could not analyze " + fileDetails.getName() + " for incremental compilation", e);
+        }
+    }
+
     private class JarEntryVisitor extends EntryVisitor {
 
         public JarEntryVisitor(ClassDependentsAccumulator accumulator, boolean abiOnly) {
@@ -154,4 +228,61 @@ protected HashCode getHashCode(FileVisitDetails fileDetails) {
         }
     }
 
+    private static class AnalyzeClasses implements RunnableBuildOperation {
+        private final File directory;
+        private final List<FileVisitDetails> classFiles;
+        private final DirectoryEntryVisitor visitor;
+        private final HashCode[] hashes;
+        private final ClassAnalysis[] analyses;
+        private final Exception[] failures;
+        private int hashFailureIndex = -1;
+        private Exception hashFailure;
+
+        private AnalyzeClasses(File directory, List<FileVisitDetails> classFiles, DirectoryEntryVisitor visitor) {
+            this.directory = directory;
+            this.classFiles = classFiles;
+            this.visitor = visitor;
+            this.hashes = new HashCode[classFiles.size()];
+            this.analyses = new ClassAnalysis[classFiles.size()];
+            this.failures = new Exception[classFiles.size()];
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            for (int i = 0; i < classFiles.size(); i++) {
+                FileVisitDetails classFile = classFiles.get(i);
+                try {
+                    hashes[i] = visitor.getHashCode(classFile);
+                } catch (Exception e) {
+                    // The classes after this one are never added to the accumulator
+                    hashFailureIndex = i;
+                    hashFailure = e;
+                    return;
+                }
+                try {
+                    analyses[i] = visitor.analyze(hashes[i], classFile);
+                } catch (Exception e) {
+                    failures[i] = e;
+                }
+            }
+        }
+
+        void addResultsTo(ClassDependentsAccumulator accumulator) {
+            for (int i = 0; i < classFiles.size(); i++) {
+                if (i == hashFailureIndex) {
+                    throw UncheckedException.throwAsUncheckedException(hashFailure);
+                }
+                if (failures[i] != null) {
+                    analysisFailed(accumulator, classFiles.get(i), failures[i]);
+                } else {
+                    accumulator.addClass(analyses[i], hashes[i]);
+                }
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Analyze " + classFiles.size() + " classes in " + directory);
+        }
+    }
 }
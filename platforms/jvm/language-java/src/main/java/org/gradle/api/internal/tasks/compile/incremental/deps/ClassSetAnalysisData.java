@@ -76,7 +76,8 @@ public static ClassSetAnalysisData merge(List<ClassSetAnalysisData> datas) {
 
         Map<String, HashCode> classHashes = new HashMap<>(classCount);
         Map<String, IntSet> classesToConstants = new HashMap<>(constantsCount);
-        Multimap<String, DependentsSet> dependents = ArrayListMultimap.create(dependentsCount, 10);
+        // Most classes are only referenced from a few classpath entries, so keep the per-class lists small
+        Multimap<String, DependentsSet> dependents = ArrayListMultimap.create(dependentsCount, 2);
         String fullRebuildCause = null;
 
         for (ClassSetAnalysisData data : Lists.reverse(datas)) {
@@ -26,7 +26,7 @@ import spock.lang.Specification
 class DefaultJavaCompilerFactoryTest extends Specification {
     def factory = new DefaultJavaCompilerFactory({
         new File("daemon-work-dir")
-    }, Mock(WorkerDaemonFactory), Mock(JavaForkOptionsFactory), Mock(ExecHandleFactory), Stub(AnnotationProcessorDetector), Stub(ClassPathRegistry), Stub(ActionExecutionSpecFactory))
+    }, Mock(WorkerDaemonFactory), Mock(JavaForkOptionsFactory), Mock(ExecHandleFactory), Stub(AnnotationProcessorDetector), Stub(ClassPathRegistry), Stub(ActionExecutionSpecFactory), Mock(ReusableFileManagers))
 
     def "creates in-process compiler when JavaCompileSpec is provided"() {
         expect:
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.ToolProvider
+
+class ReusableFileManagersTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    JavaCompiler compiler = ToolProvider.systemJavaCompiler
+    def fileManagers = new ReusableFileManagers(TestFiles.fileHasher(), true, 2)
+    def jar = tmpDir.file("lib.jar") << "content"
+
+    def "reuses file manager of a finished compilation with the same configuration"() {
+        when:
+        def first = fileManagers.acquire(compiler, null, ["-d", "out1", "--release", "8"], [jar])
+        first.close()
+        def second = fileManagers.acquire(compiler, null, ["-d", "out2", "--release", "8"], [jar])
+
+        then:
+        second.fileManager.is(first.fileManager)
+        fileManagers.idleCount == 0
+    }
+
+    def "does not share a file manager between concurrent compilations"() {
+        when:
+        def first = fileManagers.acquire(compiler, null, [], [jar])
+        def second = fileManagers.acquire(compiler, null, [], [jar])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+    }
+
+    def "does not reuse file manager for a different configuration"() {
+        when:
+        def first = fileManagers.acquire(compiler, null, ["--release", "8"], [jar])
+        first.close()
+        def second = fileManagers.acquire(compiler, null, ["--release", "11"], [jar])
+        def third = fileManagers.acquire(compiler, null, ["--release", "8", "-s", "generated"], [jar])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+        !third.fileManager.is(first.fileManager)
+        fileManagers.idleCount == 1
+    }
+
+    def "does not reuse file manager after an archive it has seen changed"() {
+        when:
+        def first = fileManagers.acquire(compiler, null, [], [jar])
+        first.close()
+        jar << "more content"
+        def second = fileManagers.acquire(compiler, null, [], [jar])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+        fileManagers.idleCount == 0
+    }
+
+    def "does not reuse file manager after an archive it has seen was rewritten with the same size and timestamp"() {
+        when:
+        def first = fileManagers.acquire(compiler, null, [], [jar])
+        first.close()
+        def lastModified = jar.lastModified()
+        jar.text = "CONTENT"
+        jar.setLastModified(lastModified)
+        def second = fileManagers.acquire(compiler, null, [], [jar])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+        fileManagers.idleCount == 0
+    }
+
+    def "does not reuse file manager after a jar it has seen was removed"() {
+        when:
+        def first = fileManagers.acquire(compiler, null, [], [jar])
+        first.close()
+        jar.delete()
+        def second = fileManagers.acquire(compiler, null, [], [jar])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+        fileManagers.idleCount == 0
+    }
+
+    def "does not reuse file manager after a jar it has seen missing was added"() {
+        def added = tmpDir.file("added.jar")
+
+        when:
+        def first = fileManagers.acquire(compiler, null, [], [jar, added])
+        first.close()
+        added << "content"
+        def second = fileManagers.acquire(compiler, null, [], [jar, added])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+        fileManagers.idleCount == 0
+    }
+
+    def "reuses file manager while a missing entry stays missing"() {
+        def missing = tmpDir.file("missing.jar")
+
+        when:
+        def first = fileManagers.acquire(compiler, null, [], [jar, missing])
+        first.close()
+        def second = fileManagers.acquire(compiler, null, [], [jar, missing])
+
+        then:
+        second.fileManager.is(first.fileManager)
+    }
+
+    def "closes idle file managers when closed"() {
+        def first = fileManagers.acquire(compiler, null, [], [jar])
+        def second = fileManagers.acquire(compiler, null, [], [jar])
+        first.close()
+
+        when:
+        fileManagers.close()
+
+        then:
+        fileManagers.idleCount == 0
+
+        when:
+        second.close()
+
+        then:
+        fileManagers.idleCount == 0
+    }
+
+    def "keeps a bounded number of idle file managers"() {
+        when:
+        def leases = (1..3).collect { fileManagers.acquire(compiler, null, [], [jar]) }
+        leases*.close()
+
+        then:
+        fileManagers.idleCount == 2
+    }
+
+    def "creates a new file manager for every compilation when disabled"() {
+        def disabled = new ReusableFileManagers(TestFiles.fileHasher(), false, 2)
+
+        when:
+        def first = disabled.acquire(compiler, null, [], [jar])
+        first.close()
+        def second = disabled.acquire(compiler, null, [], [jar])
+
+        then:
+        !second.fileManager.is(first.fileManager)
+        disabled.idleCount == 0
+    }
+
+    def "extracts options which stay configured on the file manager"() {
+        expect:
+        ReusableFileManagers.configurationOf(["-d", "out", "-classpath", "a.jar", "--release", "11", "-s", "gen", "-g", "-Xbootclasspath/p:x.jar"]) ==
+            ["--release", "11", "-s", "-Xbootclasspath/p:x.jar"]
+    }
+}
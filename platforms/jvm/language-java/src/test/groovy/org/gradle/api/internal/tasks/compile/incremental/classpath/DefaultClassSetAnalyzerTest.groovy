@@ -0,0 +1,198 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.classpath
+
+import org.gradle.api.Action
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class DefaultClassSetAnalyzerTest extends Specification {
+    private static final int CLASS_COUNT = 1200
+
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    TestFile classesDir
+    FileHasher fileHasher = TestFiles.fileHasher()
+    ReorderingBuildOperationExecutor buildOperationExecutor = new ReorderingBuildOperationExecutor()
+
+    def setup() {
+        classesDir = tmpDir.createDir("classes")
+        CLASS_COUNT.times { i ->
+            writeClass(classesDir, className(i), [className((i + 1) % CLASS_COUNT)], [className((i * 7) % CLASS_COUNT)])
+        }
+        // Same class name as an existing class, but different content
+        writeClass(classesDir.createDir("duplicate"), className(3), [className(5)], [])
+    }
+
+    def "analyzes large directories in parallel batches with the same result as sequentially"() {
+        when:
+        def sequential = sequentialAnalyzer().analyzeOutputFolder(classesDir)
+
+        then:
+        buildOperationExecutor.operations.empty
+        sequential.fullRebuildCause == null
+        sequential.classHashes.size() == CLASS_COUNT
+
+        when:
+        def parallel = parallelAnalyzer().analyzeOutputFolder(classesDir)
+
+        then:
+        buildOperationExecutor.operations.size() == 3
+        summary(parallel) == summary(sequential)
+        parallel.getDependents(className(1).replace('/', '.')).allDependentClasses.contains(className(0).replace('/', '.'))
+    }
+
+    def "analyzes class path entries in parallel batches with the same result as sequentially"() {
+        expect:
+        summary(parallelAnalyzer().analyzeClasspathEntry(classesDir)) == summary(sequentialAnalyzer().analyzeClasspathEntry(classesDir))
+    }
+
+    def "merges batches deterministically regardless of completion order"() {
+        when:
+        def inReverseOrder = parallelAnalyzer().analyzeOutputFolder(classesDir)
+        buildOperationExecutor.reverse = false
+        def inSchedulingOrder = parallelAnalyzer().analyzeOutputFolder(classesDir)
+
+        then:
+        summary(inReverseOrder) == summary(inSchedulingOrder)
+        inReverseOrder.classHashes.keySet().toList() == inSchedulingOrder.classHashes.keySet().toList()
+    }
+
+    def "a class that cannot be hashed fails the analysis of the whole directory"() {
+        given:
+        fileHasher = new FailingFileHasher(TestFiles.fileHasher(), "${simpleName(700)}.class")
+
+        when:
+        def sequential = sequentialAnalyzer().analyzeOutputFolder(classesDir)
+        def parallel = parallelAnalyzer().analyzeOutputFolder(classesDir)
+
+        then:
+        sequential.fullRebuildCause == "${classesDir} could not be analyzed for incremental compilation. See the debug log for more details"
+        parallel.fullRebuildCause == sequential.fullRebuildCause
+        parallel.classHashes.isEmpty()
+    }
+
+    def "a class that cannot be analyzed only adds its own rebuild cause"() {
+        given:
+        classesDir.file("Broken.class").bytes = "not a class file".bytes
+
+        when:
+        def sequential = sequentialAnalyzer().analyzeOutputFolder(classesDir)
+        def parallel = parallelAnalyzer().analyzeOutputFolder(classesDir)
+
+        then:
+        sequential.fullRebuildCause == "Broken.class could not be analyzed for incremental compilation. See the debug log for more details"
+        parallel.fullRebuildCause == sequential.fullRebuildCause
+    }
+
+    private DefaultClassSetAnalyzer sequentialAnalyzer() {
+        analyzer(Integer.MAX_VALUE)
+    }
+
+    private DefaultClassSetAnalyzer parallelAnalyzer() {
+        analyzer(1000)
+    }
+
+    private DefaultClassSetAnalyzer analyzer(int parallelAnalysisThreshold) {
+        new DefaultClassSetAnalyzer(fileHasher, TestFiles.streamHasher(), new DefaultClassDependenciesAnalyzer(new StringInterner()), TestFiles.fileOperations(tmpDir.testDirectory), buildOperationExecutor, parallelAnalysisThreshold)
+    }
+
+    private static Map<String, Object> summary(ClassSetAnalysisData data) {
+        [
+            classHashes: data.classHashes,
+            dependents: data.dependents.collectEntries { name, dependents ->
+                [name, dependents.dependencyToAll ? dependents.description : [dependents.privateDependentClasses, dependents.accessibleDependentClasses]]
+            },
+            classesToConstants: data.classesToConstants,
+            fullRebuildCause: data.fullRebuildCause
+        ]
+    }
+
+    private static String simpleName(int index) {
+        "Class${index}"
+    }
+
+    private static String className(int index) {
+        "org/gradle/sample/p${index % 10}/${simpleName(index)}"
+    }
+
+    private static void writeClass(TestFile root, String internalName, List<String> accessibleDependencies, List<String> privateDependencies) {
+        ClassWriter writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null)
+        accessibleDependencies.eachWithIndex { dependency, i ->
+            writer.visitField(Opcodes.ACC_PUBLIC, "accessible$i", "L${dependency};", null, null).visitEnd()
+        }
+        privateDependencies.eachWithIndex { dependency, i ->
+            writer.visitField(Opcodes.ACC_PRIVATE, "private$i", "L${dependency};", null, null).visitEnd()
+        }
+        writer.visitEnd()
+        def classFile = root.file("${internalName}.class")
+        classFile.parentFile.mkdirs()
+        classFile.bytes = writer.toByteArray()
+    }
+
+    /**
+     * Runs the scheduled operations only after all of them have been queued, in reverse order by default.
+     */
+    private static class ReorderingBuildOperationExecutor extends TestBuildOperationExecutor {
+        boolean reverse = true
+
+        @Override
+        <O extends RunnableBuildOperation> void runAll(Action<BuildOperationQueue<O>> schedulingAction) {
+            List<O> scheduled = []
+            schedulingAction.execute([add: { O operation -> scheduled << operation }] as BuildOperationQueue)
+            (reverse ? scheduled.reverse() : scheduled).each { run(it) }
+        }
+    }
+
+    private static class FailingFileHasher implements FileHasher {
+        private final FileHasher delegate
+        private final String failingFileName
+
+        FailingFileHasher(FileHasher delegate, String failingFileName) {
+            this.delegate = delegate
+            this.failingFileName = failingFileName
+        }
+
+        @Override
+        HashCode hash(File file) {
+            delegate.hash(file)
+        }
+
+        @Override
+        HashCode hash(File file, long length, long lastModified) {
+            if (file.name == failingFileName) {
+                throw new UncheckedIOException(new IOException("Could not read ${file}"))
+            }
+            delegate.hash(file, length, lastModified)
+        }
+    }
+}
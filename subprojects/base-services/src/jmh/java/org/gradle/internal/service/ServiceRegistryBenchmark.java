@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the creation of a registry, such as the one created for each project, and the lookup of services from it.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ServiceRegistryBenchmark {
+
+    private ServiceRegistry parent;
+    private DefaultServiceRegistry registry;
+
+    @Setup(Level.Trial)
+    public void createParent() {
+        parent = ServiceRegistryBuilder.builder().provider(new ParentServices()).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void createRegistry() {
+        registry = newRegistry();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeRegistry() {
+        registry.close();
+    }
+
+    @Benchmark
+    public Object createRegistryAndServices() {
+        DefaultServiceRegistry registry = newRegistry();
+        try {
+            return registry.get(ServiceE.class);
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Benchmark
+    public Object lookupService() {
+        return registry.get(ServiceE.class);
+    }
+
+    @Benchmark
+    public Object lookupParentService() {
+        return registry.get(ParentService.class);
+    }
+
+    private DefaultServiceRegistry newRegistry() {
+        DefaultServiceRegistry registry = new DefaultServiceRegistry(parent);
+        registry.register(registration -> {
+            registration.add(ServiceA.class);
+            registration.add(ServiceB.class);
+            registration.add(ServiceC.class);
+            registration.add(ServiceD.class);
+        });
+        registry.addProvider(new ChildServices());
+        return registry;
+    }
+
+    public static class ParentService {
+    }
+
+    public static class ServiceA {
+        public ServiceA(ParentService parent) {
+        }
+    }
+
+    public static class ServiceB {
+        public ServiceB(ServiceA a, ParentService parent) {
+        }
+    }
+
+    public static class ServiceC {
+        public ServiceC(ServiceA a, ServiceB b) {
+        }
+    }
+
+    public static class ServiceD {
+        public ServiceD(ServiceB b, ServiceC c) {
+        }
+    }
+
+    public static class ServiceE {
+        public ServiceE(ServiceC c, ServiceD d) {
+        }
+    }
+
+    private static class ParentServices {
+        ParentService createParentService() {
+            return new ParentService();
+        }
+    }
+
+    private static class ChildServices {
+        ServiceE createServiceE(ServiceC c, ServiceD d) {
+            return new ServiceE(c, d);
+        }
+    }
+}
@@ -26,7 +26,6 @@
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
@@ -950,22 +949,21 @@ protected Object createServiceInstance() {
 
     private static class ConstructorService extends FactoryService {
         private final Constructor<?> constructor;
+        private final Type[] parameterTypes;
 
         private ConstructorService(DefaultServiceRegistry owner, Class<?> serviceType) {
             super(owner, serviceType);
             if (serviceType.isInterface()) {
                 throw new ServiceValidationException("Cannot register an interface for construction.");
             }
-            Constructor<?> match = InjectUtil.selectConstructor(serviceType);
-            if (InjectUtil.isPackagePrivate(match.getModifiers()) || Modifier.isPrivate(match.getModifiers())) {
-                match.setAccessible(true);
-            }
-            this.constructor = match;
+            ServiceConstructor serviceConstructor = ServiceConstructor.of(serviceType);
+            this.constructor = serviceConstructor.getConstructor();
+            this.parameterTypes = serviceConstructor.getParameterTypes();
         }
 
         @Override
         protected Type[] getParameterTypes() {
-            return constructor.getGenericParameterTypes();
+            return parameterTypes;
         }
 
         @Override
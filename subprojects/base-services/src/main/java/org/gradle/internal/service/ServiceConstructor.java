@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.service;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The injectable constructor of a service implementation type.
+ *
+ * The constructor is selected once per type and shared by all registries that register the type, so that creating a registry
+ * for each project does not repeat the reflective lookup of the constructor and its parameter types.
+ */
+class ServiceConstructor {
+    private static final ConcurrentMap<Class<?>, ServiceConstructor> CONSTRUCTORS_CACHE = new ConcurrentHashMap<Class<?>, ServiceConstructor>();
+
+    private final Constructor<?> constructor;
+    private final Type[] parameterTypes;
+
+    private ServiceConstructor(Constructor<?> constructor) {
+        this.constructor = constructor;
+        this.parameterTypes = constructor.getGenericParameterTypes();
+    }
+
+    public static ServiceConstructor of(Class<?> type) {
+        ServiceConstructor serviceConstructor = CONSTRUCTORS_CACHE.get(type);
+        if (serviceConstructor == null) {
+            serviceConstructor = select(type);
+            CONSTRUCTORS_CACHE.putIfAbsent(type, serviceConstructor);
+        }
+        return serviceConstructor;
+    }
+
+    private static ServiceConstructor select(Class<?> type) {
+        Constructor<?> match = InjectUtil.selectConstructor(type);
+        if (InjectUtil.isPackagePrivate(match.getModifiers()) || Modifier.isPrivate(match.getModifiers())) {
+            match.setAccessible(true);
+        }
+        return new ServiceConstructor(match);
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * The generic parameter types of the constructor. The returned array is shared and must not be modified.
+     */
+    public Type[] getParameterTypes() {
+        return parameterTypes;
+    }
+}
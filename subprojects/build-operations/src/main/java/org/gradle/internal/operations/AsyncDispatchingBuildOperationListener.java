@@ -0,0 +1,222 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards events to an {@link AsyncTolerantBuildOperationListener} from a dispatch task that runs on the given executor until the listener is stopped
+ * or the executor is shut down.
+ *
+ * Events are put into a bounded queue, which the dispatch task drains in batches.
+ * A single queue per listener keeps the order of events, so the events of each operation arrive in the order they were broadcast.
+ * When the queue is full, the broadcasting thread waits, unless the event is a progress event that the listener allows to be dropped.
+ * Once dispatching has stopped, events are dropped instead.
+ */
+class AsyncDispatchingBuildOperationListener implements BuildOperationListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncDispatchingBuildOperationListener.class);
+
+    static final int DEFAULT_QUEUE_CAPACITY = 16 * 1024;
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final long POLL_MILLIS = 100;
+
+    private final AsyncTolerantBuildOperationListener delegate;
+    private final ExecutorService executor;
+    private final BlockingQueue<Event> queue;
+    private final CountDownLatch dispatched = new CountDownLatch(1);
+    private final AtomicLong queuedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile Throwable failure;
+
+    AsyncDispatchingBuildOperationListener(AsyncTolerantBuildOperationListener delegate, ExecutorService executor, int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        executor.execute(this::dispatchEvents);
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        put(new Event(buildOperation, null, startEvent, null, null));
+    }
+
+    @Override
+    public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+        Event event = new Event(null, operationIdentifier, null, progressEvent, null);
+        if (delegate.isProgressDroppable()) {
+            if (queue.offer(event)) {
+                queuedEvents.incrementAndGet();
+            } else {
+                droppedEvents.incrementAndGet();
+            }
+        } else {
+            put(event);
+        }
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        put(new Event(buildOperation, null, null, null, finishEvent));
+    }
+
+    private void put(Event event) {
+        boolean interrupted = false;
+        try {
+            while (!isStopping()) {
+                try {
+                    if (queue.offer(event, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        queuedEvents.incrementAndGet();
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            droppedEvents.incrementAndGet();
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isStopping() {
+        return stopped || executor.isShutdown();
+    }
+
+    private void dispatchEvents() {
+        try {
+            List<Event> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            while (!isStopping() || !queue.isEmpty()) {
+                Event first;
+                try {
+                    first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (Event event : batch) {
+                    dispatch(event);
+                }
+                batch.clear();
+            }
+        } finally {
+            dispatched.countDown();
+        }
+    }
+
+    private void dispatch(Event event) {
+        try {
+            if (event.startEvent != null) {
+                delegate.started(event.descriptor, event.startEvent);
+            } else if (event.progressEvent != null) {
+                delegate.progress(event.operationIdentifier, event.progressEvent);
+            } else {
+                delegate.finished(event.descriptor, event.finishEvent);
+            }
+        } catch (Throwable t) {
+            if (failure == null) {
+                failure = t;
+            } else {
+                LOGGER.debug("Build operation listener {} failed", delegate, t);
+            }
+        }
+    }
+
+    BuildOperationListener getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * The number of events that have been queued for the listener so far.
+     */
+    long getQueuedEventCount() {
+        return queuedEvents.get();
+    }
+
+    /**
+     * The number of events that were dropped, either progress events because the listener fell behind, or any event that arrived after dispatching stopped.
+     */
+    long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Waits for all queued events to be dispatched and ends the dispatch task. Rethrows the first failure of the listener.
+     */
+    void stop() {
+        stopped = true;
+        boolean interrupted = false;
+        while (dispatched.getCount() > 0) {
+            try {
+                dispatched.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.debug("Dispatched {} build operation events to {}, dropped {} events.", queuedEvents.get(), delegate, droppedEvents.get());
+        Throwable failure = this.failure;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    private static class Event {
+        final BuildOperationDescriptor descriptor;
+        final OperationIdentifier operationIdentifier;
+        final OperationStartEvent startEvent;
+        final OperationProgressEvent progressEvent;
+        final OperationFinishEvent finishEvent;
+
+        Event(
+            @Nullable BuildOperationDescriptor descriptor,
+            @Nullable OperationIdentifier operationIdentifier,
+            @Nullable OperationStartEvent startEvent,
+            @Nullable OperationProgressEvent progressEvent,
+            @Nullable OperationFinishEvent finishEvent
+        ) {
+            this.descriptor = descriptor;
+            this.operationIdentifier = operationIdentifier;
+            this.startEvent = startEvent;
+            this.progressEvent = progressEvent;
+            this.finishEvent = finishEvent;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations;
+
+/**
+ * A {@link BuildOperationListener} that does not need to be notified on the thread that runs the operation.
+ *
+ * When asynchronous dispatch is enabled via {@value DefaultBuildOperationListenerManager#ASYNC_DISPATCH_PROPERTY},
+ * such listeners receive their events in batches from a dedicated thread, in the order they were broadcast.
+ * The operation does not wait for them, so implementations must not rely on thread state of the operation, like the current build operation.
+ * Details and results are only valid during a synchronous callback, so implementations must not inspect their state either.
+ * They may only use the identity, display name, timing and failure of the operation, and the types of its details and result.
+ */
+public interface AsyncTolerantBuildOperationListener extends BuildOperationListener {
+
+    /**
+     * Whether progress events can be dropped when this listener falls behind, instead of making the build wait for it.
+     * Start and finish events are never dropped.
+     */
+    default boolean isProgressDroppable() {
+        return false;
+    }
+}
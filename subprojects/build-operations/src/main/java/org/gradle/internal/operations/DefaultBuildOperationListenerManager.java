@@ -16,16 +16,24 @@
 
 package org.gradle.internal.operations;
 
+import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-public class DefaultBuildOperationListenerManager implements BuildOperationListenerManager {
+public class DefaultBuildOperationListenerManager implements BuildOperationListenerManager, Closeable {
+
+    /**
+     * System property that enables asynchronous dispatch to {@link AsyncTolerantBuildOperationListener}s.
+     */
+    public static final String ASYNC_DISPATCH_PROPERTY = "org.gradle.internal.operations.listeners.async";
 
     // This cannot be CopyOnWriteArrayList because we need to iterate it in reverse,
     // which requires atomically getting an iterator and the size.
@@ -33,6 +41,25 @@ public class DefaultBuildOperationListenerManager implements BuildOperationListe
     // making a (albeit home grown) copy-on-write strategy more appealing.
     private List<ProgressShieldingBuildOperationListener> listeners = Collections.emptyList();
     private final Lock listenersLock = new ReentrantLock();
+    private final ExecutorService asyncDispatchExecutor;
+    private final int asyncQueueCapacity;
+
+    public DefaultBuildOperationListenerManager() {
+        this(null);
+    }
+
+    /**
+     * Creates a manager that notifies {@link AsyncTolerantBuildOperationListener}s from tasks on the given executor, or synchronously when it is null.
+     * The executor needs a thread for each async tolerant listener. It is shut down when this manager is closed.
+     */
+    public DefaultBuildOperationListenerManager(@Nullable ExecutorService asyncDispatchExecutor) {
+        this(asyncDispatchExecutor, AsyncDispatchingBuildOperationListener.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    DefaultBuildOperationListenerManager(@Nullable ExecutorService asyncDispatchExecutor, int asyncQueueCapacity) {
+        this.asyncDispatchExecutor = asyncDispatchExecutor;
+        this.asyncQueueCapacity = asyncQueueCapacity;
+    }
 
     private final BuildOperationListener broadcaster = new BuildOperationListener() {
         @Override
@@ -67,28 +94,73 @@ public void addListener(BuildOperationListener listener) {
         listenersLock.lock();
         try {
             List<ProgressShieldingBuildOperationListener> listeners = new ArrayList<ProgressShieldingBuildOperationListener>(this.listeners);
-            listeners.add(new ProgressShieldingBuildOperationListener(listener));
+            listeners.add(new ProgressShieldingBuildOperationListener(listener, dispatchingTo(listener)));
             this.listeners = listeners;
         } finally {
             listenersLock.unlock();
         }
     }
 
+    private BuildOperationListener dispatchingTo(BuildOperationListener listener) {
+        if (asyncDispatchExecutor != null && listener instanceof AsyncTolerantBuildOperationListener) {
+            return new AsyncDispatchingBuildOperationListener((AsyncTolerantBuildOperationListener) listener, asyncDispatchExecutor, asyncQueueCapacity);
+        }
+        return listener;
+    }
+
     @Override
     public void removeListener(BuildOperationListener listener) {
+        List<ProgressShieldingBuildOperationListener> removed = new ArrayList<ProgressShieldingBuildOperationListener>();
         listenersLock.lock();
         try {
             List<ProgressShieldingBuildOperationListener> listeners = new ArrayList<ProgressShieldingBuildOperationListener>(this.listeners);
             ListIterator<ProgressShieldingBuildOperationListener> listIterator = listeners.listIterator();
             while (listIterator.hasNext()) {
-                if (listIterator.next().delegate.equals(listener)) {
+                ProgressShieldingBuildOperationListener next = listIterator.next();
+                if (next.listener.equals(listener)) {
                     listIterator.remove();
+                    removed.add(next);
                 }
             }
             this.listeners = listeners;
         } finally {
             listenersLock.unlock();
         }
+        // Deliver the remaining events of asynchronously notified listeners before returning
+        stopDispatching(removed);
+    }
+
+    /**
+     * Delivers the remaining events of asynchronously notified listeners, stops dispatching to them and shuts down the dispatch executor.
+     * Listeners stay registered, but events broadcast after this point are no longer delivered to async tolerant listeners.
+     */
+    @Override
+    public void close() {
+        try {
+            stopDispatching(listeners);
+        } finally {
+            if (asyncDispatchExecutor != null) {
+                asyncDispatchExecutor.shutdown();
+            }
+        }
+    }
+
+    private static void stopDispatching(List<ProgressShieldingBuildOperationListener> listeners) {
+        RuntimeException failure = null;
+        for (ProgressShieldingBuildOperationListener shieldingListener : listeners) {
+            if (shieldingListener.delegate instanceof AsyncDispatchingBuildOperationListener) {
+                try {
+                    ((AsyncDispatchingBuildOperationListener) shieldingListener.delegate).stop();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     @Override
@@ -102,9 +174,11 @@ public BuildOperationListener getBroadcaster() {
     private static class ProgressShieldingBuildOperationListener implements BuildOperationListener {
 
         private final Map<OperationIdentifier, Boolean> active = new ConcurrentHashMap<OperationIdentifier, Boolean>();
+        private final BuildOperationListener listener;
         private final BuildOperationListener delegate;
 
-        private ProgressShieldingBuildOperationListener(BuildOperationListener delegate) {
+        private ProgressShieldingBuildOperationListener(BuildOperationListener listener, BuildOperationListener delegate) {
+            this.listener = listener;
             this.delegate = delegate;
         }
 
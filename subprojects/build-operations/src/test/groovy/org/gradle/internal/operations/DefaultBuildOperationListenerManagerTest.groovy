@@ -17,6 +17,10 @@
 package org.gradle.internal.operations
 
 import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
 
 class DefaultBuildOperationListenerManagerTest extends Specification {
 
@@ -33,6 +37,12 @@ class DefaultBuildOperationListenerManagerTest extends Specification {
     def progressEvent = new OperationProgressEvent(0, null)
     def finishEvent = new OperationFinishEvent(0, 0, null, null)
 
+    def dispatchExecutor = Executors.newCachedThreadPool()
+
+    def cleanup() {
+        dispatchExecutor.shutdown()
+    }
+
     def "notifies start and progress in registration order, finish in reverse registration order"() {
         given:
         manager.addListener(recordingListener("1"))
@@ -122,6 +132,202 @@ class DefaultBuildOperationListenerManagerTest extends Specification {
         ]
     }
 
+    def "notifies async tolerant listeners from a dispatch thread in broadcast order when enabled"() {
+        given:
+        def manager = new DefaultBuildOperationListenerManager(dispatchExecutor)
+        def broadcaster = manager.broadcaster
+        def asyncListener = new AsyncRecordingListener("async")
+        manager.addListener(recordingListener("sync"))
+        manager.addListener(asyncListener)
+
+        when:
+        broadcaster.started(op1, startEvent)
+        broadcaster.progress(id1, progressEvent)
+        broadcaster.started(op2, startEvent)
+        broadcaster.finished(op1, finishEvent)
+        broadcaster.finished(op2, finishEvent)
+        manager.removeListener(asyncListener)
+
+        then:
+        events.findAll { it.startsWith("sync") } == [
+            start("sync", id1),
+            progress("sync", id1),
+            start("sync", id2),
+            finished("sync", id1),
+            finished("sync", id2)
+        ]
+        asyncListener.received == [
+            start("async", id1),
+            progress("async", id1),
+            start("async", id2),
+            finished("async", id1),
+            finished("async", id2)
+        ]
+        asyncListener.threads.size() == 1
+        asyncListener.threads[0] != Thread.currentThread()
+    }
+
+    def "notifies async tolerant listeners synchronously when async dispatch is disabled"() {
+        given:
+        def asyncListener = new AsyncRecordingListener("async")
+        manager.addListener(asyncListener)
+
+        when:
+        broadcaster.started(op1, startEvent)
+        broadcaster.finished(op1, finishEvent)
+
+        then:
+        asyncListener.received == [start("async", id1), finished("async", id1)]
+        asyncListener.threads == [Thread.currentThread()] as Set
+    }
+
+    def "applies back-pressure when the dispatch queue is full"() {
+        given:
+        def manager = new DefaultBuildOperationListenerManager(dispatchExecutor, 2)
+        def asyncListener = new AsyncRecordingListener("async") {
+            @Override
+            void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+                Thread.sleep(1)
+                super.progress(operationIdentifier, progressEvent)
+            }
+        }
+        manager.addListener(asyncListener)
+
+        when:
+        manager.broadcaster.started(op1, startEvent)
+        100.times { manager.broadcaster.progress(id1, progressEvent) }
+        manager.broadcaster.finished(op1, finishEvent)
+        manager.removeListener(asyncListener)
+
+        then:
+        asyncListener.received.size() == 102
+    }
+
+    def "drops progress events when the listener allows it and falls behind"() {
+        given:
+        def dispatching = new AsyncDispatchingBuildOperationListener(new AsyncRecordingListener("async") {
+            @Override
+            boolean isProgressDroppable() {
+                true
+            }
+
+            @Override
+            void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+                Thread.sleep(5)
+                super.progress(operationIdentifier, progressEvent)
+            }
+        }, dispatchExecutor, 2)
+
+        when:
+        dispatching.started(op1, startEvent)
+        100.times { dispatching.progress(id1, progressEvent) }
+        dispatching.finished(op1, finishEvent)
+        dispatching.stop()
+        def received = (dispatching.delegate as AsyncRecordingListener).received
+
+        then:
+        dispatching.droppedEventCount > 0
+        dispatching.queuedEventCount + dispatching.droppedEventCount == 102
+        received.size() == dispatching.queuedEventCount
+        received.first() == start("async", id1)
+        received.last() == finished("async", id1)
+    }
+
+    def "rethrows listener failure when async tolerant listener is removed"() {
+        given:
+        def manager = new DefaultBuildOperationListenerManager(dispatchExecutor)
+        def failure = new RuntimeException("broken")
+        def asyncListener = new AsyncRecordingListener("async") {
+            @Override
+            void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+                throw failure
+            }
+        }
+        manager.addListener(asyncListener)
+
+        when:
+        manager.broadcaster.started(op1, startEvent)
+        manager.broadcaster.finished(op1, finishEvent)
+        manager.removeListener(asyncListener)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        asyncListener.received == [finished("async", id1)]
+    }
+
+    @Timeout(30)
+    def "close delivers pending events to async tolerant listeners and shuts down the executor"() {
+        given:
+        def manager = new DefaultBuildOperationListenerManager(dispatchExecutor, 1)
+        def asyncListener = new AsyncRecordingListener("async")
+        manager.addListener(asyncListener)
+
+        when:
+        manager.broadcaster.started(op1, startEvent)
+        manager.broadcaster.finished(op1, finishEvent)
+        manager.close()
+
+        then:
+        asyncListener.received == [start("async", id1), finished("async", id1)]
+        dispatchExecutor.isShutdown()
+
+        when:
+        100.times { manager.broadcaster.progress(id2, progressEvent) }
+        manager.broadcaster.started(op2, startEvent)
+        manager.broadcaster.finished(op2, finishEvent)
+
+        then:
+        asyncListener.received == [start("async", id1), finished("async", id1)]
+    }
+
+    @Timeout(30)
+    def "stops dispatching when the executor is shut down"() {
+        given:
+        def asyncListener = new AsyncRecordingListener("async")
+        def dispatching = new AsyncDispatchingBuildOperationListener(asyncListener, dispatchExecutor, 1)
+
+        when:
+        dispatching.started(op1, startEvent)
+        dispatchExecutor.shutdown()
+        dispatching.stop()
+        dispatching.finished(op1, finishEvent)
+
+        then:
+        asyncListener.received == [start("async", id1)]
+        dispatching.droppedEventCount == 1
+    }
+
+    @Timeout(30)
+    def "a broadcast waiting on a full queue gives up when dispatching stops"() {
+        given:
+        def blocked = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def asyncListener = new AsyncRecordingListener("async") {
+            @Override
+            void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+                blocked.countDown()
+                release.await()
+                super.started(buildOperation, startEvent)
+            }
+        }
+        def dispatching = new AsyncDispatchingBuildOperationListener(asyncListener, dispatchExecutor, 1)
+
+        when:
+        dispatching.started(op1, startEvent)
+        blocked.await()
+        dispatching.started(op2, startEvent)
+        def stopping = Thread.start { dispatching.stop() }
+        // The queue is full, so this only returns once dispatching has stopped
+        dispatching.finished(op1, finishEvent)
+        release.countDown()
+        stopping.join()
+
+        then:
+        asyncListener.received == [start("async", id1), start("async", id2)]
+        dispatching.droppedEventCount == 1
+    }
+
     BuildOperationListener recordingListener(String label) {
         new RecordingListener(label)
     }
@@ -163,4 +369,31 @@ class DefaultBuildOperationListenerManagerTest extends Specification {
         }
     }
 
+    class AsyncRecordingListener implements AsyncTolerantBuildOperationListener {
+        private final String label
+        final List<String> received = []
+        final Set<Thread> threads = []
+
+        AsyncRecordingListener(String label) {
+            this.label = label
+        }
+
+        @Override
+        void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+            threads << Thread.currentThread()
+            received << start(label, buildOperation.id)
+        }
+
+        @Override
+        void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+            threads << Thread.currentThread()
+            received << progress(label, operationIdentifier)
+        }
+
+        @Override
+        void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+            threads << Thread.currentThread()
+            received << finished(label, buildOperation.id)
+        }
+    }
 }
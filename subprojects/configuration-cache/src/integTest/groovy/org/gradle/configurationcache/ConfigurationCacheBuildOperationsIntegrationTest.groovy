@@ -61,6 +61,8 @@ class ConfigurationCacheBuildOperationsIntegrationTest extends AbstractConfigura
 
         then:
         workGraphStoredAndLoaded()
+        operations.only(ConfigurationCacheStoreBuildOperationType).result.cacheEntrySize > 0
+        operations.only(ConfigurationCacheLoadBuildOperationType).result.cacheEntrySize == operations.only(ConfigurationCacheStoreBuildOperationType).result.cacheEntrySize
 
         when:
         inDirectory 'lib'
@@ -68,6 +70,7 @@ class ConfigurationCacheBuildOperationsIntegrationTest extends AbstractConfigura
 
         then:
         workGraphLoaded()
+        operations.only(ConfigurationCacheLoadBuildOperationType).result.cacheEntrySize > 0
     }
 
     def "emits relevant build operations when configuration cache is used - included build dependency"() {
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.security.GeneralSecurityException
+import javax.crypto.Cipher
+
+
+private
+const val CIPHER_BLOCK_SIZE = 64 * 1024
+
+
+/**
+ * Encrypts the bytes written to it in blocks of 64 KB, reusing its buffers for the whole stream.
+ *
+ * Unlike [javax.crypto.CipherOutputStream], failures to encrypt are not silently ignored.
+ */
+internal
+class BlockCipherOutputStream(
+    private val output: OutputStream,
+    private val cipher: Cipher
+) : OutputStream() {
+
+    private
+    val buffer = ByteArray(CIPHER_BLOCK_SIZE)
+
+    private
+    var count = 0
+
+    private
+    var encrypted = ByteArray(cipher.getOutputSize(CIPHER_BLOCK_SIZE))
+
+    private
+    var closed = false
+
+    override fun write(b: Int) {
+        if (count == buffer.size) {
+            encryptBuffer()
+        }
+        buffer[count++] = b.toByte()
+    }
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        var offset = off
+        var remaining = len
+        while (remaining > 0) {
+            if (count == buffer.size) {
+                encryptBuffer()
+            }
+            val chunk = minOf(remaining, buffer.size - count)
+            System.arraycopy(b, offset, buffer, count, chunk)
+            count += chunk
+            offset += chunk
+            remaining -= chunk
+        }
+    }
+
+    override fun flush() {
+        encryptBuffer()
+        output.flush()
+    }
+
+    override fun close() {
+        if (closed) {
+            return
+        }
+        closed = true
+        output.use {
+            encryptBuffer()
+            val length = cipherOperation {
+                cipher.doFinal(ensureCapacity(cipher.getOutputSize(0)), 0)
+            }
+            it.write(encrypted, 0, length)
+        }
+    }
+
+    private
+    fun encryptBuffer() {
+        if (count == 0) {
+            return
+        }
+        val length = cipherOperation {
+            cipher.update(buffer, 0, count, ensureCapacity(cipher.getOutputSize(count)))
+        }
+        count = 0
+        output.write(encrypted, 0, length)
+    }
+
+    private
+    fun ensureCapacity(size: Int): ByteArray {
+        if (encrypted.size < size) {
+            encrypted = ByteArray(size)
+        }
+        return encrypted
+    }
+}
+
+
+/**
+ * Decrypts the bytes read from the given stream in blocks of 64 KB, reusing its buffers for the whole stream.
+ *
+ * Unlike [javax.crypto.CipherInputStream], a stream that cannot be decrypted fails instead of being reported as truncated.
+ */
+internal
+class BlockCipherInputStream(
+    private val input: InputStream,
+    private val cipher: Cipher
+) : InputStream() {
+
+    private
+    val buffer = ByteArray(CIPHER_BLOCK_SIZE)
+
+    private
+    var decrypted = ByteArray(cipher.getOutputSize(CIPHER_BLOCK_SIZE))
+
+    private
+    var position = 0
+
+    private
+    var limit = 0
+
+    private
+    var finished = false
+
+    override fun read(): Int =
+        if (fill()) decrypted[position++].toInt() and 0xff
+        else -1
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0) {
+            return 0
+        }
+        if (!fill()) {
+            return -1
+        }
+        val count = minOf(len, limit - position)
+        System.arraycopy(decrypted, position, b, off, count)
+        position += count
+        return count
+    }
+
+    override fun available(): Int =
+        limit - position
+
+    override fun close() {
+        input.close()
+    }
+
+    private
+    fun fill(): Boolean {
+        while (position == limit) {
+            if (finished) {
+                return false
+            }
+            val read = input.read(buffer)
+            position = 0
+            if (read == -1) {
+                finished = true
+                limit = cipherOperation {
+                    cipher.doFinal(ensureCapacity(cipher.getOutputSize(0)), 0)
+                }
+            } else {
+                limit = cipherOperation {
+                    cipher.update(buffer, 0, read, ensureCapacity(cipher.getOutputSize(read)))
+                }
+            }
+        }
+        return true
+    }
+
+    private
+    fun ensureCapacity(size: Int): ByteArray {
+        if (decrypted.size < size) {
+            decrypted = ByteArray(size)
+        }
+        return decrypted
+    }
+}
+
+
+private
+inline fun cipherOperation(operation: () -> Int): Int =
+    try {
+        operation()
+    } catch (e: GeneralSecurityException) {
+        throw IOException(e)
+    }
@@ -16,9 +16,17 @@
 
 package org.gradle.configurationcache
 
+import org.gradle.configurationcache.serialization.readCollectionInto
+import org.gradle.configurationcache.serialization.readFile
+import org.gradle.configurationcache.serialization.writeCollection
+import org.gradle.configurationcache.serialization.writeFile
 import org.gradle.execution.plan.Node
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
 import org.gradle.normalization.internal.InputNormalizationHandlerInternal
 import org.gradle.util.Path
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
 import java.io.File
 
 
@@ -78,8 +86,13 @@ internal
 sealed class BuildWithProjects(
     identityPath: Path,
     val rootProjectName: String,
-    val projects: List<CachedProjectState>
-) : CachedBuildState(identityPath)
+    projects: () -> List<CachedProjectState>
+) : CachedBuildState(identityPath) {
+    /**
+     * All projects of the build, materialised on first access.
+     */
+    val projects: List<CachedProjectState> by lazy(projects)
+}
 
 
 /**
@@ -90,7 +103,7 @@ class BuildWithWork(
     identityPath: Path,
     val build: ConfigurationCacheBuild,
     rootProjectName: String,
-    projects: List<CachedProjectState>,
+    projects: () -> List<CachedProjectState>,
     val workGraph: List<Node>
 ) : BuildWithProjects(identityPath, rootProjectName, projects)
 
@@ -102,7 +115,7 @@ internal
 class BuildWithNoWork(
     identityPath: Path,
     rootProjectName: String,
-    projects: List<ProjectWithNoWork>
+    projects: () -> List<CachedProjectState>
 ) : BuildWithProjects(identityPath, rootProjectName, projects)
 
 
@@ -113,3 +126,35 @@ internal
 class BuildWithNoProjects(
     identityPath: Path
 ) : CachedBuildState(identityPath)
+
+
+/**
+ * Encodes the identity of the given projects into a self-contained block,
+ * so that it can be decoded on demand by [decodeProjectIdentities], outside of the read context.
+ */
+internal
+fun encodeProjectIdentities(projects: List<CachedProjectState>): ByteArray =
+    ByteArrayOutputStream().also { bytes ->
+        KryoBackedEncoder(bytes).use { encoder ->
+            encoder.writeCollection(projects) { project ->
+                encoder.writeString(project.path.path)
+                encoder.writeFile(project.projectDir)
+                encoder.writeFile(project.buildFile)
+            }
+        }
+    }.toByteArray()
+
+
+/**
+ * Decodes a block written by [encodeProjectIdentities], using the given state for the projects with work.
+ */
+internal
+fun decodeProjectIdentities(bytes: ByteArray, projectsWithWork: Map<Path, ProjectWithWork>): List<CachedProjectState> =
+    KryoBackedDecoder(ByteArrayInputStream(bytes)).use { decoder ->
+        decoder.readCollectionInto({ size -> ArrayList(size) }) {
+            val path = Path.path(decoder.readString())
+            val projectDir = decoder.readFile()
+            val buildFile = decoder.readFile()
+            projectsWithWork[path] ?: ProjectWithNoWork(path, projectDir, buildFile)
+        }
+    }
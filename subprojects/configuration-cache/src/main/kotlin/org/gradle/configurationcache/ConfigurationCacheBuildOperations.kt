@@ -24,14 +24,21 @@ import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.CallableBuildOperation
 
 
+/**
+ * Runs the given [block] as a load operation. The block returns the loaded value and the size in bytes of the state it was read from.
+ */
 internal
-fun <T : Any> BuildOperationExecutor.withLoadOperation(block: () -> T) =
-    withOperation("Load configuration cache state", block, LoadDetails, LoadResult)
+fun <T : Any> BuildOperationExecutor.withLoadOperation(block: () -> Pair<T, Long>): T =
+    withOperation("Load configuration cache state", block, LoadDetails, ::LoadResult)
 
 
+/**
+ * Runs the given [block] as a store operation. The block returns the size in bytes of the state it has written.
+ */
 internal
-fun BuildOperationExecutor.withStoreOperation(@Suppress("UNUSED_PARAMETER") cacheKey: String, block: () -> Unit) =
-    withOperation("Store configuration cache state", block, StoreDetails, StoreResult)
+fun BuildOperationExecutor.withStoreOperation(@Suppress("UNUSED_PARAMETER") cacheKey: String, block: () -> Long) {
+    withOperation("Store configuration cache state", { Unit to block() }, StoreDetails, ::StoreResult)
+}
 
 
 private
@@ -39,7 +46,7 @@ object LoadDetails : ConfigurationCacheLoadBuildOperationType.Details
 
 
 private
-object LoadResult : ConfigurationCacheLoadBuildOperationType.Result
+class LoadResult(override val cacheEntrySize: Long) : ConfigurationCacheLoadBuildOperationType.Result
 
 
 private
@@ -47,15 +54,18 @@ object StoreDetails : ConfigurationCacheStoreBuildOperationType.Details
 
 
 private
-object StoreResult : ConfigurationCacheStoreBuildOperationType.Result
+class StoreResult(override val cacheEntrySize: Long) : ConfigurationCacheStoreBuildOperationType.Result
 
 
 private
-fun <T : Any, D : Any, R : Any> BuildOperationExecutor.withOperation(displayName: String, block: () -> T, details: D, result: R): T =
+fun <T : Any, D : Any, R : Any> BuildOperationExecutor.withOperation(displayName: String, block: () -> Pair<T, Long>, details: D, result: (Long) -> R): T =
     call(object : CallableBuildOperation<T> {
         override fun description(): BuildOperationDescriptor.Builder =
             BuildOperationDescriptor.displayName(displayName).details(details)
 
         override fun call(context: BuildOperationContext): T =
-            block().also { context.setResult(result) }
+            block().let { (value, cacheEntrySize) ->
+                context.setResult(result(cacheEntrySize))
+                value
+            }
     })
@@ -71,6 +71,9 @@ class ConfigurationCacheIO internal constructor(
     private
     val encryptionService by lazy { service<EncryptionService>() }
 
+    private
+    val stateStreams by lazy { service<PipelinedStateStreams>() }
+
     internal
     fun writeCacheEntryDetailsTo(
         buildStateRegistry: BuildStateRegistry,
@@ -170,19 +173,29 @@ class ConfigurationCacheIO internal constructor(
         stateFile: ConfigurationCacheStateFile,
         action: suspend DefaultReadContext.(ConfigurationCacheState) -> T
     ): T {
-        return withReadContextFor(encryptionService.inputStream(stateFile.stateType, stateFile::inputStream)) { codecs ->
+        return withReadContextFor(stateStreams.inputStream { decompressing(encryptionService.inputStream(stateFile.stateType, stateFile::inputStream)) }) { codecs ->
             ConfigurationCacheState(codecs, stateFile, eventEmitter, host).run {
                 action(this)
             }
         }
     }
 
+    private
+    fun compressing(outputStream: OutputStream): OutputStream =
+        if (startParameter.compressionRequested) compressingOutputStream(outputStream)
+        else outputStream
+
+    private
+    fun decompressing(inputStream: InputStream): InputStream =
+        if (startParameter.compressionRequested) decompressingInputStream(inputStream)
+        else inputStream
+
     private
     fun <T> writeConfigurationCacheState(
         stateFile: ConfigurationCacheStateFile,
         action: suspend DefaultWriteContext.(ConfigurationCacheState) -> T
     ): T {
-        val (context, codecs) = writerContextFor(encryptionService.outputStream(stateFile.stateType, stateFile::outputStream)) {
+        val (context, codecs) = writerContextFor(stateStreams.outputStream { compressing(encryptionService.outputStream(stateFile.stateType, stateFile::outputStream)) }) {
             host.currentBuild.gradle.owner.displayName.displayName + " state"
         }
         return context.useToRun {
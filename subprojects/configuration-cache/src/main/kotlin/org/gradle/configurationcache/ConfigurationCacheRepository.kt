@@ -63,6 +63,11 @@ class ConfigurationCacheRepository(
         abstract fun fileForRead(stateType: StateType): ConfigurationCacheStateFile
 
         abstract fun fileFor(stateType: StateType): ConfigurationCacheStateFile
+
+        /**
+         * The total size in bytes of the state files of the given type, including those of included builds.
+         */
+        abstract fun sizeOf(stateType: StateType): Long
     }
 
     private
@@ -73,6 +78,8 @@ class ConfigurationCacheRepository(
         override fun fileForRead(stateType: StateType) = ReadableConfigurationCacheStateFile(cacheDir.stateFile(stateType), stateType)
 
         override fun fileFor(stateType: StateType): ConfigurationCacheStateFile = WriteableConfigurationCacheStateFile(cacheDir.stateFile(stateType), stateType, onFileAccess)
+
+        override fun sizeOf(stateType: StateType): Long = cacheDir.sizeOfStateFiles(stateType)
     }
 
     private
@@ -82,6 +89,8 @@ class ConfigurationCacheRepository(
         override fun fileForRead(stateType: StateType) = fileFor(stateType)
 
         override fun fileFor(stateType: StateType): ConfigurationCacheStateFile = ReadableConfigurationCacheStateFile(cacheDir.stateFile(stateType), stateType)
+
+        override fun sizeOf(stateType: StateType): Long = cacheDir.sizeOfStateFiles(stateType)
     }
 
     override fun stop() {
@@ -272,4 +281,12 @@ class ConfigurationCacheRepository(
 
     private
     fun File.stateFile(stateType: StateType) = resolve("${stateType.fileBaseName}.bin")
+
+    private
+    fun File.sizeOfStateFiles(stateType: StateType): Long {
+        val stateFileName = stateFile(stateType).name
+        return listFiles { file -> file.name == stateFileName || file.name.startsWith("$stateFileName.") }
+            ?.sumOf { it.length() }
+            ?: 0L
+    }
 }
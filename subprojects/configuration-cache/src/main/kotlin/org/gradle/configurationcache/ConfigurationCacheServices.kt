@@ -62,6 +62,7 @@ class ConfigurationCacheServices : AbstractPluginServiceRegistry() {
             add(DefaultBuildModelControllerServices::class.java)
             add(DefaultBuildToolingModelControllerFactory::class.java)
             add(ConfigurationCacheRepository::class.java)
+            add(PipelinedStateStreams::class.java)
             add(InputTrackingState::class.java)
             add(InstrumentedInputAccessListener::class.java)
             add(InstrumentedExecutionAccessListener::class.java)
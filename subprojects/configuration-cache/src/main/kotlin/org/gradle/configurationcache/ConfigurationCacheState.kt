@@ -44,6 +44,7 @@ import org.gradle.configurationcache.serialization.codecs.Codecs
 import org.gradle.configurationcache.serialization.logNotImplemented
 import org.gradle.configurationcache.serialization.readCollection
 import org.gradle.configurationcache.serialization.readEnum
+import org.gradle.configurationcache.serialization.readFile
 import org.gradle.configurationcache.serialization.readList
 import org.gradle.configurationcache.serialization.readNonNull
 import org.gradle.configurationcache.serialization.readStrings
@@ -52,6 +53,7 @@ import org.gradle.configurationcache.serialization.withGradleIsolate
 import org.gradle.configurationcache.serialization.withIsolate
 import org.gradle.configurationcache.serialization.writeCollection
 import org.gradle.configurationcache.serialization.writeEnum
+import org.gradle.configurationcache.serialization.writeFile
 import org.gradle.configurationcache.serialization.writeStrings
 import org.gradle.configurationcache.services.ConfigurationCacheEnvironmentChangeTracker
 import org.gradle.execution.plan.Node
@@ -166,10 +168,11 @@ class ConfigurationCacheState(
         eventEmitter.emitNowForCurrent(BuildIdentifiedProgressDetails { identityPath })
 
         if (state is BuildWithProjects) {
-            val projects = convertProjects(state.projects, state.rootProjectName)
             eventEmitter.emitNowForCurrent(object : ProjectsIdentifiedProgressDetails {
+                // Only materialise the projects of the build when a listener asks for them
+                private val rootProject by lazy { convertProjects(state.projects, state.rootProjectName) }
                 override fun getBuildPath() = identityPath
-                override fun getRootProject() = projects
+                override fun getRootProject() = rootProject
             })
         }
     }
@@ -372,9 +375,13 @@ class ConfigurationCacheState(
             if (state.projectsAvailable) {
                 writeBoolean(true)
                 writeString(state.projects.rootProject.name)
-                writeCollection(state.projects.allProjects) { project ->
-                    write(ProjectWithNoWork(project.projectPath, project.projectDir, project.mutableModel.buildFile))
-                }
+                writeBinary(
+                    encodeProjectIdentities(
+                        state.projects.allProjects.map { project ->
+                            ProjectWithNoWork(project.projectPath, project.projectDir, project.mutableModel.buildFile)
+                        }
+                    )
+                )
             } else {
                 writeBoolean(false)
             }
@@ -388,8 +395,8 @@ class ConfigurationCacheState(
             val hasProjects = readBoolean()
             if (hasProjects) {
                 val rootProjectName = readString()
-                val projects: List<ProjectWithNoWork> = readList().uncheckedCast()
-                BuildWithNoWork(identityPath, rootProjectName, projects)
+                val projects = readBinary()
+                BuildWithNoWork(identityPath, rootProjectName) { decodeProjectIdentities(projects, emptyMap()) }
             } else {
                 BuildWithNoProjects(identityPath)
             }
@@ -428,6 +435,7 @@ class ConfigurationCacheState(
         if (readBoolean()) {
             readGradleState(build)
             val projects = readProjects(gradle, build)
+            val projectIdentities = readBinary()
 
             build.createProjects()
 
@@ -439,7 +447,7 @@ class ConfigurationCacheState(
             val workGraph = readWorkGraph(gradle)
             readFlowScopeOf(gradle)
             readBuildOutputCleanupRegistrations(gradle)
-            return BuildWithWork(build.state.identityPath, build, gradle.rootProject.name, projects, workGraph)
+            return BuildWithWork(build.state.identityPath, build, gradle.rootProject.name, { decodeProjectIdentities(projectIdentities, projects.associateBy { it.path }) }, workGraph)
         } else {
             return BuildWithNoProjects(build.state.identityPath)
         }
@@ -513,9 +521,9 @@ class ConfigurationCacheState(
     }
 
     private
-    fun applyProjectStates(projects: List<CachedProjectState>, gradle: GradleInternal) {
+    fun applyProjectStates(projects: List<ProjectWithWork>, gradle: GradleInternal) {
         for (project in projects) {
-            if (project is ProjectWithWork && project.normalizationState != null) {
+            if (project.normalizationState != null) {
                 val projectState = gradle.owner.projects.getProject(project.path)
                 projectState.mutableModel.normalization.configureFromCachedState(project.normalizationState)
             }
@@ -789,22 +797,31 @@ class ConfigurationCacheState(
     suspend fun WriteContext.writeProjects(gradle: GradleInternal, projects: List<CachedProjectState>) {
         writeString(gradle.rootProject.name)
         withGradleIsolate(gradle, userTypesCodec) {
-            writeCollection(projects)
+            writeCollection(projects.filterIsInstance<ProjectWithWork>()) { project ->
+                writeString(project.path.path)
+                writeFile(project.projectDir)
+                writeFile(project.buildFile)
+                writeFile(project.buildDir)
+                write(project.normalizationState)
+            }
         }
+        // Projects without work are only needed to describe the build structure, so are decoded on demand
+        writeBinary(encodeProjectIdentities(projects))
     }
 
+    /**
+     * Reads and registers the projects with work, the only ones that need to be created to execute the work graph.
+     */
     private
-    suspend fun ReadContext.readProjects(gradle: GradleInternal, build: ConfigurationCacheBuild): List<CachedProjectState> {
+    suspend fun ReadContext.readProjects(gradle: GradleInternal, build: ConfigurationCacheBuild): List<ProjectWithWork> {
         withGradleIsolate(gradle, userTypesCodec) {
             val rootProjectName = readString()
             return readList {
-                val project = readNonNull<CachedProjectState>()
-                if (project is ProjectWithWork) {
-                    if (project.path == Path.ROOT) {
-                        build.registerRootProject(rootProjectName, project.projectDir, project.buildDir)
-                    } else {
-                        build.registerProject(project.path, project.projectDir, project.buildDir)
-                    }
+                val project = ProjectWithWork(Path.path(readString()), readFile(), readFile(), readFile(), read()?.uncheckedCast())
+                if (project.path == Path.ROOT) {
+                    build.registerRootProject(rootProjectName, project.projectDir, project.buildDir)
+                } else {
+                    build.registerProject(project.path, project.projectDir, project.buildDir)
                 }
                 project
             }
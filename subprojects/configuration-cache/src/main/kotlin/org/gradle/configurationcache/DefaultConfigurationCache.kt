@@ -342,6 +342,7 @@ class DefaultConfigurationCache internal constructor(
         }
 
         buildOperationExecutor.withStoreOperation(cacheKey.string) {
+            var cacheEntrySize = 0L
             store.useForStore { layout ->
                 try {
                     action(layout.fileFor(stateType))
@@ -352,7 +353,9 @@ class DefaultConfigurationCache internal constructor(
                 } finally {
                     scopeRegistryListener.dispose()
                 }
+                cacheEntrySize = layout.sizeOf(stateType)
             }
+            cacheEntrySize
         }
 
         crossConfigurationTimeBarrier()
@@ -381,7 +384,9 @@ class DefaultConfigurationCache internal constructor(
         scopeRegistryListener.dispose()
 
         val result = buildOperationExecutor.withLoadOperation {
-            store.useForStateLoad(stateType, action)
+            store.useForStateLoad { layout ->
+                action(layout.fileFor(stateType)) to layout.sizeOf(stateType)
+            }
         }
         crossConfigurationTimeBarrier()
         return result
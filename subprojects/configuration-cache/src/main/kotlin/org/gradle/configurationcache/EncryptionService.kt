@@ -33,8 +33,6 @@ import java.io.InputStream
 import java.io.OutputStream
 import java.security.InvalidKeyException
 import java.security.KeyStore
-import javax.crypto.CipherInputStream
-import javax.crypto.CipherOutputStream
 import javax.crypto.KeyGenerator
 import javax.crypto.SecretKey
 
@@ -171,13 +169,13 @@ class DefaultEncryptionService(
     private
     fun decryptingInputStream(inputStream: InputStream): InputStream {
         val cipher = newEncryptionSession().decryptingCipher(inputStream::read)
-        return CipherInputStream(inputStream, cipher)
+        return BlockCipherInputStream(inputStream, cipher)
     }
 
     private
     fun encryptingOutputStream(outputStream: OutputStream): OutputStream {
         val cipher = newEncryptionSession().encryptingCipher(outputStream::write)
-        return CipherOutputStream(outputStream, cipher)
+        return BlockCipherOutputStream(outputStream, cipher)
     }
 
     private
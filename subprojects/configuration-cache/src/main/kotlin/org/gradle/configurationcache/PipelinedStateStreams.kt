@@ -0,0 +1,309 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.service.scopes.Scopes
+import org.gradle.internal.service.scopes.ServiceScope
+import java.io.Closeable
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+
+/**
+ * Moves the reading and writing of configuration cache state files, including their encryption, to a background thread,
+ * so that it runs concurrently with the encoding and decoding of the state on the calling thread.
+ */
+@ServiceScope(Scopes.BuildTree::class)
+class PipelinedStateStreams(
+    private val executorFactory: ExecutorFactory
+) : Closeable {
+
+    private
+    var executor: ManagedExecutor? = null
+
+    /**
+     * Returns a stream that reads ahead from the stream created by [source] on a background thread.
+     */
+    fun inputStream(source: () -> InputStream): InputStream =
+        ReadAheadInputStream(source(), executor())
+
+    /**
+     * Returns a stream that writes to the stream created by [target] on a background thread.
+     * Failures to write are reported when the returned stream is closed.
+     */
+    fun outputStream(target: () -> OutputStream): OutputStream =
+        WriteBehindOutputStream(target(), executor())
+
+    @Synchronized
+    private
+    fun executor(): ManagedExecutor =
+        executor ?: executorFactory.create("Configuration cache state IO").also {
+            executor = it
+        }
+
+    @Synchronized
+    override fun close() {
+        executor?.stop()
+        executor = null
+    }
+
+    private
+    class Block(val bytes: ByteArray, val length: Int, val failure: Throwable? = null)
+
+    private
+    class ReadAheadInputStream(
+        private val source: InputStream,
+        executor: ManagedExecutor
+    ) : InputStream() {
+
+        private
+        val blocks = ArrayBlockingQueue<Block>(MAX_PENDING_BLOCKS)
+
+        private
+        val done = CountDownLatch(1)
+
+        @Volatile
+        private
+        var closed = false
+
+        private
+        var current: Block? = null
+
+        private
+        var position = 0
+
+        init {
+            executor.execute {
+                try {
+                    source.use {
+                        readBlocks()
+                    }
+                } catch (e: Throwable) {
+                    offer(Block(ByteArray(0), -1, e))
+                } finally {
+                    done.countDown()
+                }
+            }
+        }
+
+        private
+        fun readBlocks() {
+            while (!closed) {
+                val bytes = ByteArray(BLOCK_SIZE)
+                val length = readFully(bytes)
+                if (length > 0 && !offer(Block(bytes, length))) {
+                    return
+                }
+                if (length < bytes.size) {
+                    offer(END_OF_STREAM)
+                    return
+                }
+            }
+        }
+
+        private
+        fun readFully(bytes: ByteArray): Int {
+            var length = 0
+            while (length < bytes.size) {
+                val read = source.read(bytes, length, bytes.size - length)
+                if (read < 0) {
+                    break
+                }
+                length += read
+            }
+            return length
+        }
+
+        /**
+         * Hands a block to the reading thread, giving up when the stream is closed before the block is taken.
+         */
+        private
+        fun offer(block: Block): Boolean {
+            while (!closed) {
+                if (blocks.offer(block, 100, TimeUnit.MILLISECONDS)) {
+                    return true
+                }
+            }
+            return false
+        }
+
+        override fun read(): Int {
+            val block = nextBlock() ?: return -1
+            return block.bytes[position++].toInt() and 0xff
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (len == 0) {
+                return 0
+            }
+            val block = nextBlock() ?: return -1
+            val count = minOf(len, block.length - position)
+            System.arraycopy(block.bytes, position, b, off, count)
+            position += count
+            return count
+        }
+
+        override fun available(): Int =
+            current?.let { it.length - position } ?: 0
+
+        private
+        fun nextBlock(): Block? {
+            var block = current
+            while (block == null || (block.length >= 0 && position == block.length)) {
+                block = blocks.take()
+                position = 0
+                current = block
+            }
+            block.failure?.let {
+                throw IOException("Could not read configuration cache state.", it)
+            }
+            return if (block.length < 0) null else block
+        }
+
+        override fun close() {
+            closed = true
+            blocks.clear()
+            done.await()
+        }
+    }
+
+    private
+    class WriteBehindOutputStream(
+        private val target: OutputStream,
+        executor: ManagedExecutor
+    ) : OutputStream() {
+
+        private
+        val blocks = ArrayBlockingQueue<Block>(MAX_PENDING_BLOCKS)
+
+        private
+        val writer: Future<*>
+
+        @Volatile
+        private
+        var failure: Throwable? = null
+
+        private
+        var buffer = ByteArray(BLOCK_SIZE)
+
+        private
+        var count = 0
+
+        private
+        var closed = false
+
+        init {
+            writer = executor.submit {
+                target.use {
+                    writeBlocks()
+                }
+            }
+        }
+
+        private
+        fun writeBlocks() {
+            while (true) {
+                val block = blocks.take()
+                if (block === END_OF_STREAM) {
+                    return
+                }
+                // Keep taking blocks after a failure, so that the writing thread is never blocked
+                if (failure == null) {
+                    try {
+                        target.write(block.bytes, 0, block.length)
+                    } catch (e: Throwable) {
+                        failure = e
+                    }
+                }
+            }
+        }
+
+        override fun write(b: Int) {
+            if (count == buffer.size) {
+                handOff()
+            }
+            buffer[count++] = b.toByte()
+        }
+
+        override fun write(b: ByteArray, off: Int, len: Int) {
+            var offset = off
+            var remaining = len
+            while (remaining > 0) {
+                if (count == buffer.size) {
+                    handOff()
+                }
+                val chunk = minOf(remaining, buffer.size - count)
+                System.arraycopy(b, offset, buffer, count, chunk)
+                count += chunk
+                offset += chunk
+                remaining -= chunk
+            }
+        }
+
+        override fun flush() {
+            if (count > 0) {
+                handOff()
+            }
+        }
+
+        private
+        fun handOff() {
+            failure?.let {
+                throw IOException("Could not write configuration cache state.", it)
+            }
+            blocks.put(Block(buffer, count))
+            buffer = ByteArray(BLOCK_SIZE)
+            count = 0
+        }
+
+        override fun close() {
+            if (closed) {
+                return
+            }
+            closed = true
+            if (count > 0 && failure == null) {
+                blocks.put(Block(buffer, count))
+            }
+            blocks.put(END_OF_STREAM)
+            try {
+                writer.get()
+            } catch (e: Exception) {
+                throw IOException("Could not write configuration cache state.", e.cause ?: e)
+            }
+            failure?.let {
+                throw IOException("Could not write configuration cache state.", it)
+            }
+        }
+    }
+
+    private
+    companion object {
+
+        const val BLOCK_SIZE = 64 * 1024
+
+        const val MAX_PENDING_BLOCKS = 4
+
+        val END_OF_STREAM = Block(ByteArray(0), -1)
+    }
+}
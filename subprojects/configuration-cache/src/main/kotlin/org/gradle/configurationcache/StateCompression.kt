@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
+
+
+private
+const val COMPRESSION_BUFFER_SIZE = 64 * 1024
+
+
+/**
+ * Compresses the bytes written to the given stream, favouring speed over ratio.
+ */
+internal
+fun compressingOutputStream(output: OutputStream): OutputStream =
+    Deflater(Deflater.BEST_SPEED).let { deflater ->
+        object : DeflaterOutputStream(output, deflater, COMPRESSION_BUFFER_SIZE) {
+            override fun close() {
+                try {
+                    super.close()
+                } finally {
+                    deflater.end()
+                }
+            }
+        }
+    }
+
+
+/**
+ * Decompresses the bytes read from a stream written by [compressingOutputStream].
+ */
+internal
+fun decompressingInputStream(input: InputStream): InputStream =
+    Inflater().let { inflater ->
+        object : InflaterInputStream(input, inflater, COMPRESSION_BUFFER_SIZE) {
+            override fun close() {
+                try {
+                    super.close()
+                } finally {
+                    inflater.end()
+                }
+            }
+        }
+    }
@@ -27,12 +27,19 @@ import org.gradle.configurationcache.extensions.filterKeysByPrefix
 import org.gradle.configurationcache.extensions.uncheckedCast
 import org.gradle.configurationcache.logger
 import org.gradle.configurationcache.serialization.ReadContext
+import org.gradle.internal.UncheckedException
 import org.gradle.internal.file.FileType
 import org.gradle.internal.hash.HashCode
 import org.gradle.internal.util.NumberUtil.ordinal
 import org.gradle.util.Path
 import java.io.File
 import java.net.URI
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 import java.util.function.Consumer
 
 
@@ -40,8 +47,19 @@ internal
 typealias InvalidationReason = String
 
 
+/**
+ * Checks the recorded inputs of a configuration cache entry.
+ *
+ * The inputs are decoded and checked one at a time. The checks of consecutive file system inputs are started on the given [fileSystemCheckExecutor], when present,
+ * while the following inputs are decoded. Their results are consumed in order, so the reported invalidation reason is the same as when the inputs are checked one after the other.
+ * Other inputs, such as value sources, which may run build logic, are checked on the calling thread once all pending file system checks have completed,
+ * and checking stops at the first invalid result.
+ */
 internal
-class ConfigurationCacheFingerprintChecker(private val host: Host) {
+class ConfigurationCacheFingerprintChecker(
+    private val host: Host,
+    private val fileSystemCheckExecutor: Executor? = null
+) {
 
     interface Host {
         val isEncrypted: Boolean
@@ -64,59 +82,111 @@ class ConfigurationCacheFingerprintChecker(private val host: Host) {
     }
 
     suspend fun ReadContext.checkBuildScopedFingerprint(): CheckedFingerprint {
-        // TODO: log some debug info
-        while (true) {
-            when (val input = read()) {
-                null -> break
-                is ConfigurationCacheFingerprint -> {
-                    // An input that is not specific to a project. If it is out-of-date, then invalidate the whole cache entry and skip any further checks
-                    val reason = check(input)
+        val pendingChecks = ArrayDeque<PendingCheck>()
+        try {
+            while (true) {
+                val input = try {
+                    read()
+                } catch (e: Exception) {
+                    // The input may no longer be readable because of a change that an earlier input records
+                    val reason = pendingChecks.firstInvalidationReason()
                     if (reason != null) {
                         return CheckedFingerprint.EntryInvalid(reason)
                     }
+                    throw e
+                }
+                when (input) {
+                    null -> break
+                    is ConfigurationCacheFingerprint -> {
+                        // An input that is not specific to a project. If it is out-of-date, then invalidate the whole cache entry and skip any further checks
+                        val pendingCheck = startFileSystemCheck(input)
+                        val reason = if (pendingCheck != null) {
+                            pendingChecks.addLast(pendingCheck)
+                            pendingChecks.firstCompletedInvalidationReason()
+                        } else {
+                            pendingChecks.firstInvalidationReason() ?: timedCheck(input)
+                        }
+                        if (reason != null) {
+                            return CheckedFingerprint.EntryInvalid(reason)
+                        }
+                    }
+                    else -> throw IllegalStateException("Unexpected configuration cache fingerprint: $input")
                 }
-                else -> throw IllegalStateException("Unexpected configuration cache fingerprint: $input")
             }
+            val reason = pendingChecks.firstInvalidationReason()
+            return if (reason == null) CheckedFingerprint.Valid else CheckedFingerprint.EntryInvalid(reason)
+        } finally {
+            pendingChecks.forEach(PendingCheck::cancel)
+            timings.report("build")
         }
-        return CheckedFingerprint.Valid
     }
 
     suspend fun ReadContext.checkProjectScopedFingerprint(): CheckedFingerprint {
-        // TODO: log some debug info
         var firstReason: InvalidationReason? = null
         val projects = mutableMapOf<Path, ProjectInvalidationState>()
-        while (true) {
-            when (val input = read()) {
-                null -> break
-                is ProjectSpecificFingerprint.ProjectFingerprint -> input.run {
-                    // An input that is specific to a project. If it is out-of-date, then invalidate that project's values and continue checking values
-                    // Don't check a value for a project that is already out-of-date
-                    val state = projects.entryFor(input.projectPath)
-                    if (!state.isInvalid) {
-                        val reason = check(input.value)
-                        if (reason != null) {
-                            if (firstReason == null) {
-                                firstReason = reason
+        val pendingChecks = ArrayDeque<Pair<ProjectInvalidationState, PendingCheck>>()
+
+        fun invalidate(state: ProjectInvalidationState, reason: InvalidationReason?) {
+            if (reason != null) {
+                if (firstReason == null) {
+                    firstReason = reason
+                }
+                state.invalidate()
+            }
+        }
+
+        fun consumePendingChecks(onlyCompleted: Boolean) {
+            while (pendingChecks.isNotEmpty() && (!onlyCompleted || pendingChecks.first().second.isDone)) {
+                val (state, pendingCheck) = pendingChecks.removeFirst()
+                if (state.isInvalid) {
+                    pendingCheck.cancel()
+                } else {
+                    invalidate(state, pendingCheck.reason())
+                }
+            }
+        }
+
+        try {
+            while (true) {
+                when (val input = read()) {
+                    null -> break
+                    is ProjectSpecificFingerprint.ProjectFingerprint -> {
+                        // An input that is specific to a project. If it is out-of-date, then invalidate that project's values and continue checking values
+                        // Don't check a value for a project that is already out-of-date
+                        val state = projects.entryFor(input.projectPath)
+                        if (!state.isInvalid) {
+                            val pendingCheck = startFileSystemCheck(input.value)
+                            if (pendingCheck != null) {
+                                pendingChecks.addLast(state to pendingCheck)
+                                consumePendingChecks(onlyCompleted = true)
+                            } else {
+                                consumePendingChecks(onlyCompleted = false)
+                                if (!state.isInvalid) {
+                                    invalidate(state, timedCheck(input.value))
+                                }
                             }
-                            state.invalidate()
                         }
                     }
-                }
-                is ProjectSpecificFingerprint.ProjectDependency -> {
-                    val consumer = projects.entryFor(input.consumingProject)
-                    val target = projects.entryFor(input.targetProject)
-                    target.consumedBy(consumer)
-                }
-                is ProjectSpecificFingerprint.CoupledProjects -> {
-                    if (host.invalidateCoupledProjects) {
-                        val referrer = projects.entryFor(input.referringProject)
+                    is ProjectSpecificFingerprint.ProjectDependency -> {
+                        val consumer = projects.entryFor(input.consumingProject)
                         val target = projects.entryFor(input.targetProject)
-                        target.consumedBy(referrer)
-                        referrer.consumedBy(target)
+                        target.consumedBy(consumer)
+                    }
+                    is ProjectSpecificFingerprint.CoupledProjects -> {
+                        if (host.invalidateCoupledProjects) {
+                            val referrer = projects.entryFor(input.referringProject)
+                            val target = projects.entryFor(input.targetProject)
+                            target.consumedBy(referrer)
+                            referrer.consumedBy(target)
+                        }
                     }
+                    else -> throw IllegalStateException("Unexpected configuration cache fingerprint: $input")
                 }
-                else -> throw IllegalStateException("Unexpected configuration cache fingerprint: $input")
             }
+            consumePendingChecks(onlyCompleted = false)
+        } finally {
+            pendingChecks.forEach { (_, pendingCheck) -> pendingCheck.cancel() }
+            timings.report("project")
         }
         return if (firstReason == null) {
             CheckedFingerprint.Valid
@@ -148,6 +218,71 @@ class ConfigurationCacheFingerprintChecker(private val host: Host) {
     private
     fun MutableMap<Path, ProjectInvalidationState>.entryFor(path: Path) = getOrPut(path) { ProjectInvalidationState() }
 
+    private
+    val timings = CheckTimings()
+
+    /**
+     * Starts the check of a file system input on the [fileSystemCheckExecutor], or returns null when the input has to be checked on the calling thread.
+     */
+    private
+    fun startFileSystemCheck(input: ConfigurationCacheFingerprint): PendingCheck? {
+        val executor = fileSystemCheckExecutor
+        if (executor == null || !input.isFileSystemInput) {
+            return null
+        }
+        return PendingCheck(CompletableFuture.supplyAsync({ timedCheck(input) }, executor))
+    }
+
+    /**
+     * Waits for the pending checks in order and returns the first invalidation reason, leaving the checks after it pending.
+     */
+    private
+    fun ArrayDeque<PendingCheck>.firstInvalidationReason(): InvalidationReason? {
+        while (isNotEmpty()) {
+            val reason = removeFirst().reason()
+            if (reason != null) {
+                return reason
+            }
+        }
+        return null
+    }
+
+    /**
+     * Like [firstInvalidationReason], but stops at the first check that has not completed yet.
+     */
+    private
+    fun ArrayDeque<PendingCheck>.firstCompletedInvalidationReason(): InvalidationReason? {
+        while (isNotEmpty() && first().isDone) {
+            val reason = removeFirst().reason()
+            if (reason != null) {
+                return reason
+            }
+        }
+        return null
+    }
+
+    /**
+     * Inputs whose check only queries the file system, and so can run concurrently with other checks.
+     */
+    private
+    val ConfigurationCacheFingerprint.isFileSystemInput: Boolean
+        get() = when (this) {
+            is ConfigurationCacheFingerprint.InputFile,
+            is ConfigurationCacheFingerprint.DirectoryChildren,
+            is ConfigurationCacheFingerprint.InputFileSystemEntry -> true
+            else -> false
+        }
+
+    private
+    fun timedCheck(input: ConfigurationCacheFingerprint): InvalidationReason? {
+        val start = System.nanoTime()
+        try {
+            return check(input)
+        } finally {
+            timings.record(input, System.nanoTime() - start)
+        }
+    }
+
     private
     fun check(input: ConfigurationCacheFingerprint): InvalidationReason? {
         when (input) {
@@ -336,6 +471,49 @@ class ConfigurationCacheFingerprintChecker(private val host: Host) {
     fun buildLogicInputFailed(obtainedValue: ObtainedValue, failure: Throwable): InvalidationReason =
         "a build logic input of type '${obtainedValue.valueSourceType.simpleName}' failed when storing the entry with $failure"
 
+    private
+    class PendingCheck(private val future: CompletableFuture<InvalidationReason?>) {
+        val isDone: Boolean
+            get() = future.isDone
+
+        fun reason(): InvalidationReason? =
+            try {
+                future.join()
+            } catch (e: CompletionException) {
+                throw UncheckedException.throwAsUncheckedException(e.cause ?: e)
+            }
+
+        fun cancel() {
+            future.cancel(false)
+        }
+    }
+
+    /**
+     * Accumulates the time spent checking each kind of input, which is logged at info level once all inputs of a fingerprint are checked.
+     */
+    private
+    class CheckTimings {
+        private
+        val timings = ConcurrentHashMap<String, Pair<AtomicLong, AtomicLong>>()
+
+        fun record(input: ConfigurationCacheFingerprint, nanos: Long) {
+            val (count, totalNanos) = timings.computeIfAbsent(input.javaClass.simpleName) { AtomicLong() to AtomicLong() }
+            count.incrementAndGet()
+            totalNanos.addAndGet(nanos)
+        }
+
+        fun report(scope: String) {
+            if (timings.isEmpty() || !logger.isInfoEnabled) {
+                return
+            }
+            val summary = timings.entries.sortedByDescending { it.value.second.get() }.joinToString { (kind, timing) ->
+                "$kind: ${timing.first.get()} in ${TimeUnit.NANOSECONDS.toMillis(timing.second.get())} ms"
+            }
+            logger.info("Checked {} scoped configuration cache fingerprint ({})", scope, summary)
+            timings.clear()
+        }
+    }
+
     private
     class ProjectInvalidationState {
         // When true, the project is definitely invalid
@@ -43,6 +43,8 @@ import org.gradle.configurationcache.services.ConfigurationCacheEnvironmentChang
 import org.gradle.configurationcache.services.RemoteScriptUpToDateChecker
 import org.gradle.internal.agents.AgentStatus
 import org.gradle.internal.buildtree.BuildModelParameters
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.concurrent.Stoppable
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.execution.FileCollectionFingerprinterRegistry
@@ -91,7 +93,8 @@ class ConfigurationCacheFingerprintController internal constructor(
     private val remoteScriptUpToDateChecker: RemoteScriptUpToDateChecker,
     private val agentStatus: AgentStatus,
     private val problems: ConfigurationCacheProblems,
-    private val encryptionService: EncryptionService
+    private val encryptionService: EncryptionService,
+    private val executorFactory: ExecutorFactory
 ) : Stoppable, ProjectScopedScriptResolution {
 
     interface Host {
@@ -273,18 +276,29 @@ class ConfigurationCacheFingerprintController internal constructor(
 
     override fun stop() {
         writingState = writingState.dispose()
+        fileSystemCheckExecutor?.stop()
+        fileSystemCheckExecutor = null
     }
 
     suspend fun ReadContext.checkBuildScopedFingerprint(host: Host): CheckedFingerprint =
-        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host)).run {
+        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host), fileSystemCheckExecutor()).run {
             checkBuildScopedFingerprint()
         }
 
     suspend fun ReadContext.checkProjectScopedFingerprint(host: Host): CheckedFingerprint =
-        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host)).run {
+        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host), fileSystemCheckExecutor()).run {
             checkProjectScopedFingerprint()
         }
 
+    private
+    var fileSystemCheckExecutor: ManagedExecutor? = null
+
+    private
+    fun fileSystemCheckExecutor(): ManagedExecutor =
+        fileSystemCheckExecutor ?: executorFactory.create("Configuration cache fingerprint checks", Runtime.getRuntime().availableProcessors()).also {
+            fileSystemCheckExecutor = it
+        }
+
     suspend fun ReadContext.collectFingerprintForReusedProjects(host: Host, reusedProjects: Set<Path>): Unit =
         ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host)).run {
             visitEntriesForProjects(reusedProjects) { fingerprint ->
@@ -51,6 +51,8 @@ class ConfigurationCacheStartParameter(
 
     val encryptionAlgorithm: String = options.getInternalString("org.gradle.configuration-cache.internal.encryption-alg", SupportedEncryptionAlgorithm.AES_ECB_PADDING.transformation)
 
+    val compressionRequested: Boolean = options.getInternalFlag("org.gradle.configuration-cache.internal.compression", false)
+
     /**
      * Should be provided if a link to the report is expected even if no errors were found.
      * Useful in testing.
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import javax.crypto.Cipher
+import javax.crypto.KeyGenerator
+import kotlin.random.Random
+
+
+class BlockCipherStreamsTest {
+
+    private
+    val key = KeyGenerator.getInstance("AES").generateKey()
+
+    @Test
+    fun `encrypts the same bytes as a single cipher operation`() {
+        for (size in listOf(0, 1, 16, 17, 64 * 1024, 64 * 1024 + 1, 300_000)) {
+            val content = Random(size).nextBytes(size)
+
+            val encrypted = ByteArrayOutputStream().also { output ->
+                BlockCipherOutputStream(output, cipher(Cipher.ENCRYPT_MODE)).use {
+                    it.write(content, 0, size / 2)
+                    it.flush()
+                    it.write(content, size / 2, size - size / 2)
+                }
+            }.toByteArray()
+
+            assertThat(encrypted.toList(), equalTo(cipher(Cipher.ENCRYPT_MODE).doFinal(content).toList()))
+            assertThat(decrypt(encrypted).toList(), equalTo(content.toList()))
+        }
+    }
+
+    @Test
+    fun `round trips compressed and encrypted content`() {
+        val content = Random(42).nextBytes(200_000) + ByteArray(200_000)
+
+        val stored = ByteArrayOutputStream().also { output ->
+            compressingOutputStream(BlockCipherOutputStream(output, cipher(Cipher.ENCRYPT_MODE))).use {
+                it.write(content)
+            }
+        }.toByteArray()
+
+        val loaded = decompressingInputStream(BlockCipherInputStream(ByteArrayInputStream(stored), cipher(Cipher.DECRYPT_MODE))).use {
+            it.readBytes()
+        }
+        assertThat(loaded.toList(), equalTo(content.toList()))
+    }
+
+    @Test(expected = IOException::class)
+    fun `fails to read content that cannot be decrypted`() {
+        decrypt(ByteArray(17))
+    }
+
+    private
+    fun decrypt(encrypted: ByteArray) =
+        BlockCipherInputStream(ByteArrayInputStream(encrypted), cipher(Cipher.DECRYPT_MODE)).use {
+            it.readBytes()
+        }
+
+    private
+    fun cipher(mode: Int) =
+        Cipher.getInstance("AES/ECB/PKCS5Padding").apply {
+            init(mode, key)
+        }
+}
@@ -148,6 +148,19 @@ class ConfigurationCacheKeyTest {
         )
     }
 
+    @Test
+    fun `cache key honours compression option`() {
+        val compression = mapOf("org.gradle.configuration-cache.internal.compression" to "true")
+        assertThat(
+            cacheKeyStringFromStartParameter(compression) {},
+            equalTo(cacheKeyStringFromStartParameter(compression) {})
+        )
+        assertThat(
+            cacheKeyStringFromStartParameter(compression) {},
+            not(equalTo(cacheKeyStringFromStartParameter {}))
+        )
+    }
+
     @Test
     fun `sanity check`() {
         assertThat(
@@ -157,7 +170,7 @@ class ConfigurationCacheKeyTest {
     }
 
     private
-    fun cacheKeyStringFromStartParameter(configure: StartParameterInternal.() -> Unit): String {
+    fun cacheKeyStringFromStartParameter(internalOptions: Map<String, String> = mapOf(), configure: StartParameterInternal.() -> Unit): String {
         val startParameter = StartParameterInternal().apply(configure)
         return ConfigurationCacheKey(
             ConfigurationCacheStartParameter(
@@ -168,8 +181,8 @@ class ConfigurationCacheKeyTest {
                     null
                 ),
                 startParameter,
-                DefaultInternalOptions(mapOf()),
-                BuildModelParameters(false, false, true, startParameter.isolatedProjects.get(), false, false, false, false, LogLevel.LIFECYCLE)
+                DefaultInternalOptions(internalOptions),
+                BuildModelParameters(false, false, true, startParameter.isolatedProjects.get(), false, false, false, false, false, LogLevel.LIFECYCLE)
             ),
             RunTasksRequirements(startParameter),
             object : EncryptionConfiguration {
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertThrows
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import kotlin.random.Random
+
+
+class PipelinedStateStreamsTest {
+
+    private
+    val executorFactory = DefaultExecutorFactory()
+
+    private
+    val streams = PipelinedStateStreams(executorFactory)
+
+    @After
+    fun cleanup() {
+        streams.close()
+        executorFactory.stop()
+    }
+
+    @Test
+    fun `writes and reads content spanning many blocks`() {
+        val content = Random(42).nextBytes(1024 * 1024 + 17)
+        val target = ByteArrayOutputStream()
+        var targetClosed = false
+
+        streams.outputStream {
+            object : OutputStream() {
+                override fun write(b: Int) = target.write(b)
+                override fun write(b: ByteArray, off: Int, len: Int) = target.write(b, off, len)
+                override fun close() {
+                    targetClosed = true
+                }
+            }
+        }.use { output ->
+            output.write(content, 0, 100)
+            output.write(content[100].toInt())
+            output.write(content, 101, content.size - 101)
+        }
+
+        assertTrue(targetClosed)
+        assertArrayEquals(content, target.toByteArray())
+
+        val read = streams.inputStream { ByteArrayInputStream(target.toByteArray()) }.use {
+            it.readBytes()
+        }
+        assertArrayEquals(content, read)
+    }
+
+    @Test
+    fun `reads empty content`() {
+        streams.inputStream { ByteArrayInputStream(ByteArray(0)) }.use {
+            assertThat(it.read(), equalTo(-1))
+            assertThat(it.read(ByteArray(10), 0, 10), equalTo(-1))
+        }
+    }
+
+    @Test
+    fun `can close input before reading all content`() {
+        var sourceClosed = false
+        val source = object : ByteArrayInputStream(ByteArray(1024 * 1024)) {
+            override fun close() {
+                sourceClosed = true
+            }
+        }
+
+        streams.inputStream { source }.use {
+            it.read()
+        }
+
+        assertTrue(sourceClosed)
+    }
+
+    @Test
+    fun `reports failure to read`() {
+        val source = object : InputStream() {
+            override fun read(): Int = throw IOException("broken")
+        }
+
+        streams.inputStream { source }.use { input ->
+            val failure = assertThrows(IOException::class.java) {
+                input.read()
+            }
+            assertThat(failure.cause?.message, equalTo("broken"))
+        }
+    }
+
+    @Test
+    fun `reports failure to write when closed`() {
+        val target = object : OutputStream() {
+            override fun write(b: Int) = throw IOException("broken")
+        }
+
+        val output = streams.outputStream { target }
+        output.write(ByteArray(10))
+
+        val failure = assertThrows(IOException::class.java) {
+            output.close()
+        }
+        assertThat(failure.cause?.message, equalTo("broken"))
+    }
+}
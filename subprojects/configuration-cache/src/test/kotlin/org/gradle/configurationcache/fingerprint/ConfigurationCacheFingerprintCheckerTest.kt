@@ -53,6 +53,8 @@ import org.junit.Test
 import java.io.File
 import java.io.InputStream
 import java.io.OutputStream
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
 
 
 class ConfigurationCacheFingerprintCheckerTest {
@@ -177,6 +179,61 @@ class ConfigurationCacheFingerprintCheckerTest {
         )
     }
 
+    @Test
+    fun `first changed file is reported when files are checked concurrently`() {
+        val files = (1..20).map { File("file$it.txt") }
+        val changed = setOf(files[7], files[12])
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            assertThat(
+                checkFingerprintGiven(
+                    mock {
+                        on { hashCodeOf(any()) }.then { invocation ->
+                            val file = invocation.getArgument<File>(0)
+                            TestHashCodes.hashCodeFrom(if (file in changed) 2 else 1)
+                        }
+                        on { displayNameOf(any()) }.then { invocation ->
+                            invocation.getArgument<File>(0).name
+                        }
+                    },
+                    files.map { ConfigurationCacheFingerprint.InputFile(it, TestHashCodes.hashCodeFrom(1)) },
+                    executor
+                ),
+                equalTo("file 'file8.txt' has changed")
+            )
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun `value source is not checked when a file before it has changed and files are checked concurrently`() {
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            assertThat(
+                checkFingerprintGiven(
+                    mock {
+                        on { hashCodeOf(any()) } doReturn TestHashCodes.hashCodeFrom(2)
+                        on { displayNameOf(any()) }.then { invocation ->
+                            invocation.getArgument<File>(0).name
+                        }
+                        on { instantiateValueSourceOf(any()) }.then {
+                            throw AssertionError("value source should not be checked")
+                        }
+                    },
+                    listOf(
+                        ConfigurationCacheFingerprint.InputFile(File("build.gradle"), TestHashCodes.hashCodeFrom(1)),
+                        ConfigurationCacheFingerprint.ValueSource(obtainedValueMock())
+                    ),
+                    executor
+                ),
+                equalTo("file 'build.gradle' has changed")
+            )
+        } finally {
+            executor.shutdown()
+        }
+    }
+
     @Test
     fun `invalidation reason includes ValueSource description`() {
 
@@ -226,15 +283,23 @@ class ConfigurationCacheFingerprintCheckerTest {
     fun checkFingerprintGiven(
         host: ConfigurationCacheFingerprintChecker.Host,
         fingerprint: ConfigurationCacheFingerprint
+    ): InvalidationReason? =
+        checkFingerprintGiven(host, listOf(fingerprint), null)
+
+    private
+    fun checkFingerprintGiven(
+        host: ConfigurationCacheFingerprintChecker.Host,
+        fingerprints: List<ConfigurationCacheFingerprint>,
+        executor: Executor?
     ): InvalidationReason? {
 
         val readContext = recordWritingOf {
-            write(fingerprint)
+            fingerprints.forEach { write(it) }
             write(null)
         }
 
         val checkedFingerprint = readContext.runReadOperation {
-            ConfigurationCacheFingerprintChecker(host).run {
+            ConfigurationCacheFingerprintChecker(host, executor).run {
                 checkBuildScopedFingerprint()
             }
         }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.DefaultFilePermissions;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.DefaultZipCompressor;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the throughput of writing a deflated archive sequentially and with parallel entry compression.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+@SuppressWarnings("OctalInteger")
+public class ZipCopyActionBenchmark {
+    private static final String[] WORDS = {"class", "public", "return", "import", "final", "static", "void", "gradle", "archive", "entry"};
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"2000"})
+    int entryCount;
+
+    @Param({"65536"})
+    int entrySize;
+
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final List<FileCopyDetailsInternal> entries = new ArrayList<>();
+    private File tempDir;
+    private File zipFile;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        tempDir = Files.createTempDirectory("zip-copy-action-benchmark").toFile();
+        zipFile = new File(tempDir, "archive.zip");
+        Random random = new Random(1234L);
+        for (int i = 0; i < entryCount; i++) {
+            entries.add(fileEntry("dir" + (i % 20) + "/file" + i + ".txt", compressibleContent(random, entrySize)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        executorFactory.stop();
+        zipFile.delete();
+        tempDir.delete();
+    }
+
+    @Benchmark
+    public long writeArchive() {
+        ZipCopyAction action = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED), new DocumentationRegistry(), "UTF-8", false, executorFactory, parallelism);
+        CopyActionProcessingStream stream = streamAction -> entries.forEach(streamAction::processFile);
+        action.execute(stream);
+        return zipFile.length();
+    }
+
+    private static byte[] compressibleContent(Random random, int size) {
+        StringBuilder builder = new StringBuilder(size + 16);
+        while (builder.length() < size) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000)).append(' ');
+        }
+        return builder.substring(0, size).getBytes();
+    }
+
+    private static FileCopyDetailsInternal fileEntry(String path, byte[] content) {
+        RelativePath relativePath = RelativePath.parse(true, path);
+        return (FileCopyDetailsInternal) Proxy.newProxyInstance(ZipCopyActionBenchmark.class.getClassLoader(), new Class<?>[]{FileCopyDetailsInternal.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getRelativePath":
+                    return relativePath;
+                case "isDirectory":
+                    return false;
+                case "getSize":
+                    return (long) content.length;
+                case "getLastModified":
+                    return 0L;
+                case "getPermissions":
+                    return new DefaultFilePermissions(0644);
+                case "copyTo":
+                    try {
+                        ((OutputStream) args[0]).write(content);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                case "toString":
+                    return path;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
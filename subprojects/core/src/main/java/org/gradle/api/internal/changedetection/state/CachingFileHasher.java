@@ -30,6 +30,7 @@
 import org.gradle.internal.serialize.HashCodeSerializer;
 import org.gradle.internal.serialize.InterningStringSerializer;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public class CachingFileHasher implements FileHasher {
@@ -83,6 +84,20 @@ private FileInfo snapshot(File file) {
 
     private FileInfo snapshot(File file, long length, long timestamp) {
         String absolutePath = file.getAbsolutePath();
+        FileInfo cached = cachedInfo(absolutePath, length, timestamp);
+        if (cached != null) {
+            return cached;
+        }
+
+        HashCode hash = delegate.hash(file);
+        FileInfo info = new FileInfo(hash, length, timestamp);
+        cache.put(stringInterner.intern(absolutePath), info);
+        statisticsCollector.reportFileHashed(length);
+        return info;
+    }
+
+    @Nullable
+    private FileInfo cachedInfo(String absolutePath, long length, long timestamp) {
         if (timestampInspector.timestampCanBeUsedToDetectFileChange(absolutePath, timestamp)) {
             FileInfo info = cache.getIfPresent(absolutePath);
 
@@ -90,12 +105,23 @@ private FileInfo snapshot(File file, long length, long timestamp) {
                 return info;
             }
         }
+        return null;
+    }
 
-        HashCode hash = delegate.hash(file);
-        FileInfo info = new FileInfo(hash, length, timestamp);
-        cache.put(stringInterner.intern(absolutePath), info);
-        statisticsCollector.reportFileHashed(length);
-        return info;
+    /**
+     * Returns the cached hash of the given file, or null when the file has not been hashed with the given length and last modified time.
+     */
+    @Nullable
+    public HashCode getCachedHash(File file, long length, long lastModified) {
+        FileInfo info = cachedInfo(file.getAbsolutePath(), length, lastModified);
+        return info == null ? null : info.getHash();
+    }
+
+    /**
+     * Caches a hash of the given file which has been calculated elsewhere, for example together with other hashes of the same content.
+     */
+    public void recordHash(File file, long length, long lastModified, HashCode hash) {
+        cache.put(stringInterner.intern(file.getAbsolutePath()), new FileInfo(hash, length, lastModified));
     }
 
     public void discard(String path) {
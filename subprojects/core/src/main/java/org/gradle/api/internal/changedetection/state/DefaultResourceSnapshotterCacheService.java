@@ -49,9 +49,20 @@ public HashCode hashFile(RegularFileSnapshotContext fileSnapshotContext, Regular
         return hashFile(fileSnapshotContext.getSnapshot(), () -> hasher.hash(fileSnapshotContext), configurationHash);
     }
 
+    @Nullable
+    @Override
+    public HashCode hashContent(HashCode contentHash, IoSupplier<HashCode> hasher, HashCode configurationHash) throws IOException {
+        return hashResource(contentHash, hasher, configurationHash);
+    }
+
     @Nullable
     private HashCode hashFile(FileSystemLocationSnapshot snapshot, IoSupplier<HashCode> hashCodeSupplier, HashCode configurationHash) throws IOException {
-        HashCode resourceHashCacheKey = resourceHashCacheKey(snapshot.getHash(), configurationHash);
+        return hashResource(snapshot.getHash(), hashCodeSupplier, configurationHash);
+    }
+
+    @Nullable
+    private HashCode hashResource(HashCode contentHash, IoSupplier<HashCode> hashCodeSupplier, HashCode configurationHash) throws IOException {
+        HashCode resourceHashCacheKey = resourceHashCacheKey(contentHash, configurationHash);
 
         HashCode resourceHash = indexedCache.getIfPresent(resourceHashCacheKey);
         if (resourceHash != null) {
@@ -21,6 +21,7 @@
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContextHasher;
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.io.IoSupplier;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 
 import javax.annotation.Nullable;
@@ -29,6 +30,7 @@
 /**
  * A {@link ResourceSnapshotterCacheService} that delegates to the global service for immutable files
  * and uses the local service for all other files. This ensures optimal cache utilization.
+ * Hashes of resources keyed by their content are always stored in the global service, so they are shared across builds.
  */
 public class SplitResourceSnapshotterCacheService implements ResourceSnapshotterCacheService {
     private final ResourceSnapshotterCacheService globalCache;
@@ -59,4 +61,10 @@ public HashCode hashFile(RegularFileSnapshotContext fileSnapshotContext, Regular
             return localCache.hashFile(fileSnapshotContext, hasher, configurationHash);
         }
     }
+
+    @Nullable
+    @Override
+    public HashCode hashContent(HashCode contentHash, IoSupplier<HashCode> hasher, HashCode configurationHash) throws IOException {
+        return globalCache.hashContent(contentHash, hasher, configurationHash);
+    }
 }
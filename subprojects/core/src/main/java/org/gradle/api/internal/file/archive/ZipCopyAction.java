@@ -32,10 +32,25 @@
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.api.tasks.bundling.Zip;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Calendar;
+import java.util.Deque;
 import java.util.GregorianCalendar;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 public class ZipCopyAction implements CopyAction {
     /**
@@ -55,18 +70,43 @@ public class ZipCopyAction implements CopyAction {
      */
     public static final long CONSTANT_TIME_FOR_ZIP_ENTRIES = new GregorianCalendar(1980, Calendar.FEBRUARY, 1, 0, 0, 0).getTimeInMillis();
 
+    /**
+     * Entries larger than this are written directly by the visiting thread when compressing in parallel,
+     * so that the contents of big files are never held in memory.
+     */
+    private static final long MAX_BUFFERED_ENTRY_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Upper bound on the uncompressed bytes of entries waiting to be compressed or written when compressing in parallel.
+     */
+    private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+    private static final int DEFLATE_BUFFER_SIZE = 8192;
+
     private final File zipFile;
     private final ZipCompressor compressor;
     private final DocumentationRegistry documentationRegistry;
     private final String encoding;
     private final boolean preserveFileTimestamps;
+    private final ExecutorFactory executorFactory;
+    private final int parallelism;
 
     public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps) {
+        this(zipFile, compressor, documentationRegistry, encoding, preserveFileTimestamps, null, 1);
+    }
+
+    /**
+     * Creates an action that deflates the entries of the archive using up to {@code parallelism} threads.
+     * Entries are always written to the archive in the order they are visited, so the resulting archive does not depend on thread scheduling.
+     */
+    public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps, @Nullable ExecutorFactory executorFactory, int parallelism) {
         this.zipFile = zipFile;
         this.compressor = compressor;
         this.documentationRegistry = documentationRegistry;
         this.encoding = encoding;
         this.preserveFileTimestamps = preserveFileTimestamps;
+        this.executorFactory = executorFactory;
+        this.parallelism = executorFactory == null ? 1 : parallelism;
     }
 
     @Override
@@ -79,9 +119,12 @@ public WorkResult execute(final CopyActionProcessingStream stream) {
             throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
         }
 
+        ManagedExecutor executor = parallelism > 1 ? executorFactory.create("Compress entries of " + zipFile, parallelism) : null;
         try {
             IoActions.withResource(zipOutStr, outputStream -> {
-                stream.process(new StreamAction(outputStream, encoding));
+                StreamAction action = executor == null ? new StreamAction(outputStream, encoding) : new ParallelDeflatingStreamAction(outputStream, encoding, executor);
+                stream.process(action);
+                action.finish();
             });
         } catch (UncheckedIOException e) {
             if (e.getCause() instanceof Zip64RequiredException) {
@@ -89,13 +132,17 @@ public WorkResult execute(final CopyActionProcessingStream stream) {
                         String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getCause().getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
                 );
             }
+        } finally {
+            if (executor != null) {
+                executor.stop();
+            }
         }
 
         return WorkResults.didWork(true);
     }
 
     private class StreamAction implements CopyActionProcessingStreamAction {
-        private final ZipArchiveOutputStream zipOutStr;
+        protected final ZipArchiveOutputStream zipOutStr;
 
         public StreamAction(ZipArchiveOutputStream zipOutStr, String encoding) {
             this.zipOutStr = zipOutStr;
@@ -113,11 +160,15 @@ public void processFile(FileCopyDetailsInternal details) {
             }
         }
 
-        private void visitFile(FileCopyDetails fileDetails) {
+        /**
+         * Called once all files have been visited, before the archive is closed.
+         */
+        public void finish() {
+        }
+
+        protected void visitFile(FileCopyDetails fileDetails) {
             try {
-                ZipArchiveEntry archiveEntry = new ZipArchiveEntry(fileDetails.getRelativePath().getPathString());
-                archiveEntry.setTime(getArchiveTimeFor(fileDetails));
-                archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getPermissions().toUnixNumeric());
+                ZipArchiveEntry archiveEntry = createFileEntry(fileDetails);
                 zipOutStr.putArchiveEntry(archiveEntry);
                 fileDetails.copyTo(zipOutStr);
                 zipOutStr.closeArchiveEntry();
@@ -126,13 +177,9 @@ private void visitFile(FileCopyDetails fileDetails) {
             }
         }
 
-        private void visitDir(FileCopyDetails dirDetails) {
+        protected void visitDir(FileCopyDetails dirDetails) {
             try {
-                // Trailing slash in name indicates that entry is a directory
-                ZipArchiveEntry archiveEntry = new ZipArchiveEntry(dirDetails.getRelativePath().getPathString() + '/');
-                archiveEntry.setTime(getArchiveTimeFor(dirDetails));
-                archiveEntry.setUnixMode(UnixStat.DIR_FLAG | dirDetails.getPermissions().toUnixNumeric());
-                zipOutStr.putArchiveEntry(archiveEntry);
+                zipOutStr.putArchiveEntry(createDirEntry(dirDetails));
                 zipOutStr.closeArchiveEntry();
             } catch (Exception e) {
                 throw new GradleException(String.format("Could not add %s to ZIP '%s'.", dirDetails, zipFile), e);
@@ -140,6 +187,197 @@ private void visitDir(FileCopyDetails dirDetails) {
         }
     }
 
+    /**
+     * Reads the content of each file on the visiting thread, deflates it on the given executor and writes the pre-compressed entries
+     * to the archive in visiting order. The deflated data is the same as the one produced by {@link ZipArchiveOutputStream}.
+     */
+    private class ParallelDeflatingStreamAction extends StreamAction {
+        private final ExecutorService executor;
+        private final Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
+        private long pendingBytes;
+        private final ExposedByteArrayOutputStream readBuffer = new ExposedByteArrayOutputStream(DEFLATE_BUFFER_SIZE);
+        private final byte[] readChunk = new byte[DEFLATE_BUFFER_SIZE];
+
+        public ParallelDeflatingStreamAction(ZipArchiveOutputStream zipOutStr, String encoding, ExecutorService executor) {
+            super(zipOutStr, encoding);
+            this.executor = executor;
+        }
+
+        @Override
+        protected void visitFile(FileCopyDetails fileDetails) {
+            byte[] content;
+            try (InputStream input = fileDetails.open()) {
+                content = readBuffered(input);
+                if (content == null) {
+                    // Too big to buffer, write it directly after the pending entries, without reading the file again
+                    writeAllPendingEntries();
+                    writeUnbuffered(fileDetails, input);
+                    return;
+                }
+            } catch (GradleException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+            }
+            ZipArchiveEntry archiveEntry = createFileEntry(fileDetails);
+            pendingEntries.add(new PendingEntry(archiveEntry, fileDetails.toString(), content.length, executor.submit(() -> deflate(content))));
+            pendingBytes += content.length;
+            while (pendingBytes > MAX_PENDING_BYTES || pendingEntries.size() > 4 * parallelism) {
+                writeNextPendingEntry();
+            }
+        }
+
+        /**
+         * Reads the content of an entry, or returns {@code null} when the content is bigger than {@link #MAX_BUFFERED_ENTRY_SIZE}.
+         * In that case, the content read so far is left in {@link #readBuffer}.
+         */
+        @Nullable
+        private byte[] readBuffered(InputStream input) throws IOException {
+            readBuffer.reset();
+            int read;
+            while ((read = input.read(readChunk)) != -1) {
+                readBuffer.write(readChunk, 0, read);
+                if (readBuffer.size() > MAX_BUFFERED_ENTRY_SIZE) {
+                    return null;
+                }
+            }
+            return readBuffer.toByteArray();
+        }
+
+        private void writeUnbuffered(FileCopyDetails fileDetails, InputStream remainingInput) {
+            try {
+                zipOutStr.putArchiveEntry(createFileEntry(fileDetails));
+                zipOutStr.write(readBuffer.getBuffer(), 0, readBuffer.size());
+                readBuffer.reset();
+                int read;
+                while ((read = remainingInput.read(readChunk)) != -1) {
+                    zipOutStr.write(readChunk, 0, read);
+                }
+                zipOutStr.closeArchiveEntry();
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+            }
+        }
+
+        @Override
+        protected void visitDir(FileCopyDetails dirDetails) {
+            if (pendingEntries.isEmpty()) {
+                super.visitDir(dirDetails);
+            } else {
+                pendingEntries.add(new PendingEntry(createDirEntry(dirDetails), dirDetails.toString(), 0, null));
+            }
+        }
+
+        @Override
+        public void finish() {
+            writeAllPendingEntries();
+        }
+
+        private void writeAllPendingEntries() {
+            while (!pendingEntries.isEmpty()) {
+                writeNextPendingEntry();
+            }
+        }
+
+        private void writeNextPendingEntry() {
+            PendingEntry pendingEntry = pendingEntries.remove();
+            pendingBytes -= pendingEntry.size;
+            pendingEntry.writeTo(zipOutStr);
+        }
+    }
+
+    private class PendingEntry {
+        private final ZipArchiveEntry archiveEntry;
+        private final String displayName;
+        private final long size;
+        private final Future<DeflatedContent> content;
+
+        PendingEntry(ZipArchiveEntry archiveEntry, String displayName, long size, @Nullable Future<DeflatedContent> content) {
+            this.archiveEntry = archiveEntry;
+            this.displayName = displayName;
+            this.size = size;
+            this.content = content;
+        }
+
+        void writeTo(ZipArchiveOutputStream zipOutStr) {
+            try {
+                if (content == null) {
+                    zipOutStr.putArchiveEntry(archiveEntry);
+                    zipOutStr.closeArchiveEntry();
+                } else {
+                    DeflatedContent deflated = content.get();
+                    archiveEntry.setMethod(ZipArchiveEntry.DEFLATED);
+                    archiveEntry.setCrc(deflated.crc);
+                    archiveEntry.setSize(size);
+                    archiveEntry.setCompressedSize(deflated.length);
+                    zipOutStr.addRawArchiveEntry(archiveEntry, new ByteArrayInputStream(deflated.bytes, 0, deflated.length));
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", displayName, zipFile), e.getCause());
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", displayName, zipFile), e);
+            }
+        }
+    }
+
+    private static class DeflatedContent {
+        private final byte[] bytes;
+        private final int length;
+        private final long crc;
+
+        DeflatedContent(byte[] bytes, int length, long crc) {
+            this.bytes = bytes;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    private static DeflatedContent deflate(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ExposedByteArrayOutputStream output = new ExposedByteArrayOutputStream(Math.max(content.length / 2, 32));
+            byte[] buffer = new byte[DEFLATE_BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+            return new DeflatedContent(output.getBuffer(), output.size(), crc.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    private ZipArchiveEntry createFileEntry(FileCopyDetails fileDetails) {
+        ZipArchiveEntry archiveEntry = new ZipArchiveEntry(fileDetails.getRelativePath().getPathString());
+        archiveEntry.setTime(getArchiveTimeFor(fileDetails));
+        archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getPermissions().toUnixNumeric());
+        return archiveEntry;
+    }
+
+    private ZipArchiveEntry createDirEntry(FileCopyDetails dirDetails) {
+        // Trailing slash in name indicates that entry is a directory
+        ZipArchiveEntry archiveEntry = new ZipArchiveEntry(dirDetails.getRelativePath().getPathString() + '/');
+        archiveEntry.setTime(getArchiveTimeFor(dirDetails));
+        archiveEntry.setUnixMode(UnixStat.DIR_FLAG | dirDetails.getPermissions().toUnixNumeric());
+        return archiveEntry;
+    }
+
     private long getArchiveTimeFor(FileCopyDetails details) {
         return preserveFileTimestamps ? details.getLastModified() : CONSTANT_TIME_FOR_ZIP_ENTRIES;
     }
@@ -16,18 +16,23 @@
 package org.gradle.api.tasks.bundling;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
 import org.gradle.api.internal.file.copy.ZipCompressor;
+import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.concurrent.ParallelismConfiguration;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.work.DisableCachingByDefault;
 
 import javax.annotation.Nullable;
+import java.io.File;
 import java.nio.charset.Charset;
 
 /**
@@ -41,10 +46,12 @@ public abstract class Zip extends AbstractArchiveTask {
     private ZipEntryCompression entryCompression = ZipEntryCompression.DEFLATED;
     private boolean allowZip64;
     private String metadataCharset;
+    private final Property<Boolean> parallelEntryCompression;
 
     public Zip() {
         getArchiveExtension().set(ZIP_EXTENSION);
         allowZip64 = false;
+        parallelEntryCompression = getObjectFactory().property(Boolean.class).convention(false);
     }
 
     @Internal
@@ -62,7 +69,13 @@ protected ZipCompressor getCompressor() {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchiveFile().get().getAsFile(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        File zipFile = getArchiveFile().get().getAsFile();
+        if (entryCompression == ZipEntryCompression.DEFLATED && parallelEntryCompression.get()) {
+            int parallelism = getServices().get(ParallelismConfiguration.class).getMaxWorkerCount();
+            ExecutorFactory executorFactory = getServices().get(ExecutorFactory.class);
+            return new ZipCopyAction(zipFile, getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps(), executorFactory, parallelism);
+        }
+        return new ZipCopyAction(zipFile, getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
     }
 
     /**
@@ -86,6 +99,21 @@ public void setEntryCompression(ZipEntryCompression entryCompression) {
         this.entryCompression = entryCompression;
     }
 
+    /**
+     * Whether the entries of the archive are compressed concurrently, using up to {@code max-workers} threads.
+     * Entries are still written to the archive in the same order, so this does not affect the reproducibility of the archive.
+     * Only has an effect when {@link #getEntryCompression()} is {@link ZipEntryCompression#DEFLATED}.
+     * <p>
+     * Defaults to {@code false}.
+     *
+     * @since 8.5
+     */
+    @Incubating
+    @Internal("Does not affect the contents of the archive")
+    public Property<Boolean> getParallelEntryCompression() {
+        return parallelEntryCompression;
+    }
+
     /**
      * Enables building zips with more than 65535 files or bigger than 4GB.
      *
@@ -23,6 +23,7 @@
 import org.gradle.api.internal.initialization.ScriptHandlerInternal;
 import org.gradle.api.internal.plugins.PluginManagerInternal;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.BuildScriptPrecompiler;
 import org.gradle.groovy.scripts.BasicScript;
 import org.gradle.groovy.scripts.ScriptCompiler;
 import org.gradle.groovy.scripts.ScriptCompilerFactory;
@@ -49,12 +50,13 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
     private final AutoAppliedPluginHandler autoAppliedPluginHandler;
     private final PluginRequestApplicator pluginRequestApplicator;
     private final CompileOperationFactory compileOperationFactory;
+    private final BuildScriptPrecompiler buildScriptPrecompiler;
     private ScriptPluginFactory scriptPluginFactory;
 
     public DefaultScriptPluginFactory(
         ServiceRegistry scriptServices, ScriptCompilerFactory scriptCompilerFactory, Factory<LoggingManagerInternal> loggingFactoryManager,
         AutoAppliedPluginHandler autoAppliedPluginHandler, PluginRequestApplicator pluginRequestApplicator,
-        CompileOperationFactory compileOperationFactory
+        CompileOperationFactory compileOperationFactory, BuildScriptPrecompiler buildScriptPrecompiler
     ) {
         this.scriptServices = scriptServices;
         this.scriptCompilerFactory = scriptCompilerFactory;
@@ -62,6 +64,7 @@ public DefaultScriptPluginFactory(
         this.autoAppliedPluginHandler = autoAppliedPluginHandler;
         this.pluginRequestApplicator = pluginRequestApplicator;
         this.compileOperationFactory = compileOperationFactory;
+        this.buildScriptPrecompiler = buildScriptPrecompiler;
         this.scriptPluginFactory = this;
     }
 
@@ -117,6 +120,12 @@ public void apply(final Object target) {
             PluginManagerInternal pluginManager = topLevelScript ? initialPassScriptTarget.getPluginManager() : null;
             PluginRequests autoAppliedPlugins = autoAppliedPluginHandler.getAutoAppliedPlugins(initialPluginRequests, target);
             pluginRequestApplicator.applyPlugins(initialPluginRequests, autoAppliedPlugins, scriptHandler, pluginManager, targetScope);
+
+            if (topLevelScript && target instanceof ProjectInternal) {
+                // The class path of the child projects is now known, so compile their build scripts in parallel before continuing with this one
+                buildScriptPrecompiler.precompileChildrenOf((ProjectInternal) target);
+            }
+
             // Pass 2, compile everything except buildscript {}, pluginManagement{}, and plugin requests, then run
             final ScriptTarget scriptTarget = secondPassTarget(target);
             scriptType = scriptTarget.getScriptClass();
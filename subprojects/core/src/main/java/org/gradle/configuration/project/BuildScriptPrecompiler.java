@@ -0,0 +1,164 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectScript;
+import org.gradle.configuration.CompileOperationFactory;
+import org.gradle.configuration.ProjectScriptTarget;
+import org.gradle.configuration.ScriptTarget;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.CompiledScript;
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.internal.Actions;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildtree.BuildModelParameters;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.scripts.ScriptingLanguages;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.scripts.ScriptingLanguage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles the Groovy build scripts of the child projects of a project in parallel, ahead of their evaluation.
+ *
+ * <p>The first pass of a child build script is compiled against the class path of its parent project, so it can be compiled
+ * as soon as the parent project has applied its plugins. The parent project waits for the child build scripts to be compiled
+ * before it compiles and runs the rest of its own build script. What is gained is that the child build scripts are compiled
+ * in parallel instead of one after the other during their evaluation.</p>
+ *
+ * <p>The second pass is only compiled for scripts whose first pass does nothing, as only then is the class path of the child project
+ * known to be the same as the one of its parent. So for child build scripts with a {@code plugins {}} or {@code buildscript {}} block,
+ * only the first pass is compiled ahead and the body of the script is still compiled when the child project is evaluated.</p>
+ *
+ * <p>The compiled classes are stored in the script cache, where the evaluation of the child projects will find them.
+ * Problems compiling a script are ignored here and reported when the child project is evaluated.</p>
+ */
+public class BuildScriptPrecompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptPrecompiler.class);
+    public static final InternalFlag PRECOMPILE_BUILD_SCRIPTS = new InternalFlag("org.gradle.internal.precompile-build-scripts", true);
+
+    private final FileCacheBackedScriptClassCompiler scriptClassCompiler;
+    private final CompileOperationFactory compileOperationFactory;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean enabled;
+
+    public BuildScriptPrecompiler(
+        FileCacheBackedScriptClassCompiler scriptClassCompiler,
+        CompileOperationFactory compileOperationFactory,
+        BuildOperationExecutor buildOperationExecutor,
+        BuildModelParameters buildModelParameters,
+        InternalOptions internalOptions
+    ) {
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.compileOperationFactory = compileOperationFactory;
+        this.buildOperationExecutor = buildOperationExecutor;
+        // Projects may not be configured at all, or are configured in parallel already
+        this.enabled = internalOptions.getOption(PRECOMPILE_BUILD_SCRIPTS).get() && !buildModelParameters.isConfigureOnDemand() && !buildModelParameters.isIsolatedProjects();
+    }
+
+    /**
+     * Compiles the build scripts of the child projects of the given project, once the class path of the project is known.
+     */
+    public void precompileChildrenOf(ProjectInternal project) {
+        if (!enabled) {
+            return;
+        }
+        ClassLoaderScope scope = project.getClassLoaderScope();
+        if (!scope.isLocked()) {
+            return;
+        }
+        List<PrecompileBuildScript> operations = new ArrayList<>();
+        Set<HashCode> compiledContent = ConcurrentHashMap.newKeySet();
+        for (Project child : project.getChildProjectsUnchecked().values()) {
+            ProjectInternal childProject = (ProjectInternal) child;
+            ScriptSource source = childProject.getBuildScriptSource();
+            if (childProject.getState().isUnconfigured() && childProject.getBaseClassLoaderScope() == scope && isGroovyScript(source.getFileName())) {
+                operations.add(new PrecompileBuildScript(source, new ProjectScriptTarget(childProject), scope, compiledContent));
+            }
+        }
+        if (operations.size() < 2) {
+            return;
+        }
+        // Create the class loader before it is used by multiple threads
+        scope.getExportClassLoader();
+        buildOperationExecutor.runAll(queue -> operations.forEach(queue::add));
+    }
+
+    private static boolean isGroovyScript(String fileName) {
+        for (ScriptingLanguage language : ScriptingLanguages.all()) {
+            if (fileName.endsWith(language.getExtension())) {
+                return language.getProvider() == null;
+            }
+        }
+        return true;
+    }
+
+    private class PrecompileBuildScript implements RunnableBuildOperation {
+        private final ScriptSource source;
+        private final ScriptTarget target;
+        private final ClassLoaderScope scope;
+        private final Set<HashCode> compiledContent;
+
+        PrecompileBuildScript(ScriptSource source, ScriptTarget target, ClassLoaderScope scope, Set<HashCode> compiledContent) {
+            this.source = source;
+            this.target = target;
+            this.scope = scope;
+            this.compiledContent = compiledContent;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            ScriptSource cachingSource = CachingScriptSource.of(source);
+            try {
+                // Scripts with the same content are compiled to the same classes
+                if (cachingSource.getResource().getHasEmptyContent() || !compiledContent.add(cachingSource.getResource().getContentHash())) {
+                    return;
+                }
+                CompiledScript<ProjectScript, ?> initialPass = scriptClassCompiler.compile(
+                    cachingSource, scope, compileOperationFactory.getPluginsBlockCompileOperation(target), ProjectScript.class, Actions.doNothing()
+                );
+                if (!initialPass.getRunDoesSomething()) {
+                    scriptClassCompiler.compile(
+                        cachingSource, scope, compileOperationFactory.getScriptCompileOperation(cachingSource, target), ProjectScript.class, ClosureCreationInterceptingVerifier.INSTANCE
+                    );
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Could not compile {} ahead of evaluation.", source.getDisplayName(), e);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Precompile " + source.getDisplayName());
+        }
+    }
+}
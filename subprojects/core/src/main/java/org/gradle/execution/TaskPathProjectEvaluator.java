@@ -20,13 +20,33 @@
 import org.gradle.api.Project;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectState;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.buildtree.BuildModelParameters;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.time.Time;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    private static final Logger LOGGER = Logging.getLogger(TaskPathProjectEvaluator.class);
+
     private final BuildCancellationToken cancellationToken;
+    private final BuildModelParameters buildModelParameters;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, BuildModelParameters buildModelParameters, BuildOperationExecutor buildOperationExecutor) {
         this.cancellationToken = cancellationToken;
+        this.buildModelParameters = buildModelParameters;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     @Override
@@ -46,8 +66,80 @@ public void configureFully(ProjectState projectState) {
     @Override
     public void configureHierarchy(ProjectInternal project) {
         configure(project);
+        if (buildModelParameters.isParallelProjectConfiguration()) {
+            configureSubprojectsInParallel(project);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
         }
     }
+
+    /**
+     * Configures the subprojects of the given project one level of the hierarchy at a time, running the projects of each level concurrently.
+     * A project is only configured once its parent has been configured, as when configuring the projects one after the other.
+     */
+    private void configureSubprojectsInParallel(ProjectInternal project) {
+        TreeMap<Integer, List<ProjectState>> projectsByDepth = new TreeMap<>();
+        for (Project sub : project.getSubprojects()) {
+            ProjectInternal subproject = (ProjectInternal) sub;
+            projectsByDepth.computeIfAbsent(subproject.getDepth(), depth -> new ArrayList<>()).add(subproject.getOwner());
+        }
+        if (projectsByDepth.isEmpty()) {
+            return;
+        }
+
+        long startTime = Time.currentTimeMillis();
+        AtomicLong totalConfigurationTime = new AtomicLong();
+        AtomicLong totalLockWaitTime = new AtomicLong();
+        int projectCount = 0;
+        for (List<ProjectState> projects : projectsByDepth.values()) {
+            if (cancellationToken.isCancellationRequested()) {
+                throw new BuildCancelledException();
+            }
+            buildOperationExecutor.runAllWithAccessToProjectState(queue -> {
+                for (ProjectState projectState : projects) {
+                    queue.add(new ConfigureProjectInParallel(projectState, totalConfigurationTime, totalLockWaitTime));
+                }
+            });
+            projectCount += projects.size();
+        }
+        LOGGER.info(
+            "Configured {} subprojects of {} in parallel in {}ms (configuration time {}ms, waiting for project locks {}ms).",
+            projectCount, project.getDisplayName(), Time.currentTimeMillis() - startTime, totalConfigurationTime.get(), totalLockWaitTime.get()
+        );
+    }
+
+    private static class ConfigureProjectInParallel implements RunnableBuildOperation {
+        private final ProjectState projectState;
+        private final AtomicLong totalConfigurationTime;
+        private final AtomicLong totalLockWaitTime;
+
+        ConfigureProjectInParallel(ProjectState projectState, AtomicLong totalConfigurationTime, AtomicLong totalLockWaitTime) {
+            this.projectState = projectState;
+            this.totalConfigurationTime = totalConfigurationTime;
+            this.totalLockWaitTime = totalLockWaitTime;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            long requested = System.nanoTime();
+            projectState.applyToMutableState(project -> {
+                long acquired = System.nanoTime();
+                projectState.ensureConfigured();
+                long configured = System.nanoTime();
+
+                long lockWaitTime = TimeUnit.NANOSECONDS.toMillis(acquired - requested);
+                long configurationTime = TimeUnit.NANOSECONDS.toMillis(configured - acquired);
+                totalLockWaitTime.addAndGet(lockWaitTime);
+                totalConfigurationTime.addAndGet(configurationTime);
+                LOGGER.debug("Configured {} in {}ms after waiting {}ms for its project lock.", projectState.getDisplayName(), configurationTime, lockWaitTime);
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + projectState.getDisplayName() + " in parallel");
+        }
+    }
 }
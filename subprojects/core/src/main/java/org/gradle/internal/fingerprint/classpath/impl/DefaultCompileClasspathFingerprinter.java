@@ -29,7 +29,7 @@
 public class DefaultCompileClasspathFingerprinter extends AbstractFileCollectionFingerprinter implements CompileClasspathFingerprinter {
     public DefaultCompileClasspathFingerprinter(ResourceSnapshotterCacheService cacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
         super(ClasspathFingerprintingStrategy.compileClasspath(
-            new CachingResourceHasher(AbiExtractingClasspathResourceHasher.DEFAULT, cacheService),
+            new CachingResourceHasher(AbiExtractingClasspathResourceHasher.DEFAULT.withClassHashCache(cacheService), cacheService),
             cacheService,
             stringInterner
         ), fileCollectionSnapshotter);
@@ -21,6 +21,8 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 class ChecksumHasher implements FileHasher {
 
@@ -47,6 +49,34 @@ public HashCode hash(File file) {
         }
     }
 
+    /**
+     * Hashes the given file with each of the given functions, reading the file only once.
+     */
+    static List<HashCode> hashAll(File file, List<HashFunction> hashFunctions) {
+        try {
+            List<PrimitiveHasher> hashers = new ArrayList<>(hashFunctions.size());
+            for (HashFunction hashFunction : hashFunctions) {
+                hashers.add(hashFunction.newPrimitiveHasher());
+            }
+            byte[] buffer = new byte[64 * 1024];
+            int len;
+            try (InputStream in = new FileInputStream(file)) {
+                while ((len = in.read(buffer)) >= 0) {
+                    for (PrimitiveHasher hasher : hashers) {
+                        hasher.putBytes(buffer, 0, len);
+                    }
+                }
+            }
+            List<HashCode> hashes = new ArrayList<>(hashers.size());
+            for (PrimitiveHasher hasher : hashers) {
+                hashes.add(hasher.hash());
+            }
+            return hashes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public HashCode hash(File file, long length, long lastModified) {
         return hash(file);
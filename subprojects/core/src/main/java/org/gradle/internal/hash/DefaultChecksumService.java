@@ -20,15 +20,24 @@
 import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache;
 import org.gradle.api.internal.changedetection.state.FileHasherStatistics;
 import org.gradle.api.internal.changedetection.state.FileTimeStampInspector;
+import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DefaultChecksumService implements ChecksumService {
-    private final CachingFileHasher md5;
-    private final CachingFileHasher sha1;
-    private final CachingFileHasher sha256;
-    private final CachingFileHasher sha512;
+    private final Algorithm md5;
+    private final Algorithm sha1;
+    private final Algorithm sha256;
+    private final Algorithm sha512;
+    private final FileSystem fileSystem;
+    private final FileHasherStatistics.Collector statisticsCollector;
 
     public DefaultChecksumService(
         StringInterner stringInterner,
@@ -37,13 +46,15 @@ public DefaultChecksumService(
         FileTimeStampInspector fileTimeStampInspector,
         FileHasherStatistics.Collector statisticsCollector
     ) {
+        this.fileSystem = fileSystem;
+        this.statisticsCollector = statisticsCollector;
         md5 = createCache(stringInterner, fileStore, fileSystem, fileTimeStampInspector, "md5", Hashing.md5(), statisticsCollector);
         sha1 = createCache(stringInterner, fileStore, fileSystem, fileTimeStampInspector, "sha1", Hashing.sha1(), statisticsCollector);
         sha256 = createCache(stringInterner, fileStore, fileSystem, fileTimeStampInspector, "sha256", Hashing.sha256(), statisticsCollector);
         sha512 = createCache(stringInterner, fileStore, fileSystem, fileTimeStampInspector, "sha512", Hashing.sha512(), statisticsCollector);
     }
 
-    private CachingFileHasher createCache(
+    private Algorithm createCache(
         StringInterner stringInterner,
         CrossBuildFileHashCache fileStore,
         FileSystem fileSystem,
@@ -52,7 +63,8 @@ private CachingFileHasher createCache(
         HashFunction hashFunction,
         FileHasherStatistics.Collector statisticsCollector
     ) {
-        return new CachingFileHasher(new ChecksumHasher(hashFunction), fileStore, stringInterner, fileTimeStampInspector, name + "-checksums", fileSystem, 1000, statisticsCollector);
+        CachingFileHasher hasher = new CachingFileHasher(new ChecksumHasher(hashFunction), fileStore, stringInterner, fileTimeStampInspector, name + "-checksums", fileSystem, 1000, statisticsCollector);
+        return new Algorithm(hashFunction, hasher);
     }
 
     @Override
@@ -77,24 +89,83 @@ public HashCode sha512(File file) {
 
     @Override
     public HashCode hash(File src, String algorithm) {
+        return doHash(src, algorithmFor(algorithm));
+    }
+
+    @Override
+    public Map<String, HashCode> hashes(File src, Collection<String> algorithms) {
+        FileMetadata metadata = fileSystem.stat(src);
+        long length = metadata.getLength();
+        long lastModified = metadata.getLastModified();
+
+        Map<Algorithm, HashCode> hashes = new IdentityHashMap<>();
+        List<Algorithm> missing = new ArrayList<>();
+        for (String name : algorithms) {
+            Algorithm algorithm = algorithmFor(name);
+            if (hashes.containsKey(algorithm) || missing.contains(algorithm)) {
+                continue;
+            }
+            HashCode cached = algorithm.hasher.getCachedHash(src, length, lastModified);
+            if (cached != null) {
+                hashes.put(algorithm, cached);
+            } else {
+                missing.add(algorithm);
+            }
+        }
+
+        if (missing.size() == 1) {
+            Algorithm algorithm = missing.get(0);
+            hashes.put(algorithm, algorithm.hasher.hash(src, length, lastModified));
+        } else if (!missing.isEmpty()) {
+            List<HashFunction> hashFunctions = new ArrayList<>(missing.size());
+            for (Algorithm algorithm : missing) {
+                hashFunctions.add(algorithm.hashFunction);
+            }
+            List<HashCode> calculated = ChecksumHasher.hashAll(src, hashFunctions);
+            for (int i = 0; i < missing.size(); i++) {
+                Algorithm algorithm = missing.get(i);
+                HashCode hash = calculated.get(i);
+                algorithm.hasher.recordHash(src, length, lastModified, hash);
+                hashes.put(algorithm, hash);
+            }
+            statisticsCollector.reportFileHashed(length);
+        }
+
+        Map<String, HashCode> result = new LinkedHashMap<>();
+        for (String name : algorithms) {
+            result.put(name, hashes.get(algorithmFor(name)));
+        }
+        return result;
+    }
+
+    private Algorithm algorithmFor(String algorithm) {
         switch (algorithm.toLowerCase()) {
             case "md5":
-                return md5(src);
+                return md5;
             case "sha1":
             case "sha-1":
-                return sha1(src);
+                return sha1;
             case "sha256":
             case "sha-256":
-                return sha256(src);
+                return sha256;
             case "sha512":
             case "sha-512":
-                return sha512(src);
+                return sha512;
         }
         throw new UnsupportedOperationException("Cannot hash with algorith " + algorithm);
     }
 
-    private HashCode doHash(File file, CachingFileHasher hasher) {
-        return hasher.hash(file);
+    private HashCode doHash(File file, Algorithm algorithm) {
+        return algorithm.hasher.hash(file);
     }
 
+    private static class Algorithm {
+        private final HashFunction hashFunction;
+        private final CachingFileHasher hasher;
+
+        Algorithm(HashFunction hashFunction, CachingFileHasher hasher) {
+            this.hashFunction = hashFunction;
+            this.hasher = hasher;
+        }
+    }
 }
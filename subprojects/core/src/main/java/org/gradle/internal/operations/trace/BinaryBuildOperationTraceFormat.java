@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+/**
+ * Constants of the binary build operation trace format.
+ *
+ * A trace starts with {@link #MAGIC} and {@link #VERSION}, followed by records that start with a record type byte.
+ * Operation types are written once as {@link #TYPE} records and then referenced by their index, starting with 1, where 0 means no type.
+ * Timestamps are written as zig-zag encoded differences to the previous timestamp in the trace.
+ */
+final class BinaryBuildOperationTraceFormat {
+    static final int MAGIC = 0x47424f54;
+    static final int VERSION = 1;
+
+    static final byte TYPE = 0;
+    static final byte START = 1;
+    static final byte PROGRESS = 2;
+    static final byte FINISH = 3;
+
+    static final String FILE_SUFFIX = "-log.bin";
+
+    private BinaryBuildOperationTraceFormat() {
+    }
+
+    static long encodeTimeDelta(long previous, long time) {
+        long delta = time - previous;
+        return (delta << 1) ^ (delta >> 63);
+    }
+
+    static long decodeTimeDelta(long previous, long encoded) {
+        return previous + ((encoded >>> 1) ^ -(encoded & 1));
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.FINISH;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.MAGIC;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.PROGRESS;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.START;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.TYPE;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.VERSION;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.decodeTimeDelta;
+
+/**
+ * Reads traces written with `-Dorg.gradle.internal.operations.trace.format=binary`.
+ *
+ * The trace is streamed, so that filtering operations and computing statistics only keeps the operations
+ * in memory that are running at the same time. Only {@link #readTree(File)} holds the whole trace.
+ *
+ * @see BuildOperationTrace
+ */
+public class BinaryBuildOperationTraceReader {
+
+    /**
+     * Receives the events of a trace in the order they were written.
+     */
+    public interface EventVisitor {
+        void started(long id, @Nullable Long parentId, String displayName, @Nullable String detailsType, long startTime);
+
+        void progress(long id, @Nullable String detailsType, long time);
+
+        void finished(long id, @Nullable String resultType, @Nullable String failure, long endTime);
+    }
+
+    /**
+     * A finished operation, without progress events and children.
+     */
+    public static class Operation {
+        public final long id;
+        public final Long parentId;
+        public final String displayName;
+        public final String detailsType;
+        public final long startTime;
+        public final long endTime;
+        public final String failure;
+
+        Operation(long id, @Nullable Long parentId, String displayName, @Nullable String detailsType, long startTime, long endTime, @Nullable String failure) {
+            this.id = id;
+            this.parentId = parentId;
+            this.displayName = displayName;
+            this.detailsType = detailsType;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.failure = failure;
+        }
+
+        public long getDuration() {
+            return endTime - startTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Operation{" + id + "->" + displayName + '}';
+        }
+    }
+
+    /**
+     * Duration statistics of the operations of one type, in milliseconds.
+     */
+    public static class LatencyStatistics {
+        private long count;
+        private long total;
+        private long min = Long.MAX_VALUE;
+        private long max;
+
+        void add(long duration) {
+            count++;
+            total += duration;
+            min = Math.min(min, duration);
+            max = Math.max(max, duration);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMin() {
+            return count == 0 ? 0 : min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", total=" + total + "ms, min=" + getMin() + "ms, mean=" + String.format("%.2f", getMean()) + "ms, max=" + max + "ms";
+        }
+    }
+
+    private BinaryBuildOperationTraceReader() {
+    }
+
+    /**
+     * Streams all events of the given trace to the visitor.
+     */
+    public static void read(File traceFile, EventVisitor visitor) {
+        try (KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(traceFile))) {
+            if (decoder.readInt() != MAGIC) {
+                throw new IllegalArgumentException(traceFile + " is not a binary build operation trace.");
+            }
+            int version = decoder.readSmallInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(traceFile + " uses unsupported trace format version " + version + ".");
+            }
+            List<String> types = new ArrayList<>();
+            long previousTime = 0;
+            while (true) {
+                byte kind;
+                try {
+                    kind = decoder.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (kind == TYPE) {
+                    types.add(decoder.readString());
+                    continue;
+                }
+                long id = decoder.readSmallLong();
+                switch (kind) {
+                    case START: {
+                        long parentId = decoder.readSmallLong();
+                        String displayName = decoder.readString();
+                        String type = typeAt(types, decoder.readSmallInt());
+                        previousTime = decodeTimeDelta(previousTime, decoder.readSmallLong());
+                        visitor.started(id, parentId == 0 ? null : parentId, displayName, type, previousTime);
+                        break;
+                    }
+                    case PROGRESS: {
+                        String type = typeAt(types, decoder.readSmallInt());
+                        previousTime = decodeTimeDelta(previousTime, decoder.readSmallLong());
+                        visitor.progress(id, type, previousTime);
+                        break;
+                    }
+                    case FINISH: {
+                        String type = typeAt(types, decoder.readSmallInt());
+                        String failure = decoder.readNullableString();
+                        previousTime = decodeTimeDelta(previousTime, decoder.readSmallLong());
+                        visitor.finished(id, type, failure, previousTime);
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException(traceFile + " contains an unknown record type " + kind + ".");
+                }
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Nullable
+    private static String typeAt(List<String> types, int index) {
+        return index == 0 ? null : types.get(index - 1);
+    }
+
+    /**
+     * Streams the finished operations whose details type matches the given predicate.
+     * Operations without details have a null type.
+     */
+    public static void visitOperations(File traceFile, Predicate<? super String> detailsTypeFilter, Consumer<? super Operation> consumer) {
+        Map<Long, Operation> running = new HashMap<>();
+        read(traceFile, new EventVisitor() {
+            @Override
+            public void started(long id, @Nullable Long parentId, String displayName, @Nullable String detailsType, long startTime) {
+                if (detailsTypeFilter.test(detailsType)) {
+                    running.put(id, new Operation(id, parentId, displayName, detailsType, startTime, startTime, null));
+                }
+            }
+
+            @Override
+            public void progress(long id, @Nullable String detailsType, long time) {
+            }
+
+            @Override
+            public void finished(long id, @Nullable String resultType, @Nullable String failure, long endTime) {
+                Operation started = running.remove(id);
+                if (started != null) {
+                    consumer.accept(new Operation(id, started.parentId, started.displayName, started.detailsType, started.startTime, endTime, failure));
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes duration statistics for every details type in the trace, sorted by type name. Operations without details are not included.
+     */
+    public static Map<String, LatencyStatistics> latencyByDetailsType(File traceFile) {
+        Map<String, LatencyStatistics> statistics = new TreeMap<>();
+        visitOperations(traceFile, type -> type != null, operation ->
+            statistics.computeIfAbsent(operation.detailsType, type -> new LatencyStatistics()).add(operation.getDuration())
+        );
+        return statistics;
+    }
+
+    /**
+     * Reconstructs the full operation tree. Records have no details and results, only their types.
+     */
+    public static BuildOperationTree readTree(File traceFile) {
+        List<BuildOperationRecord> roots = new ArrayList<>();
+        Map<Long, Operation> running = new HashMap<>();
+        Map<Long, List<BuildOperationRecord.Progress>> progress = new HashMap<>();
+        Map<Long, List<BuildOperationRecord>> children = new HashMap<>();
+        read(traceFile, new EventVisitor() {
+            @Override
+            public void started(long id, @Nullable Long parentId, String displayName, @Nullable String detailsType, long startTime) {
+                running.put(id, new Operation(id, parentId, displayName, detailsType, startTime, startTime, null));
+                progress.put(id, new ArrayList<>());
+                children.put(id, new LinkedList<>());
+            }
+
+            @Override
+            public void progress(long id, @Nullable String detailsType, long time) {
+                List<BuildOperationRecord.Progress> operationProgress = progress.get(id);
+                if (operationProgress != null) {
+                    operationProgress.add(new BuildOperationRecord.Progress(time, null, detailsType));
+                }
+            }
+
+            @Override
+            public void finished(long id, @Nullable String resultType, @Nullable String failure, long endTime) {
+                Operation started = running.remove(id);
+                if (started == null) {
+                    return;
+                }
+                BuildOperationRecord record = new BuildOperationRecord(
+                    id,
+                    started.parentId,
+                    started.displayName,
+                    started.startTime,
+                    endTime,
+                    null,
+                    started.detailsType,
+                    null,
+                    resultType,
+                    failure,
+                    progress.remove(id),
+                    BuildOperationRecord.ORDERING.immutableSortedCopy(children.remove(id))
+                );
+                List<BuildOperationRecord> parentChildren = started.parentId == null ? null : children.get(started.parentId);
+                if (parentChildren == null) {
+                    roots.add(record);
+                } else {
+                    parentChildren.add(record);
+                }
+            }
+        });
+        return new BuildOperationTree(Collections.unmodifiableList(roots));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import org.gradle.internal.IoActions;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.AsyncTolerantBuildOperationListener;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.FINISH;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.MAGIC;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.PROGRESS;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.START;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.TYPE;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.VERSION;
+import static org.gradle.internal.operations.trace.BinaryBuildOperationTraceFormat.encodeTimeDelta;
+
+/**
+ * Writes the build operation stream in the binary trace format.
+ *
+ * The listener methods only capture the identity, type, timing and failure of an operation and hand them to a ring buffer.
+ * Encoding and writing happens on a dedicated thread. Details and results are not recorded, only their types,
+ * so the writer can also be notified asynchronously.
+ *
+ * @see BinaryBuildOperationTraceReader
+ */
+class BinaryBuildOperationTraceWriter implements AsyncTolerantBuildOperationListener, Stoppable {
+    private static final int BUFFER_CAPACITY = 1 << 16;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TraceEventRingBuffer<Event> buffer = new TraceEventRingBuffer<>(BUFFER_CAPACITY);
+    private final KryoBackedEncoder encoder;
+    private final ManagedExecutor executor;
+    private final Map<String, Integer> typeIndexes = new HashMap<>();
+    private volatile boolean stopped;
+    private long previousTime;
+
+    BinaryBuildOperationTraceWriter(File file, ExecutorFactory executorFactory) throws IOException {
+        this.encoder = new KryoBackedEncoder(new FileOutputStream(file));
+        encoder.writeInt(MAGIC);
+        encoder.writeSmallInt(VERSION);
+        this.executor = executorFactory.create("Build operation trace writer");
+        executor.execute(this::writeEvents);
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        OperationIdentifier parentId = buildOperation.getParentId();
+        buffer.put(new Event(START, buildOperation.getId().getId(), parentId == null ? 0 : parentId.getId(), buildOperation.getDisplayName(), typeOf(buildOperation.getDetails()), startEvent.getStartTime(), null));
+    }
+
+    @Override
+    public void progress(OperationIdentifier buildOperationId, OperationProgressEvent progressEvent) {
+        buffer.put(new Event(PROGRESS, buildOperationId.getId(), 0, null, typeOf(progressEvent.getDetails()), progressEvent.getTime(), null));
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        Throwable failure = finishEvent.getFailure();
+        buffer.put(new Event(FINISH, buildOperation.getId().getId(), 0, null, typeOf(finishEvent.getResult()), finishEvent.getEndTime(), failure == null ? null : failure.toString()));
+    }
+
+    @Nullable
+    private static String typeOf(@Nullable Object value) {
+        return value == null ? null : value.getClass().getName();
+    }
+
+    /**
+     * Waits for the writer thread to write all pending events and closes the trace.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+        executor.stop();
+    }
+
+    /**
+     * Writes events until stopped. When writing fails, the buffer is closed so that the listener methods drop events instead of waiting for this thread.
+     */
+    private void writeEvents() {
+        boolean completed = false;
+        try {
+            while (true) {
+                Event event = buffer.poll();
+                if (event != null) {
+                    write(event);
+                } else if (stopped && buffer.isEmpty()) {
+                    break;
+                } else {
+                    encoder.flush();
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            encoder.close();
+            completed = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!completed) {
+                buffer.close();
+                IoActions.closeQuietly(encoder);
+            }
+        }
+    }
+
+    private void write(Event event) throws IOException {
+        int typeIndex = indexOf(event.type);
+        encoder.writeByte(event.kind);
+        encoder.writeSmallLong(event.id);
+        switch (event.kind) {
+            case START:
+                encoder.writeSmallLong(event.parentId);
+                encoder.writeString(event.displayName);
+                encoder.writeSmallInt(typeIndex);
+                break;
+            case PROGRESS:
+                encoder.writeSmallInt(typeIndex);
+                break;
+            case FINISH:
+                encoder.writeSmallInt(typeIndex);
+                encoder.writeNullableString(event.failure);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event kind " + event.kind);
+        }
+        encoder.writeSmallLong(encodeTimeDelta(previousTime, event.time));
+        previousTime = event.time;
+    }
+
+    private int indexOf(@Nullable String type) {
+        if (type == null) {
+            return 0;
+        }
+        Integer index = typeIndexes.get(type);
+        if (index == null) {
+            index = typeIndexes.size() + 1;
+            typeIndexes.put(type, index);
+            encoder.writeByte(TYPE);
+            encoder.writeString(type);
+        }
+        return index;
+    }
+
+    private static class Event {
+        final byte kind;
+        final long id;
+        final long parentId;
+        final String displayName;
+        final String type;
+        final long time;
+        final String failure;
+
+        Event(byte kind, long id, long parentId, @Nullable String displayName, @Nullable String type, long time, @Nullable String failure) {
+            this.kind = kind;
+            this.id = id;
+            this.parentId = parentId;
+            this.displayName = displayName;
+            this.type = type;
+            this.time = time;
+            this.failure = failure;
+        }
+    }
+}
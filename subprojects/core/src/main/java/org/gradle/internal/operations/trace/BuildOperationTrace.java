@@ -29,6 +29,7 @@
 import org.gradle.StartParameter;
 import org.gradle.api.NonNullApi;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationListener;
@@ -79,6 +80,10 @@
  * The «path-base» param is optional.
  * If invoked as `-Dorg.gradle.internal.operations.trace`, a base value of "operations" will be used.
  *
+ * With `-Dorg.gradle.internal.operations.trace.format=binary`, only «path-base»-log.bin is created instead.
+ * It is a compact binary log of the identity, type, timing and failure of each operation, written off the calling threads.
+ * It can be queried with {@link BinaryBuildOperationTraceReader}, which is useful for very large builds.
+ *
  * The “trace” produced here is different to the trace produced by Gradle Profiler.
  * There, the focus is analyzing the performance profile.
  * Here, the focus is debugging/developing the information structure of build operations.
@@ -88,11 +93,14 @@
 public class BuildOperationTrace implements Stoppable {
 
     public static final String SYSPROP = "org.gradle.internal.operations.trace";
+    public static final String FORMAT_SYSPROP = "org.gradle.internal.operations.trace.format";
+    public static final String BINARY_FORMAT = "binary";
 
     private static final byte[] NEWLINE = "\n".getBytes();
 
     private final String basePath;
     private final OutputStream logOutputStream;
+    private final BinaryBuildOperationTraceWriter binaryWriter;
     private final JsonGenerator jsonGenerator = createJsonGenerator();
 
     private final BuildOperationListenerManager buildOperationListenerManager;
@@ -114,20 +122,32 @@ public void finished(BuildOperationDescriptor buildOperation, OperationFinishEve
         }
     };
 
-    public BuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager buildOperationListenerManager) {
+    public BuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager buildOperationListenerManager, ExecutorFactory executorFactory) {
         this.buildOperationListenerManager = buildOperationListenerManager;
 
         Map<String, String> sysProps = startParameter.getSystemPropertiesArgs();
-        String basePath = sysProps.get(SYSPROP);
-        if (basePath == null) {
-            basePath = System.getProperty(SYSPROP);
-        }
+        String basePath = systemProperty(sysProps, SYSPROP);
 
         this.basePath = basePath;
         if (this.basePath == null || basePath.equals(Boolean.FALSE.toString())) {
             this.logOutputStream = null;
+            this.binaryWriter = null;
+            return;
+        }
+
+        if (BINARY_FORMAT.equals(systemProperty(sysProps, FORMAT_SYSPROP))) {
+            this.logOutputStream = null;
+            try {
+                File binaryLogFile = file(basePath, BinaryBuildOperationTraceFormat.FILE_SUFFIX);
+                GFileUtils.mkdirs(binaryLogFile.getParentFile());
+                this.binaryWriter = new BinaryBuildOperationTraceWriter(binaryLogFile, executorFactory);
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            buildOperationListenerManager.addListener(binaryWriter);
             return;
         }
+        this.binaryWriter = null;
 
         try {
             File logFile = logFile(basePath);
@@ -146,8 +166,18 @@ public BuildOperationTrace(StartParameter startParameter, BuildOperationListener
         buildOperationListenerManager.addListener(listener);
     }
 
+    private static String systemProperty(Map<String, String> sysProps, String name) {
+        String value = sysProps.get(name);
+        return value == null ? System.getProperty(name) : value;
+    }
+
     @Override
     public void stop() {
+        if (binaryWriter != null) {
+            buildOperationListenerManager.removeListener(binaryWriter);
+            binaryWriter.stop();
+            return;
+        }
         buildOperationListenerManager.removeListener(listener);
         if (logOutputStream != null) {
             try {
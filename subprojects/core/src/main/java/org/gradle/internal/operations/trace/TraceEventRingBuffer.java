@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free queue for many producers and a single consumer.
+ *
+ * Producers claim a sequence number and publish into the matching slot. They only wait when the buffer is full,
+ * so no events are dropped while the consumer is running. The consumer takes events in claim order.
+ * Once the consumer has gone away, the buffer is closed and further events are dropped instead of blocking the producers.
+ */
+class TraceEventRingBuffer<T> {
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile boolean closed;
+
+    TraceEventRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, but was " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds an event, waiting for the consumer while the buffer is full. Drops the event when the buffer is closed.
+     */
+    void put(T event) {
+        if (closed) {
+            return;
+        }
+        long sequence = tail.getAndIncrement();
+        int spins = 0;
+        long parkNanos = 1000;
+        while (sequence - head.get() >= capacity) {
+            if (closed) {
+                return;
+            }
+            if (spins < SPINS_BEFORE_PARKING) {
+                spins++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        }
+        slots.lazySet((int) sequence & mask, event);
+    }
+
+    /**
+     * Marks the buffer as closed, so producers stop waiting for a consumer that is gone.
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Takes the next event, or returns null when the next event has not been published yet. Must only be called by the consumer.
+     */
+    @Nullable
+    T poll() {
+        long current = head.get();
+        int index = (int) current & mask;
+        T event = slots.get(index);
+        if (event == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(current + 1);
+        return event;
+    }
+
+    /**
+     * Returns true when all claimed events have been taken.
+     */
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
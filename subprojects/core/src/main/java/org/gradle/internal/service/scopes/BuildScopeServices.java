@@ -99,6 +99,7 @@
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactorySelector;
 import org.gradle.configuration.internal.UserCodeApplicationContext;
+import org.gradle.configuration.project.BuildScriptPrecompiler;
 import org.gradle.configuration.project.DefaultCompileOperationFactory;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
 import org.gradle.execution.ProjectConfigurer;
@@ -173,6 +174,7 @@
 import org.gradle.internal.build.PublicBuildPath;
 import org.gradle.internal.buildevents.BuildStartedTime;
 import org.gradle.internal.buildoption.FeatureFlags;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.buildtree.BuildInclusionCoordinator;
 import org.gradle.internal.buildtree.BuildModelParameters;
 import org.gradle.internal.classloader.ClassLoaderFactory;
@@ -487,7 +489,18 @@ private DefaultScriptPluginFactory defaultScriptPluginFactory() {
             getFactory(LoggingManagerInternal.class),
             get(AutoAppliedPluginHandler.class),
             get(PluginRequestApplicator.class),
-            get(CompileOperationFactory.class));
+            get(CompileOperationFactory.class),
+            get(BuildScriptPrecompiler.class));
+    }
+
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(
+        FileCacheBackedScriptClassCompiler scriptClassCompiler,
+        CompileOperationFactory compileOperationFactory,
+        BuildOperationExecutor buildOperationExecutor,
+        BuildModelParameters buildModelParameters,
+        InternalOptions internalOptions
+    ) {
+        return new BuildScriptPrecompiler(scriptClassCompiler, compileOperationFactory, buildOperationExecutor, buildModelParameters, internalOptions);
     }
 
     protected BuildSourceBuilder createBuildSourceBuilder(BuildState currentBuild, FileLockManager fileLockManager, BuildOperationExecutor buildOperationExecutor, CachedClasspathTransformer cachedClasspathTransformer, CachingServiceLocator cachingServiceLocator, BuildStateRegistry buildRegistry, PublicBuildPath publicBuildPath, NamedObjectInstantiator instantiator) {
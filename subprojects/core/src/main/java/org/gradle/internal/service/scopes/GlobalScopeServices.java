@@ -145,7 +145,10 @@ CurrentBuildOperationRef createCurrentBuildOperationRef() {
         return CurrentBuildOperationRef.instance();
     }
 
-    BuildOperationListenerManager createBuildOperationListenerManager() {
+    BuildOperationListenerManager createBuildOperationListenerManager(ExecutorFactory executorFactory) {
+        if (Boolean.getBoolean(DefaultBuildOperationListenerManager.ASYNC_DISPATCH_PROPERTY)) {
+            return new DefaultBuildOperationListenerManager(executorFactory.create("Build operation listener dispatch"));
+        }
         return new DefaultBuildOperationListenerManager();
     }
 
@@ -91,6 +91,7 @@
 import org.gradle.internal.watch.vfs.WatchableFileSystemDetector;
 import org.gradle.internal.watch.vfs.impl.DefaultWatchableFileSystemDetector;
 import org.gradle.internal.watch.vfs.impl.LocationsWrittenByCurrentBuild;
+import org.gradle.internal.watch.vfs.impl.SpeculativeSnapshotter;
 import org.gradle.internal.watch.vfs.impl.WatchingNotSupportedVirtualFileSystem;
 import org.gradle.internal.watch.vfs.impl.WatchingVirtualFileSystem;
 import org.slf4j.Logger;
@@ -186,6 +187,10 @@ public void beforeComplete() {
             return locationsWrittenByCurrentBuild;
         }
 
+        SpeculativeSnapshotter createSpeculativeSnapshotter() {
+            return new SpeculativeSnapshotter();
+        }
+
         WatchableFileSystemDetector createWatchableFileSystemDetector(FileSystems fileSystems) {
             return new DefaultWatchableFileSystemDetector(fileSystems);
         }
@@ -198,7 +203,8 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
             FileChangeListeners fileChangeListeners,
             FileSystem fileSystem,
             GlobalCacheLocations globalCacheLocations,
-            WatchableFileSystemDetector watchableFileSystemDetector
+            WatchableFileSystemDetector watchableFileSystemDetector,
+            SpeculativeSnapshotter speculativeSnapshotter
         ) {
             CaseSensitivity caseSensitivity = fileSystem.isCaseSensitive() ? CASE_SENSITIVE : CASE_INSENSITIVE;
             SnapshotHierarchy root = DefaultSnapshotHierarchy.empty(caseSensitivity);
@@ -216,7 +222,8 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
                     sectionId -> documentationRegistry.getDocumentationRecommendationFor("details", "gradle_daemon", sectionId),
                     locationsWrittenByCurrentBuild,
                     watchableFileSystemDetector,
-                    fileChangeListeners
+                    fileChangeListeners,
+                    speculativeSnapshotter
                 ))
                 .orElse(new WatchingNotSupportedVirtualFileSystem(root));
             listenerManager.addListener((BuildAddedListener) buildState -> {
@@ -234,7 +241,8 @@ FileSystemAccess createFileSystemAccess(
             StringInterner stringInterner,
             FileSystemAccess.WriteListener writeListener,
             DirectorySnapshotterStatistics.Collector statisticsCollector,
-            ListenerManager listenerManager
+            ListenerManager listenerManager,
+            SpeculativeSnapshotter speculativeSnapshotter
         ) {
             DefaultFileSystemAccess defaultFileSystemAccess = new DefaultFileSystemAccess(
                 hasher,
@@ -246,6 +254,7 @@ FileSystemAccess createFileSystemAccess(
                 DirectoryScanner.getDefaultExcludes()
             );
             listenerManager.addListener(defaultFileSystemAccess);
+            speculativeSnapshotter.attach(defaultFileSystemAccess);
 
             return defaultFileSystemAccess;
         }
@@ -173,4 +173,34 @@ class CachingFileHasherTest extends Specification {
         1 * statisticsCollector.reportFileHashed(length)
         0 * _
     }
+
+    def "returns cached hash only when timestamp and length have not changed"() {
+        def stat = fileSystem.stat(file)
+
+        when:
+        def unchanged = hasher.getCachedHash(file, stat.length, stat.lastModified)
+        def changed = hasher.getCachedHash(file, stat.length + 1, stat.lastModified)
+
+        then:
+        unchanged == hash
+        changed == null
+
+        and:
+        2 * timeStampInspector.timestampCanBeUsedToDetectFileChange(file.absolutePath, stat.lastModified) >> true
+        2 * cache.getIfPresent(file.absolutePath) >> new FileInfo(hash, stat.length, stat.lastModified)
+        0 * _
+    }
+
+    def "records hash calculated elsewhere"() {
+        when:
+        hasher.recordHash(file, 321l, 123l, hash)
+
+        then:
+        1 * cache.put(file.absolutePath, _) >> { String key, FileInfo fileInfo ->
+            assert fileInfo.hash == hash
+            assert fileInfo.length == 321l
+            assert fileInfo.timestamp == 123l
+        }
+        0 * _
+    }
 }
@@ -78,6 +78,26 @@ class DefaultResourceSnapshotterCacheServiceTest extends Specification {
         0 * _
     }
 
+    def "caches content hashes by content and configuration"() {
+        def contentHash = TestHashCodes.hashCodeFrom(789)
+        def expectedHash = TestHashCodes.hashCodeFrom(123)
+        def otherConfigurationHash = TestHashCodes.hashCodeFrom(42)
+        int calls = 0
+
+        when:
+        def first = snapshotterCache.hashContent(contentHash, { calls++; expectedHash }, configurationHash)
+        def second = snapshotterCache.hashContent(contentHash, { calls++; expectedHash }, configurationHash)
+        then:
+        first == expectedHash
+        second == expectedHash
+        calls == 1
+
+        when:
+        snapshotterCache.hashContent(contentHash, { calls++; expectedHash }, otherConfigurationHash)
+        then:
+        calls == 2
+    }
+
     private HashCode getConfigurationHash() {
         def hasher = Hashing.newHasher()
         hasher.putString(delegate.getClass().getName())
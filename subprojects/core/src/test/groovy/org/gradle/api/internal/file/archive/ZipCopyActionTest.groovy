@@ -25,6 +25,7 @@ import org.gradle.api.internal.file.copy.CopyActionProcessingStream
 import org.gradle.api.internal.file.copy.DefaultZipCompressor
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
 import org.gradle.api.tasks.bundling.Zip
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.archive.ZipTestFixture
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -74,6 +75,68 @@ class ZipCopyActionTest extends Specification {
         expandDir.file("file2").assertContents(equalTo("contents of file2"))
     }
 
+    void createsDeflatedZipFileInParallelPreservingEntryOrder() {
+        given:
+        visitor = parallelVisitor(zipFile)
+        def files = (1..50).collect { file("dir/file$it") }
+        zip([dir("dir")] + files as FileCopyDetailsInternal[])
+
+        expect:
+        def zipFixture = new ZipTestFixture(zipFile)
+        zipFixture.hasDescendantsInOrder((1..50).collect { "dir/file$it" } as String[])
+        zipFixture.assertFileContent("dir/file17", "contents of dir/file17")
+        zipFixture.hasCompression("dir/file17", ZipArchiveOutputStream.DEFLATED)
+        zipFixture.assertFileMode("dir/", 2)
+        zipFixture.assertFileMode("dir/file1", 1)
+    }
+
+    void parallelDeflatedZipFileIsReproducible() {
+        given:
+        def otherZipFile = tmpDir.getTestDirectory().file("other.zip")
+        def entries = { [dir("dir")] + (1..50).collect { file("dir/file$it") } + [dir("other"), file("other/file")] as FileCopyDetailsInternal[] }
+
+        when:
+        visitor = parallelVisitor(zipFile)
+        zip(entries())
+        visitor = parallelVisitor(otherZipFile)
+        zip(entries())
+
+        then:
+        zipFile.bytes == otherZipFile.bytes
+    }
+
+    void readsEachFileOnceWhenDeflatingInParallel() {
+        given:
+        visitor = parallelVisitor(zipFile)
+        def file = file("dir/file1")
+
+        when:
+        zip(file)
+
+        then:
+        1 * file.open() >> new ByteArrayInputStream("filtered contents".bytes)
+        0 * file.getSize()
+        0 * file.copyTo(_)
+
+        and:
+        new ZipTestFixture(zipFile).assertFileContent("dir/file1", "filtered contents")
+    }
+
+    void wrapsFailureToAddElementWhenDeflatingInParallel() {
+        given:
+        visitor = parallelVisitor(zipFile)
+        Throwable failure = new RuntimeException("broken")
+        def brokenFile = brokenFile("dir/file1", failure)
+
+        when:
+        zip(file("file2"), brokenFile)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $brokenFile to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+    }
+
     void zipFileContainsExpectedPermissions() {
         given:
         zip(dir("dir"), file("file"))
@@ -143,6 +206,10 @@ class ZipCopyActionTest extends Specification {
         e.cause.is(failure)
     }
 
+    private ZipCopyAction parallelVisitor(TestFile zipFile) {
+        new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED), new DocumentationRegistry(), encoding, false, new DefaultExecutorFactory(), 4)
+    }
+
     private void zip(final FileCopyDetailsInternal... files) {
         visitor.execute(new CopyActionProcessingStream() {
             void process(CopyActionProcessingStreamAction action) {
@@ -162,6 +229,7 @@ class ZipCopyActionTest extends Specification {
         mock.copyTo(_ as OutputStream) >> { OutputStream out ->
             out << "contents of $path"
         }
+        mock.open() >> { new ByteArrayInputStream("contents of $path".bytes) }
         mock
     }
 
@@ -184,6 +252,10 @@ class ZipCopyActionTest extends Specification {
             failure.fillInStackTrace()
             throw failure
         }
+        mock.open() >> {
+            failure.fillInStackTrace()
+            throw failure
+        }
         mock
     }
 }
@@ -24,6 +24,7 @@ import org.gradle.api.internal.initialization.ScriptHandlerInternal
 import org.gradle.api.internal.plugins.ExtensionContainerInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectScript
+import org.gradle.configuration.project.BuildScriptPrecompiler
 import org.gradle.configuration.project.DefaultCompileOperationFactory
 import org.gradle.groovy.scripts.BasicScript
 import org.gradle.groovy.scripts.DefaultScript
@@ -64,6 +65,7 @@ class DefaultScriptPluginFactoryTest extends Specification {
     def classpathHasher = Mock(ClasspathHasher)
     def autoAppliedPluginHandler = Mock(AutoAppliedPluginHandler)
     def compileOperationsFactory = new DefaultCompileOperationFactory(documentationRegistry)
+    def buildScriptPrecompiler = Mock(BuildScriptPrecompiler)
 
     def factory = new DefaultScriptPluginFactory(
         new DefaultServiceRegistry(),
@@ -71,7 +73,8 @@ class DefaultScriptPluginFactoryTest extends Specification {
         loggingManagerFactory,
         autoAppliedPluginHandler,
         pluginRequestApplicator,
-        compileOperationsFactory
+        compileOperationsFactory,
+        buildScriptPrecompiler
     )
 
     def setup() {
@@ -121,6 +124,7 @@ class DefaultScriptPluginFactoryTest extends Specification {
         1 * scriptCompilerFactory.createCompiler(scriptSource) >> scriptCompiler
         1 * scriptCompiler.compile(ProjectScript, _ as NoDataCompileOperation, baseScope, _) >> classPathScriptRunner
         1 * classPathScriptRunner.run(target, _ as ServiceRegistry)
+        1 * buildScriptPrecompiler.precompileChildrenOf(target)
         1 * scriptCompiler.compile(ProjectScript, { it.transformer != null }, targetScope, !null) >> scriptRunner
         _ * scriptRunner.data >> new BuildScriptData(true)
         _ * scriptRunner.runDoesSomething >> true
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectScript
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.internal.CompiledScript
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler
+import org.gradle.internal.buildoption.DefaultInternalOptions
+import org.gradle.internal.buildtree.BuildModelParameters
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resource.TextResource
+import spock.lang.Specification
+
+class BuildScriptPrecompilerTest extends Specification {
+    def scriptClassCompiler = Mock(FileCacheBackedScriptClassCompiler)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def buildModelParameters = Mock(BuildModelParameters)
+    def systemProperties = [:]
+    def scope = Mock(ClassLoaderScope)
+    def project = Mock(ProjectInternal)
+    def children = [:]
+
+    def setup() {
+        project.getClassLoaderScope() >> scope
+        project.getChildProjectsUnchecked() >> children
+        scope.isLocked() >> true
+    }
+
+    def precompiler() {
+        new BuildScriptPrecompiler(scriptClassCompiler, new DefaultCompileOperationFactory(Mock(DocumentationRegistry)), buildOperationExecutor, buildModelParameters, new DefaultInternalOptions(systemProperties))
+    }
+
+    def "compiles first pass of child build scripts against class path of parent"() {
+        def script1 = child("a", "build.gradle", 1)
+        def script2 = child("b", "build.gradle", 2)
+        def compiled = Mock(CompiledScript) {
+            getRunDoesSomething() >> true
+        }
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        1 * scriptClassCompiler.compile(script1, scope, { it.id == "cp_proj" }, ProjectScript, _) >> compiled
+        1 * scriptClassCompiler.compile(script2, scope, { it.id == "cp_proj" }, ProjectScript, _) >> compiled
+        0 * scriptClassCompiler._
+        buildOperationExecutor.log.records.size() == 2
+    }
+
+    def "compiles second pass of child build scripts when first pass does nothing"() {
+        def script1 = child("a", "build.gradle", 1)
+        def script2 = child("b", "build.gradle", 2)
+        def compiled = Mock(CompiledScript) {
+            getRunDoesSomething() >> false
+        }
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        1 * scriptClassCompiler.compile(script1, scope, { it.id == "cp_proj" }, ProjectScript, _) >> compiled
+        1 * scriptClassCompiler.compile(script1, scope, { it.id == "proj" }, ProjectScript, _) >> compiled
+        1 * scriptClassCompiler.compile(script2, scope, { it.id == "cp_proj" }, ProjectScript, _) >> compiled
+        1 * scriptClassCompiler.compile(script2, scope, { it.id == "proj" }, ProjectScript, _) >> compiled
+        0 * scriptClassCompiler._
+    }
+
+    def "compiles scripts with the same content once"() {
+        def script1 = child("a", "build.gradle", 1)
+        child("b", "build.gradle", 1)
+        def compiled = Mock(CompiledScript) {
+            getRunDoesSomething() >> true
+        }
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        1 * scriptClassCompiler.compile(_, scope, { it.id == "cp_proj" }, ProjectScript, _) >> compiled
+        0 * scriptClassCompiler._
+    }
+
+    def "ignores scripts that are not Groovy scripts and failures to compile"() {
+        child("a", "build.gradle.kts", 1)
+        def script2 = child("b", "build.gradle", 2)
+        def script3 = child("c", "build.gradle", 3)
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        1 * scriptClassCompiler.compile(script2, scope, _, ProjectScript, _) >> { throw new RuntimeException("broken") }
+        1 * scriptClassCompiler.compile(script3, scope, _, ProjectScript, _) >> { throw new RuntimeException("broken") }
+        0 * scriptClassCompiler._
+        noExceptionThrown()
+    }
+
+    def "does not compile scripts when projects are configured on demand"() {
+        child("a", "build.gradle", 1)
+        child("b", "build.gradle", 2)
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        _ * buildModelParameters.isConfigureOnDemand() >> true
+        0 * scriptClassCompiler._
+    }
+
+    def "does not compile scripts when disabled"() {
+        child("a", "build.gradle", 1)
+        child("b", "build.gradle", 2)
+        systemProperties[BuildScriptPrecompiler.PRECOMPILE_BUILD_SCRIPTS.systemPropertyName] = "false"
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        0 * scriptClassCompiler._
+    }
+
+    def "does not compile scripts of children with a different class path"() {
+        child("a", "build.gradle", 1)
+        def other = Mock(ProjectInternal) {
+            getBuildScriptSource() >> script("build.gradle", 2)
+            getState() >> Mock(ProjectStateInternal) { isUnconfigured() >> true }
+            getBaseClassLoaderScope() >> Mock(ClassLoaderScope)
+        }
+        children["other"] = other
+
+        when:
+        precompiler().precompileChildrenOf(project)
+
+        then:
+        0 * scriptClassCompiler._
+    }
+
+    private ScriptSource child(String name, String fileName, int content) {
+        def source = script(fileName, content)
+        children[name] = Mock(ProjectInternal) {
+            getBuildScriptSource() >> source
+            getState() >> Mock(ProjectStateInternal) { isUnconfigured() >> true }
+            getBaseClassLoaderScope() >> scope
+        }
+        return source
+    }
+
+    private ScriptSource script(String fileName, int content) {
+        def resource = Mock(TextResource) {
+            isContentCached() >> true
+            getHasEmptyContent() >> false
+            getContentHash() >> TestHashCodes.hashCodeFrom(content)
+        }
+        return Mock(ScriptSource) {
+            getFileName() >> fileName
+            getResource() >> resource
+            getDisplayName() >> fileName
+        }
+    }
+}
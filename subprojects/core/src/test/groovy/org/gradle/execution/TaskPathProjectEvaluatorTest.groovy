@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectState
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.buildtree.BuildModelParameters
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import spock.lang.Specification
+
+import java.util.function.Consumer
+
+class TaskPathProjectEvaluatorTest extends Specification {
+    def cancellationToken = Mock(BuildCancellationToken)
+    def modelParameters = Mock(BuildModelParameters)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def evaluator = new TaskPathProjectEvaluator(cancellationToken, modelParameters, buildOperationExecutor)
+
+    def child1 = project(1)
+    def child2 = project(1)
+    def grandChild = project(2)
+    def root = project(0, [grandChild, child1, child2])
+
+    def "configures hierarchy one project after the other by default"() {
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        1 * root.owner.ensureConfigured()
+
+        then:
+        1 * grandChild.owner.ensureConfigured()
+        1 * child1.owner.ensureConfigured()
+        1 * child2.owner.ensureConfigured()
+        buildOperationExecutor.operations.empty
+    }
+
+    def "configures subprojects level by level when parallel project configuration is enabled"() {
+        given:
+        modelParameters.parallelProjectConfiguration >> true
+
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        1 * root.owner.ensureConfigured()
+
+        then:
+        1 * child1.owner.ensureConfigured()
+        1 * child2.owner.ensureConfigured()
+
+        then:
+        1 * grandChild.owner.ensureConfigured()
+        buildOperationExecutor.operations.size() == 3
+    }
+
+    private ProjectInternal project(int depth, List<ProjectInternal> subprojects = []) {
+        def state = Mock(ProjectState)
+        def project = Mock(ProjectInternal)
+        state.applyToMutableState(_) >> { Consumer<ProjectInternal> action -> action.accept(project) }
+        state.displayName >> "project at depth $depth"
+        project.owner >> state
+        project.depth >> depth
+        project.subprojects >> (subprojects as Set)
+        return project
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache
+import org.gradle.api.internal.changedetection.state.FileHasherStatistics
+import org.gradle.api.internal.changedetection.state.FileTimeStampInspector
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.cache.IndexedCacheParameters
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.TestInMemoryIndexedCache
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultChecksumServiceTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def fileStore = Stub(CrossBuildFileHashCache) {
+        createIndexedCache(_, _, _) >> { IndexedCacheParameters parameters, int size, boolean inMemory -> new TestInMemoryIndexedCache(parameters.valueSerializer) }
+    }
+    def timeStampInspector = Stub(FileTimeStampInspector) {
+        timestampCanBeUsedToDetectFileChange(_, _) >> true
+    }
+    def statisticsCollector = Mock(FileHasherStatistics.Collector)
+    def file = tmpDir.createFile("artifact.jar")
+    def service = new DefaultChecksumService(new StringInterner(), fileStore, TestFiles.fileSystem(), timeStampInspector, statisticsCollector)
+
+    def setup() {
+        file.text = "some-content"
+    }
+
+    def "calculates all requested hashes with a single read of the file"() {
+        when:
+        def hashes = service.hashes(file, ["md5", "sha1", "sha-256", "SHA-512"])
+
+        then:
+        hashes.keySet() as List == ["md5", "sha1", "sha-256", "SHA-512"]
+        hashes["md5"] == Hashing.md5().hashBytes(file.bytes)
+        hashes["sha1"] == Hashing.sha1().hashBytes(file.bytes)
+        hashes["sha-256"] == Hashing.sha256().hashBytes(file.bytes)
+        hashes["SHA-512"] == Hashing.sha512().hashBytes(file.bytes)
+        1 * statisticsCollector.reportFileHashed(file.length())
+        0 * statisticsCollector._
+    }
+
+    def "reuses hashes calculated by earlier requests"() {
+        when:
+        service.sha1(file)
+
+        then:
+        1 * statisticsCollector.reportFileHashed(file.length())
+
+        when:
+        def hashes = service.hashes(file, ["sha1", "sha256"])
+
+        then:
+        hashes["sha1"] == Hashing.sha1().hashBytes(file.bytes)
+        hashes["sha256"] == Hashing.sha256().hashBytes(file.bytes)
+        1 * statisticsCollector.reportFileHashed(file.length())
+
+        when:
+        def sha256 = service.sha256(file)
+        def cached = service.hashes(file, ["sha-1", "sha256"])
+
+        then:
+        sha256 == Hashing.sha256().hashBytes(file.bytes)
+        cached["sha-1"] == Hashing.sha1().hashBytes(file.bytes)
+        0 * statisticsCollector._
+    }
+
+    def "recalculates hashes when the file changes"() {
+        given:
+        service.hashes(file, ["md5", "sha1"])
+
+        when:
+        file.text = "some-other-content"
+        file.lastModified = file.lastModified() + 2000
+        def hashes = service.hashes(file, ["md5", "sha1"])
+
+        then:
+        hashes["md5"] == Hashing.md5().hashBytes(file.bytes)
+        hashes["sha1"] == Hashing.sha1().hashBytes(file.bytes)
+        1 * statisticsCollector.reportFileHashed(file.length())
+    }
+
+    def "fails for unknown algorithm"() {
+        when:
+        service.hashes(file, ["sha1", "crc32"])
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.DefaultBuildOperationListenerManager
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationProgressEvent
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+
+class BinaryBuildOperationTraceTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def executorFactory = new DefaultExecutorFactory()
+    def traceFile = tmpDir.file("operations-log.bin")
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "reconstructs the operation tree"() {
+        given:
+        def writer = new BinaryBuildOperationTraceWriter(traceFile, executorFactory)
+        def root = operation(1, null, "root", new RootDetails())
+        def child = operation(2, 1, "child", new ChildDetails())
+
+        when:
+        writer.started(root, new OperationStartEvent(1000))
+        writer.started(child, new OperationStartEvent(1005))
+        writer.progress(child.id, new OperationProgressEvent(1006, new ChildDetails()))
+        writer.finished(child, new OperationFinishEvent(1005, 1003, new RuntimeException("broken"), null))
+        writer.finished(root, new OperationFinishEvent(1000, 1020, null, "result"))
+        writer.stop()
+        def tree = BinaryBuildOperationTraceReader.readTree(traceFile)
+
+        then:
+        tree.roots.size() == 1
+        def rootRecord = tree.roots[0]
+        rootRecord.displayName == "root"
+        rootRecord.startTime == 1000
+        rootRecord.endTime == 1020
+        rootRecord.hasDetailsOfType(RootDetails)
+        rootRecord.resultType == String
+        rootRecord.children.size() == 1
+        def childRecord = rootRecord.children[0]
+        childRecord.parentId == 1
+        childRecord.displayName == "child"
+        childRecord.endTime == 1003
+        childRecord.failure == "java.lang.RuntimeException: broken"
+        childRecord.progress(ChildDetails).size() == 1
+        childRecord.progress[0].time == 1006
+    }
+
+    def "filters operations by type and computes statistics"() {
+        given:
+        def writer = new BinaryBuildOperationTraceWriter(traceFile, executorFactory)
+
+        when:
+        def root = operation(1, null, "root", new RootDetails())
+        writer.started(root, new OperationStartEvent(0))
+        (2..11).each { id ->
+            def child = operation(id, 1, "child $id", new ChildDetails())
+            writer.started(child, new OperationStartEvent(id * 10))
+            writer.finished(child, new OperationFinishEvent(id * 10, id * 10 + id, null, null))
+        }
+        writer.finished(root, new OperationFinishEvent(0, 200, null, null))
+        writer.stop()
+
+        def children = []
+        BinaryBuildOperationTraceReader.visitOperations(traceFile, { it == ChildDetails.name }) { children << it }
+        def statistics = BinaryBuildOperationTraceReader.latencyByDetailsType(traceFile)
+
+        then:
+        children*.displayName == (2..11).collect { "child $it" }
+        children*.duration == (2..11).toList()
+
+        statistics.keySet() == [ChildDetails.name, RootDetails.name] as Set
+        with(statistics[ChildDetails.name]) {
+            count == 10
+            total == 65
+            min == 2
+            max == 11
+            mean == 6.5d
+        }
+        statistics[RootDetails.name].total == 200
+    }
+
+    def "records events from many threads without losing any"() {
+        given:
+        def writer = new BinaryBuildOperationTraceWriter(traceFile, executorFactory)
+        def threads = 8
+        def operationsPerThread = 20000
+        def start = new CountDownLatch(1)
+
+        when:
+        def producers = (0..<threads).collect { thread ->
+            Thread.start {
+                start.await()
+                for (int i = 0; i < operationsPerThread; i++) {
+                    def operation = operation(thread * operationsPerThread + i + 1, null, "op", null)
+                    writer.started(operation, new OperationStartEvent(i))
+                    writer.finished(operation, new OperationFinishEvent(i, i + 1, null, null))
+                }
+            }
+        }
+        start.countDown()
+        producers*.join()
+        writer.stop()
+        def count = 0
+        BinaryBuildOperationTraceReader.visitOperations(traceFile, { true }) { count++ }
+
+        then:
+        count == threads * operationsPerThread
+    }
+
+    def "records events dispatched asynchronously by the listener manager"() {
+        given:
+        def manager = new DefaultBuildOperationListenerManager(executorFactory.create("dispatch"))
+        def writer = new BinaryBuildOperationTraceWriter(traceFile, executorFactory)
+        manager.addListener(writer)
+        def root = operation(1, null, "root", new RootDetails())
+        def child = operation(2, 1, "child", new ChildDetails())
+
+        when:
+        manager.broadcaster.started(root, new OperationStartEvent(0))
+        manager.broadcaster.started(child, new OperationStartEvent(5))
+        manager.broadcaster.finished(child, new OperationFinishEvent(5, 8, null, null))
+        manager.broadcaster.finished(root, new OperationFinishEvent(0, 10, null, "result"))
+        manager.removeListener(writer)
+        writer.stop()
+        manager.close()
+        def tree = BinaryBuildOperationTraceReader.readTree(traceFile)
+
+        then:
+        tree.roots*.displayName == ["root"]
+        tree.roots[0].hasDetailsOfType(RootDetails)
+        tree.roots[0].resultType == String
+        tree.roots[0].children*.displayName == ["child"]
+        tree.roots[0].children[0].endTime == 8
+    }
+
+    private static BuildOperationDescriptor operation(long id, Long parentId, String displayName, Object details) {
+        return BuildOperationDescriptor.displayName(displayName)
+            .details(details)
+            .build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+    }
+
+    static class RootDetails {}
+
+    static class ChildDetails {}
+}
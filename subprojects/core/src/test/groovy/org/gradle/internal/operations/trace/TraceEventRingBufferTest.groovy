@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+class TraceEventRingBufferTest extends Specification {
+    def buffer = new TraceEventRingBuffer<String>(2)
+
+    def "takes events in the order they were added"() {
+        when:
+        buffer.put("a")
+        buffer.put("b")
+
+        then:
+        buffer.poll() == "a"
+        buffer.poll() == "b"
+        buffer.poll() == null
+        buffer.isEmpty()
+    }
+
+    def "drops events once closed"() {
+        when:
+        buffer.close()
+        buffer.put("a")
+
+        then:
+        buffer.poll() == null
+        buffer.isEmpty()
+    }
+
+    @Timeout(10)
+    def "releases a producer waiting on a full buffer when closed"() {
+        given:
+        buffer.put("a")
+        buffer.put("b")
+
+        when:
+        def producer = Thread.start {
+            buffer.put("c")
+        }
+        Thread.sleep(50)
+        buffer.close()
+        producer.join()
+
+        then:
+        buffer.poll() == "a"
+        buffer.poll() == "b"
+        buffer.poll() == null
+    }
+}
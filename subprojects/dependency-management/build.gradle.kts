@@ -1,5 +1,6 @@
 plugins {
     id("gradlebuild.distribution.implementation-java")
+    id("gradlebuild.jmh")
 }
 
 description = """This project contains most of the dependency management logic of Gradle:
@@ -65,6 +66,9 @@ dependencies {
     testImplementation(testFixtures(project(":execution")))
     testImplementation(testFixtures(project(":problems")))
 
+    jmhImplementation(testFixtures(project(":core")))
+    jmhImplementation(testFixtures(project(":problems")))
+
     integTestImplementation(project(":build-option"))
     integTestImplementation(libs.jansi)
     integTestImplementation(libs.ansiControlSequenceUtil)
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
+import org.gradle.api.internal.artifacts.DefaultBuildIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.DefaultProjectComponentIdentifier;
+import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionApplicator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.RootComponentMetadataBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultCapabilitiesConflictHandler;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler;
+import org.gradle.api.internal.attributes.AttributeDesugaring;
+import org.gradle.api.internal.attributes.EmptySchema;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
+import org.gradle.api.problems.TestProblemsUtil;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.Describables;
+import org.gradle.internal.component.SelectionFailureHandler;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.ImmutableCapabilities;
+import org.gradle.internal.component.local.model.DefaultLocalComponentGraphResolveState;
+import org.gradle.internal.component.local.model.DefaultLocalComponentMetadata;
+import org.gradle.internal.component.local.model.DefaultLocalConfigurationMetadata;
+import org.gradle.internal.component.local.model.LocalComponentArtifactMetadata;
+import org.gradle.internal.component.local.model.LocalComponentGraphResolveState;
+import org.gradle.internal.component.local.model.LocalComponentGraphResolveStateFactory;
+import org.gradle.internal.component.local.model.LocalConfigurationMetadata;
+import org.gradle.internal.component.model.ComponentGraphSpecificResolveState;
+import org.gradle.internal.component.model.ComponentIdGenerator;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.component.model.GraphVariantSelector;
+import org.gradle.internal.component.model.LocalComponentDependencyMetadata;
+import org.gradle.internal.component.model.LocalOriginDependencyMetadata;
+import org.gradle.internal.component.model.VariantGraphResolveState;
+import org.gradle.internal.model.CalculatedValueContainerFactory;
+import org.gradle.internal.operations.TestBuildOperationExecutor;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.gradle.util.AttributeTestUtil;
+import org.gradle.util.Path;
+import org.gradle.util.TestUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Resolves a synthetic graph of local components with the dependency graph builder.
+ *
+ * <p>Every module depends on the next module and on a few random modules further down the list, so the graph is
+ * a connected DAG with shared dependencies. Each module is published in two versions and a fraction of the edges
+ * request the newer one, so the builder also has to resolve version conflicts and prune evicted nodes.</p>
+ *
+ * <p>Run with {@code -prof gc} to see the allocation rate per resolution.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class DependencyGraphBuilderBenchmark {
+    private static final String GROUP = "org.test";
+    private static final String ROOT_CONFIGURATION = "root";
+    private static final String DEFAULT_CONFIGURATION = "default";
+    private static final String[] VERSIONS = {"1.0", "1.1"};
+
+    @Param({"1000", "10000"})
+    int moduleCount;
+
+    @Param({"5"})
+    int dependenciesPerModule;
+
+    private final Map<ComponentIdentifier, LocalComponentGraphResolveState> components = new HashMap<>();
+    private CalculatedValueContainerFactory calculatedValueContainerFactory;
+    private DependencyGraphBuilder builder;
+    private ResolveContext resolveContext;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        calculatedValueContainerFactory = TestUtil.calculatedValueContainerFactory();
+        ImmutableAttributesFactory attributesFactory = AttributeTestUtil.attributesFactory();
+        AttributeDesugaring desugaring = new AttributeDesugaring(attributesFactory);
+        ComponentIdGenerator idGenerator = new ComponentIdGenerator();
+        LocalComponentGraphResolveStateFactory resolveStateFactory = new LocalComponentGraphResolveStateFactory(desugaring, idGenerator);
+        DefaultVersionComparator versionComparator = new DefaultVersionComparator();
+        VersionParser versionParser = new VersionParser();
+
+        Random random = new Random(42L);
+        for (int module = 0; module < moduleCount; module++) {
+            List<LocalOriginDependencyMetadata> dependencies = new ArrayList<>();
+            if (module + 1 < moduleCount) {
+                dependencies.add(dependency(module, module + 1));
+                for (int i = 1; i < dependenciesPerModule; i++) {
+                    dependencies.add(dependency(module, module + 1 + random.nextInt(moduleCount - module - 1)));
+                }
+            }
+            for (String version : VERSIONS) {
+                ModuleVersionIdentifier id = DefaultModuleVersionIdentifier.newId(GROUP, moduleName(module), version);
+                ModuleComponentIdentifier componentId = DefaultModuleComponentIdentifier.newId(id);
+                DefaultLocalComponentMetadata metadata = component(id, componentId, Collections.singletonMap(DEFAULT_CONFIGURATION, configuration(DEFAULT_CONFIGURATION, componentId, dependencies)));
+                components.put(componentId, resolveStateFactory.stateFor(metadata));
+            }
+        }
+
+        List<LocalOriginDependencyMetadata> rootDependencies = new ArrayList<>();
+        for (int module = 0; module < Math.min(dependenciesPerModule, moduleCount); module++) {
+            rootDependencies.add(dependency(-1, module));
+        }
+        ComponentIdentifier rootId = new DefaultProjectComponentIdentifier(new DefaultBuildIdentifier(Path.ROOT), Path.path(":root"), Path.path(":root"), "root");
+        DefaultLocalComponentMetadata rootMetadata = component(DefaultModuleVersionIdentifier.newId(GROUP, "root", "1.0"), rootId, Collections.singletonMap(ROOT_CONFIGURATION, configuration(ROOT_CONFIGURATION, rootId, rootDependencies)));
+        LocalComponentGraphResolveState rootComponent = new DefaultLocalComponentGraphResolveState(0, rootMetadata, desugaring, idGenerator, false);
+        VariantGraphResolveState rootVariant = rootComponent.getConfiguration(ROOT_CONFIGURATION).asVariant();
+        resolveContext = resolveContext(new RootComponentMetadataBuilder.RootComponentState() {
+            @Override
+            public LocalComponentGraphResolveState getRootComponent() {
+                return rootComponent;
+            }
+
+            @Override
+            public String getRootConfigurationName() {
+                return ROOT_CONFIGURATION;
+            }
+
+            @Override
+            public VariantGraphResolveState getRootVariant() {
+                return rootVariant;
+            }
+        }, moduleCount);
+
+        builder = new DependencyGraphBuilder(
+            new SyntheticIdResolver(),
+            new SyntheticMetaDataResolver(),
+            new DefaultConflictHandler(new LatestModuleConflictResolver<>(versionComparator, versionParser), ModuleReplacementsData.NO_OP),
+            new DefaultCapabilitiesConflictHandler(),
+            Specs.satisfyAll(),
+            EmptySchema.INSTANCE,
+            new ModuleExclusions(),
+            new TestBuildOperationExecutor(),
+            DependencySubstitutionApplicator.NO_OP,
+            new ModuleSelectorConverter(),
+            attributesFactory,
+            desugaring,
+            new DefaultVersionSelectorScheme(versionComparator, versionParser),
+            versionComparator.asVersionComparator(),
+            idGenerator,
+            versionParser,
+            new GraphVariantSelector(new SelectionFailureHandler(TestProblemsUtil.createTestProblems()))
+        );
+    }
+
+    @Benchmark
+    public int resolve() {
+        CountingVisitor visitor = new CountingVisitor();
+        builder.resolve(resolveContext, visitor, false);
+        return visitor.nodes;
+    }
+
+    private static String moduleName(int module) {
+        return "module-" + module;
+    }
+
+    private static LocalOriginDependencyMetadata dependency(int from, int to) {
+        // Roughly one edge in ten asks for the newer version, which forces a conflict on the target module
+        String version = (from + to) % 10 == 0 ? VERSIONS[1] : VERSIONS[0];
+        ModuleComponentSelector selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId(GROUP, moduleName(to)), version);
+        return new LocalComponentDependencyMetadata(selector, ImmutableAttributes.EMPTY, DEFAULT_CONFIGURATION, Collections.emptyList(), Collections.emptyList(), false, false, true, false, false, null);
+    }
+
+    private DefaultLocalConfigurationMetadata configuration(String name, ComponentIdentifier componentId, List<LocalOriginDependencyMetadata> dependencies) {
+        return new DefaultLocalConfigurationMetadata(
+            name, name, componentId, true, true, ImmutableSet.of(name), ImmutableAttributes.EMPTY, ImmutableCapabilities.EMPTY,
+            true, false, true,
+            calculatedValueContainerFactory.create(Describables.of(name, "dependencies"), new DefaultLocalConfigurationMetadata.ConfigurationDependencyMetadata(dependencies, Collections.emptySet(), Collections.emptyList())),
+            Collections.emptySet(), calculatedValueContainerFactory,
+            calculatedValueContainerFactory.create(Describables.of(name, "artifacts"), ImmutableList.<LocalComponentArtifactMetadata>of())
+        );
+    }
+
+    private static DefaultLocalComponentMetadata component(ModuleVersionIdentifier id, ComponentIdentifier componentId, Map<String, LocalConfigurationMetadata> configurations) {
+        return new DefaultLocalComponentMetadata(id, componentId, "release", EmptySchema.INSTANCE, new DefaultLocalComponentMetadata.ConfigurationsMapMetadataFactory(new LinkedHashMap<>(configurations)), null);
+    }
+
+    private static ResolveContext resolveContext(RootComponentMetadataBuilder.RootComponentState rootComponent, int estimatedGraphSize) {
+        ResolutionStrategyInternal resolutionStrategy = (ResolutionStrategyInternal) Proxy.newProxyInstance(
+            DependencyGraphBuilderBenchmark.class.getClassLoader(),
+            new Class<?>[]{ResolutionStrategyInternal.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getConflictResolution":
+                        return ConflictResolution.latest;
+                    case "isFailingOnDynamicVersions":
+                    case "isFailingOnChangingVersions":
+                        return false;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+        return (ResolveContext) Proxy.newProxyInstance(
+            DependencyGraphBuilderBenchmark.class.getClassLoader(),
+            new Class<?>[]{ResolveContext.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getName":
+                    case "getDisplayName":
+                        return ROOT_CONFIGURATION;
+                    case "toRootComponent":
+                        return rootComponent;
+                    case "getResolutionStrategy":
+                        return resolutionStrategy;
+                    case "getEstimatedGraphSize":
+                        return estimatedGraphSize;
+                    case "getSyntheticDependencies":
+                        return Collections.emptyList();
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private static class SyntheticIdResolver implements DependencyToComponentIdResolver {
+        @Override
+        public void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nullable VersionSelector rejector, BuildableComponentIdResolveResult result) {
+            ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+            ModuleVersionIdentifier id = DefaultModuleVersionIdentifier.newId(selector.getModuleIdentifier(), selector.getVersion());
+            result.resolved(DefaultModuleComponentIdentifier.newId(id), id);
+        }
+    }
+
+    private class SyntheticMetaDataResolver implements ComponentMetaDataResolver {
+        @Override
+        public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+            result.resolved(components.get(identifier), ComponentGraphSpecificResolveState.EMPTY_STATE);
+        }
+
+        @Override
+        public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+            return true;
+        }
+    }
+
+    private static class ModuleSelectorConverter implements ComponentSelectorConverter {
+        @Override
+        public ModuleIdentifier getModule(ComponentSelector selector) {
+            return ((ModuleComponentSelector) selector).getModuleIdentifier();
+        }
+
+        @Override
+        public ModuleVersionSelector getSelector(ComponentSelector selector) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class CountingVisitor implements DependencyGraphVisitor {
+        int nodes;
+
+        @Override
+        public void start(RootGraphNode root) {
+        }
+
+        @Override
+        public void visitNode(DependencyGraphNode node) {
+            nodes++;
+        }
+
+        @Override
+        public void visitSelector(DependencyGraphSelector selector) {
+        }
+
+        @Override
+        public void visitEdges(DependencyGraphNode node) {
+        }
+
+        @Override
+        public void finish(DependencyGraphNode root) {
+        }
+    }
+}
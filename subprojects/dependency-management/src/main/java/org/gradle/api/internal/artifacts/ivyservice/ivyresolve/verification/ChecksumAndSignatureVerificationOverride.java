@@ -51,6 +51,8 @@
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resource.local.FileResourceListener;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -61,6 +63,7 @@
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ChecksumAndSignatureVerificationOverride implements DependencyVerificationOverride, ArtifactVerificationOperation, Stoppable {
     private final static Logger LOGGER = Logging.getLogger(ChecksumAndSignatureVerificationOverride.class);
@@ -122,7 +125,7 @@ public void onArtifact(ArtifactKind kind, ModuleComponentArtifactIdentifier arti
         }
     }
 
-    private void verifyConcurrently() {
+    private void verifyConcurrently(String displayName) {
         hasFatalFailure.set(false);
         synchronized (verificationEvents) {
             if (verificationEvents.isEmpty()) {
@@ -133,11 +136,14 @@ private void verifyConcurrently() {
             LOGGER.debug("Cannot perform verification of all dependencies because the verification service has been shutdown. Under normal circumstances this shouldn't happen unless a user buildFinished was added in an unexpected way.");
             return;
         }
+        Timer timer = Time.startTimer();
+        AtomicInteger verified = new AtomicInteger();
         buildOperationExecutor.runAll(queue -> {
             VerificationEvent event;
             synchronized (verificationEvents) {
                 while ((event = verificationEvents.poll()) != null) {
                     VerificationEvent ve = event;
+                    verified.incrementAndGet();
                     queue.add(new RunnableBuildOperation() {
                         @Override
                         public void run(BuildOperationContext context) {
@@ -160,7 +166,7 @@ public BuildOperationDescriptor.Builder description() {
                 }
             }
         });
-
+        LOGGER.info("Verified {} artifacts for {} in {}", verified.get(), displayName, timer.getElapsed());
     }
 
     @Override
@@ -170,7 +176,7 @@ public ModuleComponentRepository<ModuleComponentGraphResolveState> overrideDepen
 
     @Override
     public void artifactsAccessed(String displayName) {
-        verifyConcurrently();
+        verifyConcurrently(displayName);
         synchronized (failures) {
             if (hasFatalFailure.get() && !failures.isEmpty()) {
                 // There are fatal failures, but not necessarily on all artifacts so we first filter out
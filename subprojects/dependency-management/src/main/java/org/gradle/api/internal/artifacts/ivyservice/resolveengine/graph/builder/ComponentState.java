@@ -56,7 +56,7 @@ public class ComponentState implements ComponentResolutionState, DependencyGraph
     private final ComponentIdentifier componentIdentifier;
     private final ModuleVersionIdentifier id;
     private final ComponentMetaDataResolver resolver;
-    private final List<NodeState> nodes = Lists.newLinkedList();
+    private final List<NodeState> nodes = Lists.newArrayListWithCapacity(1);
     private final Long resultId;
     private final ModuleResolveState module;
     private final List<ComponentSelectionDescriptorInternal> selectionCauses = Lists.newArrayList();
@@ -49,7 +49,8 @@ class EdgeState implements DependencyGraphEdge {
     private final DependencyMetadata dependencyMetadata;
     private final NodeState from;
     private final ResolveState resolveState;
-    private final List<NodeState> targetNodes = Lists.newLinkedList();
+    // Most edges point to a single node of the target component
+    private final List<NodeState> targetNodes = Lists.newArrayListWithCapacity(1);
     private final boolean isTransitive;
     private final boolean isConstraint;
     private final int hashCode;
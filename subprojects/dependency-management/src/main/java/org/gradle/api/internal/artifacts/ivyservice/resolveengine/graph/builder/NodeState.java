@@ -19,10 +19,8 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Action;
@@ -100,11 +98,12 @@ public class NodeState implements DependencyGraphNode {
     private Set<ModuleIdentifier> upcomingNoLongerPendingConstraints;
     private boolean virtualPlatformNeedsRefresh;
     private Set<EdgeState> edgesToRecompute;
-    private Multimap<ModuleIdentifier, DependencyState> potentiallyActivatedConstraints;
+    // Usually holds a single constraint per module, so a map of small lists is much leaner than a multimap
+    private Map<ModuleIdentifier, List<DependencyState>> potentiallyActivatedConstraints;
 
-    // caches
-    private final Map<DependencyMetadata, DependencyState> dependencyStateCache = Maps.newHashMap();
-    private final Map<DependencyState, EdgeState> edgesCache = Maps.newHashMap();
+    // caches, created when the first dependency of the node is visited, as many nodes have none
+    private Map<DependencyMetadata, DependencyState> dependencyStateCache;
+    private Map<DependencyState, EdgeState> edgesCache;
 
     // Caches the list of dependency states for dependencies
     private List<DependencyState> cachedDependencyStates;
@@ -467,9 +466,12 @@ private void visitDependencies(ExcludeSpec resolutionFilter, Collection<EdgeStat
 
     private void registerActivatingConstraint(DependencyState dependencyState) {
         if (potentiallyActivatedConstraints == null) {
-            potentiallyActivatedConstraints = LinkedHashMultimap.create();
+            potentiallyActivatedConstraints = Maps.newHashMap();
+        }
+        List<DependencyState> constraints = potentiallyActivatedConstraints.computeIfAbsent(dependencyState.getModuleIdentifier(), id -> Lists.newArrayListWithCapacity(1));
+        if (!constraints.contains(dependencyState)) {
+            constraints.add(dependencyState);
         }
-        potentiallyActivatedConstraints.put(dependencyState.getModuleIdentifier(), dependencyState);
     }
 
     private List<? extends DependencyMetadata> dependencies() {
@@ -538,10 +540,16 @@ private List<DependencyState> cacheDependencyStates(List<? extends DependencyMet
     }
 
     private DependencyState cachedDependencyStateFor(DependencyMetadata md) {
+        if (dependencyStateCache == null) {
+            dependencyStateCache = Maps.newHashMap();
+        }
         return dependencyStateCache.computeIfAbsent(md, this::createDependencyState);
     }
 
     private void createAndLinkEdgeState(DependencyState dependencyState, Collection<EdgeState> discoveredEdges, ExcludeSpec resolutionFilter, boolean deferSelection) {
+        if (edgesCache == null) {
+            edgesCache = Maps.newHashMap();
+        }
         EdgeState dependencyEdge = edgesCache.computeIfAbsent(dependencyState, ds -> new EdgeState(this, ds, resolutionFilter, resolveState));
         dependencyEdge.computeSelector(); // the selector changes, if the 'versionProvidedByAncestors' state changes
         outgoingEdges.add(dependencyEdge);
@@ -559,8 +567,8 @@ private void visitAdditionalConstraints(Collection<EdgeState> discoveredEdges) {
             return;
         }
         for (ModuleIdentifier module : upcomingNoLongerPendingConstraints) {
-            Collection<DependencyState> dependencyStates = potentiallyActivatedConstraints.get(module);
-            if (!dependencyStates.isEmpty()) {
+            List<DependencyState> dependencyStates = potentiallyActivatedConstraints.get(module);
+            if (dependencyStates != null) {
                 for (DependencyState dependencyState : dependencyStates) {
                     dependencyState = maybeSubstitute(dependencyState, resolveState.getDependencySubstitutionApplicator());
                     createAndLinkEdgeState(dependencyState, discoveredEdges, previousTraversalExclusions, false);
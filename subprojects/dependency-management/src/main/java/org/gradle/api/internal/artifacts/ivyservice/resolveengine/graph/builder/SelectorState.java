@@ -67,7 +67,7 @@ class SelectorState implements DependencyGraphSelector, ResolvableSelectorState
     private final DependencyState dependencyState;
     private final DependencyToComponentIdResolver resolver;
     private final ResolvedVersionConstraint versionConstraint;
-    private final List<ComponentSelectionDescriptorInternal> dependencyReasons = Lists.newArrayListWithExpectedSize(4);
+    private final List<ComponentSelectionDescriptorInternal> dependencyReasons = Lists.newArrayListWithCapacity(2);
     private final boolean isProjectSelector;
     private final AttributeDesugaring attributeDesugaring;
 
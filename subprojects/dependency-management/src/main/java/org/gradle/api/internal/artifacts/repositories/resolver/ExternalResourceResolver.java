@@ -302,17 +302,21 @@ private void put(File src, ExternalResourceName destination) {
     }
 
     private void publishChecksums(ExternalResourceName destination, File content) {
-        publishChecksum(destination, content, "sha1", 40);
+        boolean extraChecksums = !ExternalResourceResolver.disableExtraChecksums();
+        List<String> algorithms = extraChecksums ? ImmutableList.of("sha1", "sha-256", "sha-512") : ImmutableList.of("sha1");
+        Map<String, HashCode> checksums = checksumService.hashes(content, algorithms);
 
-        if (!ExternalResourceResolver.disableExtraChecksums()) {
-            publishPossiblyUnsupportedChecksum(destination, content, "sha-256", 64);
-            publishPossiblyUnsupportedChecksum(destination, content, "sha-512", 128);
+        publishChecksum(destination, "sha1", checksums.get("sha1"));
+
+        if (extraChecksums) {
+            publishPossiblyUnsupportedChecksum(destination, content, "sha-256", checksums.get("sha-256"));
+            publishPossiblyUnsupportedChecksum(destination, content, "sha-512", checksums.get("sha-512"));
         }
     }
 
-    private void publishPossiblyUnsupportedChecksum(ExternalResourceName destination, File content, String algorithm, int length) {
+    private void publishPossiblyUnsupportedChecksum(ExternalResourceName destination, File content, String algorithm, HashCode hash) {
         try {
-            publishChecksum(destination, content, algorithm, length);
+            publishChecksum(destination, algorithm, hash);
         } catch (Exception ex) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.warn("Cannot upload checksum for " + content.getName() + " because the remote repository doesn't support " + algorithm + ". This will not fail the build.", ex);
@@ -322,14 +326,13 @@ private void publishPossiblyUnsupportedChecksum(ExternalResourceName destination
         }
     }
 
-    private void publishChecksum(ExternalResourceName destination, File content, String algorithm, int length) {
-        byte[] checksum = createChecksumFile(content, algorithm.toUpperCase(), length);
+    private void publishChecksum(ExternalResourceName destination, String algorithm, HashCode hash) {
+        byte[] checksum = createChecksumFile(hash);
         ExternalResourceName checksumDestination = destination.append("." + algorithm.replaceAll("-", ""));
         repository.resource(checksumDestination).put(new ByteArrayReadableContent(checksum));
     }
 
-    private byte[] createChecksumFile(File src, String algorithm, int checksumLength) {
-        HashCode hash = checksumService.hash(src, algorithm);
+    private static byte[] createChecksumFile(HashCode hash) {
         String formattedHashString = hash.toString();
         try {
             return formattedHashString.getBytes("US-ASCII");
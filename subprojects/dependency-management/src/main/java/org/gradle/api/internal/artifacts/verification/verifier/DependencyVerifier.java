@@ -38,6 +38,7 @@
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -197,13 +198,19 @@ private void verifySignature(SignatureVerificationService signatureVerificationS
 
     private void verifyChecksums(ChecksumService checksumService, File file, ArtifactVerificationMetadata verification, ArtifactVerificationResultBuilder builder) {
         List<Checksum> checksums = verification.getChecksums();
+        List<String> algorithms = new ArrayList<>(checksums.size());
         for (Checksum checksum : checksums) {
-            verifyChecksum(checksum.getKind(), file, checksum.getValue(), checksum.getAlternatives(), checksumService, builder);
+            algorithms.add(checksum.getKind().name());
+        }
+        // Calculate all checksums of the artifact together, so that the file is only read once
+        Map<String, HashCode> actualChecksums = checksumService.hashes(file, algorithms);
+        for (Checksum checksum : checksums) {
+            String actualChecksum = actualChecksums.get(checksum.getKind().name()).toString();
+            verifyChecksum(checksum.getKind(), file, checksum.getValue(), checksum.getAlternatives(), actualChecksum, builder);
         }
     }
 
-    private static void verifyChecksum(ChecksumKind algorithm, File file, String expected, Set<String> alternatives, ChecksumService cache, ArtifactVerificationResultBuilder builder) {
-        String actualChecksum = checksumOf(algorithm, file, cache);
+    private static void verifyChecksum(ChecksumKind algorithm, File file, String expected, Set<String> alternatives, String actualChecksum, ArtifactVerificationResultBuilder builder) {
         if (expected.equals(actualChecksum)) {
             return;
         }
@@ -217,25 +224,6 @@ private static void verifyChecksum(ChecksumKind algorithm, File file, String exp
         builder.failWith(new ChecksumVerificationFailure(file, algorithm, expected, actualChecksum));
     }
 
-    private static String checksumOf(ChecksumKind algorithm, File file, ChecksumService cache) {
-        HashCode hashValue = null;
-        switch (algorithm) {
-            case md5:
-                hashValue = cache.md5(file);
-                break;
-            case sha1:
-                hashValue = cache.sha1(file);
-                break;
-            case sha256:
-                hashValue = cache.sha256(file);
-                break;
-            case sha512:
-                hashValue = cache.sha512(file);
-                break;
-        }
-        return hashValue.toString();
-    }
-
     public Collection<ComponentVerificationMetadata> getVerificationMetadata() {
         return verificationMetadata.values();
     }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.verification.signatures
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheDecorator
+import org.gradle.cache.IndexedCache
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory
+import org.gradle.cache.scopes.BuildScopedCacheBuilderFactory
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.internal.BuildCommencedTimeProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class CrossBuildSignatureVerificationServiceTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def delegate = Mock(SignatureVerificationService)
+    def builder = Mock(SignatureVerificationResultBuilder)
+    def entries = [:]
+    def keyringHash = Hashing.signature("keyring")
+
+    def artifact = tmpDir.file("repo1/lib-1.0.jar") << "artifact"
+    def signature = tmpDir.file("repo1/lib-1.0.jar.asc") << "signature"
+
+    def "reuses verification result for the same content in another location"() {
+        def service = service()
+        def otherArtifact = tmpDir.file("repo2/lib-1.0.jar") << "artifact"
+        def otherSignature = tmpDir.file("repo2/lib-1.0.jar.asc") << "signature"
+
+        when:
+        service.verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+
+        then:
+        1 * delegate.verify(artifact, signature, _, _, _) >> { args -> args[4].ignored("ABC") }
+        1 * builder.ignored("ABC")
+
+        when:
+        service.verify(otherArtifact, otherSignature, ["ABC"] as Set, [] as Set, builder)
+
+        then:
+        0 * delegate.verify(_, _, _, _, _)
+        1 * builder.ignored("ABC")
+    }
+
+    def "verifies again when the content of the artifact or signature changes"() {
+        def service = service()
+
+        when:
+        service.verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+        artifact.text = "changed artifact"
+        service.verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+        signature.text = "changed signature"
+        service.verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+
+        then:
+        3 * delegate.verify(artifact, signature, _, _, _) >> { args -> args[4].ignored("ABC") }
+        3 * builder.ignored("ABC")
+    }
+
+    def "verifies again when the trusted or ignored keys change"() {
+        def service = service()
+
+        when:
+        service.verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+        service.verify(artifact, signature, ["ABC", "DEF"] as Set, [] as Set, builder)
+        service.verify(artifact, signature, ["ABC"] as Set, ["DEF"] as Set, builder)
+
+        then:
+        3 * delegate.verify(artifact, signature, _, _, _) >> { args -> args[4].ignored("ABC") }
+    }
+
+    def "verifies again when the trust configuration changes"() {
+        when:
+        service(false, keyringHash).verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+        service(true, keyringHash).verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+        service(false, Hashing.signature("other keyring")).verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+        service(false, keyringHash).verify(artifact, signature, ["ABC"] as Set, [] as Set, builder)
+
+        then:
+        3 * delegate.verify(artifact, signature, _, _, _) >> { args -> args[4].ignored("ABC") }
+        4 * builder.ignored("ABC")
+    }
+
+    private CrossBuildSignatureVerificationService service(boolean useKeyServers = false, HashCode keyringFileHash = keyringHash) {
+        IndexedCache store = Stub() {
+            getIfPresent(_) >> { List args -> entries[args[0]] }
+            put(_, _) >> { key, value -> entries[key] = value }
+        }
+        def cacheBuilder
+        cacheBuilder = Stub(CacheBuilder) {
+            withDisplayName(_) >> { cacheBuilder }
+            withLockOptions(_) >> { cacheBuilder }
+            open() >> Stub(PersistentCache) {
+                createIndexedCache(_) >> store
+            }
+        }
+        def cacheBuilderFactory = Stub(BuildScopedCacheBuilderFactory) {
+            createCacheBuilder(_) >> cacheBuilder
+        }
+        def decoratorFactory = Stub(InMemoryCacheDecoratorFactory) {
+            decorator(_, _) >> Stub(CacheDecorator)
+        }
+        def timeProvider = Stub(BuildCommencedTimeProvider) {
+            getCurrentTime() >> 0L
+        }
+        return new CrossBuildSignatureVerificationService(delegate, TestFiles.fileHasher(), cacheBuilderFactory, decoratorFactory, timeProvider, false, useKeyServers, keyringFileHash)
+    }
+}
@@ -88,7 +88,7 @@ class DependencyVerifierTest extends Specification {
         verifier.verify(checksumService, signatureVerificationService, kind, artifact, artifactFile, null, result)
 
         then:
-        1 * checksumService.md5(artifactFile) >> hashCode
+        1 * checksumService.hashes(artifactFile, ["md5"]) >> [md5: hashCode]
         1 * signatureVerificationService.getPublicKeyService()
         0 * result.failWith(_)
     }
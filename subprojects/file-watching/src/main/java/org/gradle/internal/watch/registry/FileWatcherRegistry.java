@@ -27,6 +27,7 @@
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface FileWatcherRegistry extends Closeable {
@@ -36,6 +37,13 @@ public interface FileWatcherRegistry extends Closeable {
     interface ChangeHandler {
         void handleChange(Type type, Path path);
 
+        /**
+         * Handles a batch of coalesced changes, in the order they have been received.
+         */
+        default void handleChanges(Map<Path, Type> changes) {
+            changes.forEach((path, type) -> handleChange(type, path));
+        }
+
         void stopWatchingAfterError();
     }
 
@@ -105,5 +113,7 @@ interface FileWatchingStatistics {
         boolean isUnknownEventEncountered();
         int getNumberOfReceivedEvents();
         int getNumberOfWatchedHierarchies();
+        int getNumberOfCoalescedEvents();
+        int getNumberOfInvalidatedHierarchiesAfterOverflow();
     }
 }
@@ -32,9 +32,13 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -44,7 +48,6 @@
 import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.CREATED;
 import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.INVALIDATED;
 import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.MODIFIED;
-import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.OVERFLOW;
 import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.REMOVED;
 
 public class DefaultFileWatcherRegistry implements FileWatcherRegistry {
@@ -77,49 +80,58 @@ public DefaultFileWatcherRegistry(
     private Thread createAndStartEventConsumerThread(ChangeHandler handler) {
         Thread thread = new Thread(() -> {
             LOGGER.debug("Started listening to file system change events");
+            List<FileWatchEvent> batch = new ArrayList<>();
             try {
                 while (consumeEvents) {
-                    FileWatchEvent nextEvent = fileEvents.take();
-                    if (!stopping) {
-                        nextEvent.handleEvent(new FileWatchEvent.Handler() {
-                            @Override
-                            public void handleChangeEvent(FileWatchEvent.ChangeType type, String absolutePath) {
-                                fileWatchingStatistics.eventReceived();
-                                fileWatcherUpdater.triggerWatchProbe(absolutePath);
-                                handler.handleChange(convertType(type), Paths.get(absolutePath));
-                            }
-
-                            @Override
-                            public void handleUnknownEvent(String absolutePath) {
-                                LOGGER.error("Received unknown event for {}", absolutePath);
-                                fileWatchingStatistics.unknownEventEncountered();
-                                handler.stopWatchingAfterError();
-                            }
-
-                            @Override
-                            public void handleOverflow(FileWatchEvent.OverflowType type, @Nullable String absolutePath) {
-                                if (absolutePath == null) {
-                                    LOGGER.info("Overflow detected (type: {}), invalidating all watched files", type);
-                                    fileWatcherUpdater.getWatchedFiles().visitRoots(watchedRoot ->
-                                        handler.handleChange(OVERFLOW, Paths.get(watchedRoot)));
-                                } else {
-                                    LOGGER.info("Overflow detected (type: {}) for watched path '{}', invalidating", type, absolutePath);
-                                    handler.handleChange(OVERFLOW, Paths.get(absolutePath));
+                    batch.add(fileEvents.take());
+                    fileEvents.drainTo(batch);
+                    FileWatchEventJournal journal = new FileWatchEventJournal();
+                    for (FileWatchEvent event : batch) {
+                        if (!stopping) {
+                            event.handleEvent(new FileWatchEvent.Handler() {
+                                @Override
+                                public void handleChangeEvent(FileWatchEvent.ChangeType type, String absolutePath) {
+                                    fileWatchingStatistics.eventReceived();
+                                    // Check every event for watch probes, the journal may coalesce it into an overflow of its hierarchy
+                                    fileWatcherUpdater.triggerWatchProbe(absolutePath);
+                                    journal.changed(convertType(type), absolutePath);
                                 }
-                            }
-
-                            @Override
-                            public void handleFailure(Throwable failure) {
-                                LOGGER.error("Error while receiving file changes", failure);
-                                fileWatchingStatistics.errorWhileReceivingFileChanges(failure);
-                                handler.stopWatchingAfterError();
-                            }
-
-                            @Override
-                            public void handleTerminated() {
-                                consumeEvents = false;
-                            }
-                        });
+
+                                @Override
+                                public void handleUnknownEvent(String absolutePath) {
+                                    LOGGER.error("Received unknown event for {}", absolutePath);
+                                    fileWatchingStatistics.unknownEventEncountered();
+                                    handler.stopWatchingAfterError();
+                                }
+
+                                @Override
+                                public void handleOverflow(FileWatchEvent.OverflowType type, @Nullable String absolutePath) {
+                                    if (absolutePath == null) {
+                                        LOGGER.info("Overflow detected (type: {}), invalidating all watched files", type);
+                                        fileWatcherUpdater.getWatchedFiles().visitRoots(journal::overflowed);
+                                    } else {
+                                        LOGGER.info("Overflow detected (type: {}) for watched path '{}', invalidating", type, absolutePath);
+                                        journal.overflowed(absolutePath);
+                                    }
+                                }
+
+                                @Override
+                                public void handleFailure(Throwable failure) {
+                                    LOGGER.error("Error while receiving file changes", failure);
+                                    fileWatchingStatistics.errorWhileReceivingFileChanges(failure);
+                                    handler.stopWatchingAfterError();
+                                }
+
+                                @Override
+                                public void handleTerminated() {
+                                    consumeEvents = false;
+                                }
+                            });
+                        }
+                    }
+                    batch.clear();
+                    if (!stopping && !journal.isEmpty()) {
+                        handleChanges(journal, handler);
                     }
                 }
             } catch (InterruptedException e) {
@@ -138,6 +150,13 @@ public void handleTerminated() {
         return thread;
     }
 
+    private void handleChanges(FileWatchEventJournal journal, ChangeHandler handler) {
+        Map<Path, Type> changes = new LinkedHashMap<>();
+        journal.getChanges().forEach((absolutePath, type) -> changes.put(Paths.get(absolutePath), type));
+        fileWatchingStatistics.batchHandled(journal);
+        handler.handleChanges(changes);
+    }
+
     @Override
     public boolean isWatchingAnyLocations() {
         return !fileWatcherUpdater.getWatchedFiles().isEmpty();
@@ -204,6 +223,16 @@ public int getNumberOfReceivedEvents() {
             public int getNumberOfWatchedHierarchies() {
                 return numberOfWatchedHierarchies.get();
             }
+
+            @Override
+            public int getNumberOfCoalescedEvents() {
+                return currentStatistics.getNumberOfCoalescedEvents();
+            }
+
+            @Override
+            public int getNumberOfInvalidatedHierarchiesAfterOverflow() {
+                return currentStatistics.getNumberOfInvalidatedHierarchiesAfterOverflow();
+            }
         };
     }
 
@@ -236,6 +265,8 @@ public void close() throws IOException {
     private static class MutableFileWatchingStatistics {
         private boolean unknownEventEncountered;
         private int numberOfReceivedEvents;
+        private int numberOfCoalescedEvents;
+        private int numberOfInvalidatedHierarchiesAfterOverflow;
         private Throwable errorWhileReceivingFileChanges;
 
         public Optional<Throwable> getErrorWhileReceivingFileChanges() {
@@ -250,10 +281,23 @@ public int getNumberOfReceivedEvents() {
             return numberOfReceivedEvents;
         }
 
+        public int getNumberOfCoalescedEvents() {
+            return numberOfCoalescedEvents;
+        }
+
+        public int getNumberOfInvalidatedHierarchiesAfterOverflow() {
+            return numberOfInvalidatedHierarchiesAfterOverflow;
+        }
+
         public void eventReceived() {
             numberOfReceivedEvents++;
         }
 
+        public void batchHandled(FileWatchEventJournal journal) {
+            numberOfCoalescedEvents += journal.getNumberOfCoalescedEvents();
+            numberOfInvalidatedHierarchiesAfterOverflow += journal.getNumberOfOverflowedHierarchies();
+        }
+
         public void errorWhileReceivingFileChanges(Throwable error) {
             if (errorWhileReceivingFileChanges != null) {
                 errorWhileReceivingFileChanges = error;
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.registry.impl;
+
+import org.gradle.internal.watch.registry.FileWatcherRegistry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the file events received in one batch, so they can be handled with a single update of the virtual file system.
+ *
+ * Repeated events for the same path are coalesced into the latest one.
+ * An overflow for a path replaces all the events for paths in the same hierarchy, since the whole hierarchy will be invalidated anyway.
+ */
+class FileWatchEventJournal {
+    private final Map<String, FileWatcherRegistry.Type> changes = new LinkedHashMap<>();
+    private final List<String> overflowedHierarchies = new ArrayList<>();
+    private int numberOfCoalescedEvents;
+
+    public void changed(FileWatcherRegistry.Type type, String absolutePath) {
+        if (isInOverflowedHierarchy(absolutePath)) {
+            numberOfCoalescedEvents++;
+        } else if (changes.put(absolutePath, type) != null) {
+            numberOfCoalescedEvents++;
+        }
+    }
+
+    public void overflowed(String absolutePath) {
+        if (isInOverflowedHierarchy(absolutePath)) {
+            numberOfCoalescedEvents++;
+            return;
+        }
+        Iterator<String> iterator = changes.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (isInHierarchy(iterator.next(), absolutePath)) {
+                iterator.remove();
+                numberOfCoalescedEvents++;
+            }
+        }
+        overflowedHierarchies.add(absolutePath);
+        changes.put(absolutePath, FileWatcherRegistry.Type.OVERFLOW);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * The coalesced changes, in the order the first event for each path has been received.
+     */
+    public Map<String, FileWatcherRegistry.Type> getChanges() {
+        return changes;
+    }
+
+    public int getNumberOfCoalescedEvents() {
+        return numberOfCoalescedEvents;
+    }
+
+    public int getNumberOfOverflowedHierarchies() {
+        return overflowedHierarchies.size();
+    }
+
+    private boolean isInOverflowedHierarchy(String absolutePath) {
+        for (String overflowedHierarchy : overflowedHierarchies) {
+            if (isInHierarchy(absolutePath, overflowedHierarchy)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInHierarchy(String absolutePath, String hierarchy) {
+        if (!absolutePath.startsWith(hierarchy)) {
+            return false;
+        }
+        return absolutePath.length() == hierarchy.length()
+            || hierarchy.charAt(hierarchy.length() - 1) == File.separatorChar
+            || absolutePath.charAt(hierarchy.length()) == File.separatorChar;
+    }
+}
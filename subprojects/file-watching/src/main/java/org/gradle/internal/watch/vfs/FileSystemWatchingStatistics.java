@@ -19,6 +19,8 @@
 public interface FileSystemWatchingStatistics {
     int getNumberOfReceivedEvents();
     int getNumberOfWatchedHierarchies();
+    int getNumberOfCoalescedEvents();
+    int getNumberOfInvalidatedHierarchiesAfterOverflow();
 
     int getRetainedRegularFiles();
     int getRetainedDirectories();
@@ -47,6 +47,16 @@ public int getNumberOfWatchedHierarchies() {
         return fileWatchingStatistics.getNumberOfWatchedHierarchies();
     }
 
+    @Override
+    public int getNumberOfCoalescedEvents() {
+        return fileWatchingStatistics.getNumberOfCoalescedEvents();
+    }
+
+    @Override
+    public int getNumberOfInvalidatedHierarchiesAfterOverflow() {
+        return fileWatchingStatistics.getNumberOfInvalidatedHierarchiesAfterOverflow();
+    }
+
     @Override
     public int getRetainedRegularFiles() {
         return vfsStatistics.getRetained(FileType.RegularFile);
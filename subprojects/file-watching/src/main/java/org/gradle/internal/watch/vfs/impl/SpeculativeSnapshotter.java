@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl;
+
+import org.gradle.internal.service.scopes.Scopes;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.vfs.FileSystemAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshots the locations which have been removed from the virtual file system by file system events while no build is running,
+ * so the next build finds them in the virtual file system instead of snapshotting them itself.
+ *
+ * The removed locations have been snapshotted by a previous build, so they are likely to be inputs of the next build, too.
+ * Snapshotting happens on a low priority thread and stops as soon as the next build starts.
+ * Snapshots are stored via the virtual file system, which discards snapshots of locations that changed while they were taken.
+ */
+@ServiceScope(Scopes.UserHome.class)
+public class SpeculativeSnapshotter implements Closeable {
+    public static final String DISABLED_PROPERTY = "org.gradle.internal.vfs.speculative-snapshotting.disabled";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpeculativeSnapshotter.class);
+    private static final int MAX_PENDING_LOCATIONS = 10000;
+
+    private final boolean enabled;
+    private final Object lock = new Object();
+
+    // Mutable state, guarded by lock
+    private final Set<String> pendingLocations = new LinkedHashSet<>();
+    private final Set<String> snapshottedLocations = new HashSet<>();
+    private FileSystemAccess fileSystemAccess;
+    private Thread snapshottingThread;
+    private boolean idle;
+    private boolean stopped;
+    private int numberOfDroppedLocations;
+    private int numberOfWastedSnapshots;
+    private long snapshottingTimeNanos;
+
+    public SpeculativeSnapshotter() {
+        this(!Boolean.getBoolean(DISABLED_PROPERTY));
+    }
+
+    public SpeculativeSnapshotter(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Provides the file system access used to snapshot the removed locations.
+     * Until it has been attached, no locations are snapshotted.
+     */
+    public void attach(FileSystemAccess fileSystemAccess) {
+        synchronized (lock) {
+            this.fileSystemAccess = fileSystemAccess;
+        }
+    }
+
+    /**
+     * Stops snapshotting and reports how much of the work done since the previous build is still useful.
+     */
+    public void buildStarted() {
+        synchronized (lock) {
+            idle = false;
+            int numberOfSnapshots = snapshottedLocations.size() + numberOfWastedSnapshots;
+            if (numberOfSnapshots > 0 || !pendingLocations.isEmpty()) {
+                LOGGER.info("Speculatively snapshotted {} locations in {}ms since the last build: {} retained, {} changed again, {} not snapshotted in time, {} dropped",
+                    numberOfSnapshots,
+                    TimeUnit.NANOSECONDS.toMillis(snapshottingTimeNanos),
+                    snapshottedLocations.size(),
+                    numberOfWastedSnapshots,
+                    pendingLocations.size(),
+                    numberOfDroppedLocations
+                );
+            }
+            pendingLocations.clear();
+            snapshottedLocations.clear();
+            numberOfDroppedLocations = 0;
+            numberOfWastedSnapshots = 0;
+            snapshottingTimeNanos = 0;
+        }
+    }
+
+    public void buildFinished() {
+        synchronized (lock) {
+            idle = true;
+        }
+    }
+
+    /**
+     * Schedules snapshotting the given locations, which have been removed from the virtual file system because of changes on disk.
+     */
+    public void locationsRemoved(Collection<String> absolutePaths) {
+        if (!enabled || absolutePaths.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            if (!idle || stopped || fileSystemAccess == null) {
+                return;
+            }
+            for (String absolutePath : absolutePaths) {
+                if (snapshottedLocations.remove(absolutePath)) {
+                    numberOfWastedSnapshots++;
+                }
+                if (pendingLocations.size() < MAX_PENDING_LOCATIONS) {
+                    pendingLocations.add(absolutePath);
+                } else if (!pendingLocations.contains(absolutePath)) {
+                    numberOfDroppedLocations++;
+                }
+            }
+            if (snapshottingThread == null) {
+                snapshottingThread = createAndStartSnapshottingThread();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private Thread createAndStartSnapshottingThread() {
+        Thread thread = new Thread(() -> {
+            try {
+                String location;
+                while ((location = takeNextLocation()) != null) {
+                    snapshot(location);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // stop thread
+            }
+        });
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setName("Speculative file system snapshotting");
+        thread.start();
+        return thread;
+    }
+
+    @Nullable
+    private String takeNextLocation() throws InterruptedException {
+        synchronized (lock) {
+            while (!stopped && (!idle || pendingLocations.isEmpty())) {
+                lock.wait();
+            }
+            if (stopped) {
+                return null;
+            }
+            String location = pendingLocations.iterator().next();
+            pendingLocations.remove(location);
+            return location;
+        }
+    }
+
+    private void snapshot(String location) {
+        FileSystemAccess fileSystemAccess;
+        synchronized (lock) {
+            fileSystemAccess = this.fileSystemAccess;
+        }
+        long startTime = System.nanoTime();
+        boolean snapshotted;
+        try {
+            fileSystemAccess.read(location);
+            snapshotted = true;
+        } catch (RuntimeException e) {
+            // The next build will snapshot the location again and report the problem, if it is still there
+            LOGGER.debug("Could not speculatively snapshot '{}'", location, e);
+            snapshotted = false;
+        }
+        long snapshottingTime = System.nanoTime() - startTime;
+        synchronized (lock) {
+            snapshottingTimeNanos += snapshottingTime;
+            if (snapshotted && idle) {
+                snapshottedLocations.add(location);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (lock) {
+            stopped = true;
+            pendingLocations.clear();
+            thread = snapshottingThread;
+            lock.notifyAll();
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
@@ -24,6 +24,7 @@
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationRunner;
 import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemNode;
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.vfs.impl.AbstractVirtualFileSystem;
@@ -52,8 +53,11 @@
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -67,6 +71,7 @@ public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem impleme
     private final LocationsWrittenByCurrentBuild locationsWrittenByCurrentBuild;
     private final WatchableFileSystemDetector watchableFileSystemDetector;
     private final FileChangeListeners fileChangeListeners;
+    private final SpeculativeSnapshotter speculativeSnapshotter;
     private final List<File> unsupportedFileSystems = new ArrayList<>();
     private Logger warningLogger = LOGGER;
 
@@ -85,7 +90,8 @@ public WatchingVirtualFileSystem(
         DaemonDocumentationIndex daemonDocumentationIndex,
         LocationsWrittenByCurrentBuild locationsWrittenByCurrentBuild,
         WatchableFileSystemDetector watchableFileSystemDetector,
-        FileChangeListeners fileChangeListeners
+        FileChangeListeners fileChangeListeners,
+        SpeculativeSnapshotter speculativeSnapshotter
     ) {
         super(root);
         this.watcherRegistryFactory = watcherRegistryFactory;
@@ -93,6 +99,7 @@ public WatchingVirtualFileSystem(
         this.locationsWrittenByCurrentBuild = locationsWrittenByCurrentBuild;
         this.watchableFileSystemDetector = watchableFileSystemDetector;
         this.fileChangeListeners = fileChangeListeners;
+        this.speculativeSnapshotter = speculativeSnapshotter;
     }
 
     @Override
@@ -115,6 +122,7 @@ public boolean afterBuildStarted(
         WatchLogging watchLogging,
         BuildOperationRunner buildOperationRunner
     ) {
+        speculativeSnapshotter.buildStarted();
         warningLogger = watchMode.loggerForWarnings(LOGGER);
         stateInvalidatedAtStartOfBuild = false;
         reasonForNotWatchingFiles = null;
@@ -156,6 +164,7 @@ public SnapshotHierarchy call(BuildOperationContext context) {
                             LOGGER.warn("Received {} file system events since last build while watching {} locations",
                                 statisticsSinceLastBuild.getNumberOfReceivedEvents(),
                                 statisticsSinceLastBuild.getNumberOfWatchedHierarchies());
+                            logEventProcessingStatistics(statisticsSinceLastBuild);
                             LOGGER.warn("Virtual file system retained information about {} files, {} directories and {} missing files since last build",
                                 statisticsSinceLastBuild.getRetainedRegularFiles(),
                                 statisticsSinceLastBuild.getRetainedDirectories(),
@@ -251,6 +260,7 @@ public SnapshotHierarchy call(BuildOperationContext context) {
                             LOGGER.warn("Received {} file system events during the current build while watching {} locations",
                                 statisticsDuringBuild.getNumberOfReceivedEvents(),
                                 statisticsDuringBuild.getNumberOfWatchedHierarchies());
+                            logEventProcessingStatistics(statisticsDuringBuild);
                             LOGGER.warn("Virtual file system retains information about {} files, {} directories and {} missing files until next build",
                                 statisticsDuringBuild.getRetainedRegularFiles(),
                                 statisticsDuringBuild.getRetainedDirectories(),
@@ -300,6 +310,7 @@ public BuildOperationDescriptor.Builder description() {
         }));
         // Log problems to daemon log
         warningLogger = LOGGER;
+        speculativeSnapshotter.buildFinished();
     }
 
     /**
@@ -349,6 +360,19 @@ public void handleChange(FileWatcherRegistry.Type type, Path path) {
             }
         }
 
+        @Override
+        public void handleChanges(Map<Path, FileWatcherRegistry.Type> changes) {
+            Map<Path, FileWatcherRegistry.Type> changesNotWrittenByCurrentBuild = new LinkedHashMap<>();
+            changes.forEach((path, type) -> {
+                if (!locationsWrittenByCurrentBuild.wasLocationWritten(path.toString())) {
+                    changesNotWrittenByCurrentBuild.put(path, type);
+                }
+            });
+            if (!changesNotWrittenByCurrentBuild.isEmpty()) {
+                delegate.handleChanges(changesNotWrittenByCurrentBuild);
+            }
+        }
+
         @Override
         public void stopWatchingAfterError() {
             delegate.stopWatchingAfterError();
@@ -358,9 +382,29 @@ public void stopWatchingAfterError() {
     private class InvalidateVfsChangeHandler implements FileWatcherRegistry.ChangeHandler {
         @Override
         public void handleChange(FileWatcherRegistry.Type type, Path path) {
-            updateRootUnderLock(root -> updateNotifyingListeners(
-                diffListener -> root.invalidate(path.toString(), new VfsChangeLoggingNodeDiffListener(type, path, diffListener))
-            ));
+            handleChanges(Collections.singletonMap(path, type));
+        }
+
+        @Override
+        public void handleChanges(Map<Path, FileWatcherRegistry.Type> changes) {
+            List<String> locations = new ArrayList<>(changes.size());
+            changes.keySet().forEach(path -> locations.add(path.toString()));
+            List<String> removedLocations = new ArrayList<>();
+            // Invalidate all the changed locations with a single update, so the watchers are only updated once per batch
+            updateRootUnderLock(root -> {
+                SnapshotHierarchy newRoot = updateNotifyingListeners(diffListener -> {
+                    SnapshotHierarchy result = root;
+                    for (Map.Entry<Path, FileWatcherRegistry.Type> change : changes.entrySet()) {
+                        Path path = change.getKey();
+                        SnapshotHierarchy.NodeDiffListener collectingDiffListener = new RemovedLocationsCollectingNodeDiffListener(removedLocations, diffListener);
+                        result = result.invalidate(path.toString(), new VfsChangeLoggingNodeDiffListener(change.getValue(), path, collectingDiffListener));
+                    }
+                    return result;
+                });
+                updateVersions(locations);
+                return newRoot;
+            });
+            speculativeSnapshotter.locationsRemoved(removedLocations);
         }
 
         @Override
@@ -393,6 +437,11 @@ public void handleChange(FileWatcherRegistry.Type type, Path path) {
             handlers.forEach(handler -> handler.handleChange(type, path));
         }
 
+        @Override
+        public void handleChanges(Map<Path, FileWatcherRegistry.Type> changes) {
+            handlers.forEach(handler -> handler.handleChanges(changes));
+        }
+
         @Override
         public void stopWatchingAfterError() {
             handlers.forEach(FileWatcherRegistry.ChangeHandler::stopWatchingAfterError);
@@ -431,6 +480,37 @@ private void maybeLogVfsChangeMessage() {
         }
     }
 
+    private static void logEventProcessingStatistics(FileSystemWatchingStatistics statistics) {
+        if (statistics.getNumberOfCoalescedEvents() > 0 || statistics.getNumberOfInvalidatedHierarchiesAfterOverflow() > 0) {
+            LOGGER.warn("Coalesced {} redundant file system events and invalidated {} locations after events were lost",
+                statistics.getNumberOfCoalescedEvents(),
+                statistics.getNumberOfInvalidatedHierarchiesAfterOverflow());
+        }
+    }
+
+    private static class RemovedLocationsCollectingNodeDiffListener implements SnapshotHierarchy.NodeDiffListener {
+        private final List<String> removedLocations;
+        private final SnapshotHierarchy.NodeDiffListener delegate;
+
+        public RemovedLocationsCollectingNodeDiffListener(List<String> removedLocations, SnapshotHierarchy.NodeDiffListener delegate) {
+            this.removedLocations = removedLocations;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void nodeRemoved(FileSystemNode node) {
+            if (node instanceof FileSystemLocationSnapshot) {
+                removedLocations.add(((FileSystemLocationSnapshot) node).getAbsolutePath());
+            }
+            delegate.nodeRemoved(node);
+        }
+
+        @Override
+        public void nodeAdded(FileSystemNode node) {
+            delegate.nodeAdded(node);
+        }
+    }
+
     private SnapshotHierarchy withWatcherChangeErrorHandling(SnapshotHierarchy currentRoot, Runnable runnable) {
         return withWatcherChangeErrorHandling(currentRoot, () -> {
             runnable.run();
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.registry.impl
+
+import spock.lang.Specification
+
+import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.CREATED
+import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.MODIFIED
+import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.OVERFLOW
+import static org.gradle.internal.watch.registry.FileWatcherRegistry.Type.REMOVED
+
+class FileWatchEventJournalTest extends Specification {
+    def journal = new FileWatchEventJournal()
+    def root = new File("root").absolutePath
+    def file = new File(root, "file.txt").absolutePath
+    def otherFile = new File(root, "other.txt").absolutePath
+    def sibling = new File("root-sibling/file.txt").absolutePath
+
+    def "keeps the latest event for each path in the order received"() {
+        when:
+        journal.changed(CREATED, file)
+        journal.changed(MODIFIED, otherFile)
+        journal.changed(MODIFIED, file)
+        journal.changed(REMOVED, file)
+
+        then:
+        journal.changes == [(file): REMOVED, (otherFile): MODIFIED]
+        journal.numberOfCoalescedEvents == 2
+        journal.numberOfOverflowedHierarchies == 0
+    }
+
+    def "overflow replaces events in the overflowed hierarchy"() {
+        when:
+        journal.changed(MODIFIED, file)
+        journal.changed(MODIFIED, sibling)
+        journal.overflowed(root)
+        journal.changed(CREATED, otherFile)
+        journal.overflowed(root)
+
+        then:
+        journal.changes == [(sibling): MODIFIED, (root): OVERFLOW]
+        journal.numberOfCoalescedEvents == 3
+        journal.numberOfOverflowedHierarchies == 1
+    }
+
+    def "is empty until an event is received"() {
+        expect:
+        journal.empty
+
+        when:
+        journal.changed(MODIFIED, file)
+
+        then:
+        !journal.empty
+    }
+}
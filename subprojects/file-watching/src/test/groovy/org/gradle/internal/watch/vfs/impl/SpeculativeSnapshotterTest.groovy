@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl
+
+import org.gradle.internal.vfs.FileSystemAccess
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class SpeculativeSnapshotterTest extends Specification {
+    def snapshottedLocations = new CopyOnWriteArrayList<String>()
+    def fileSystemAccess = Stub(FileSystemAccess) {
+        read(_ as String) >> { String location ->
+            snapshottedLocations.add(location)
+            return null
+        }
+    }
+    def conditions = new PollingConditions(timeout: 10)
+    def snapshotter = new SpeculativeSnapshotter(true)
+
+    def setup() {
+        snapshotter.attach(fileSystemAccess)
+    }
+
+    def cleanup() {
+        snapshotter.close()
+    }
+
+    def "snapshots removed locations once the build finished"() {
+        when:
+        snapshotter.buildFinished()
+        snapshotter.locationsRemoved(["/root/a", "/root/b", "/root/a"])
+
+        then:
+        conditions.eventually {
+            assert snapshottedLocations == ["/root/a", "/root/b"]
+        }
+    }
+
+    def "ignores locations removed during the build"() {
+        when:
+        snapshotter.buildStarted()
+        snapshotter.locationsRemoved(["/root/a"])
+        snapshotter.buildFinished()
+        snapshotter.locationsRemoved(["/root/b"])
+
+        then:
+        conditions.eventually {
+            assert snapshottedLocations == ["/root/b"]
+        }
+    }
+
+    def "does not snapshot when disabled"() {
+        def disabledSnapshotter = new SpeculativeSnapshotter(false)
+        disabledSnapshotter.attach(fileSystemAccess)
+
+        when:
+        disabledSnapshotter.buildFinished()
+        disabledSnapshotter.locationsRemoved(["/root/a"])
+        disabledSnapshotter.close()
+
+        then:
+        snapshottedLocations.empty
+    }
+}
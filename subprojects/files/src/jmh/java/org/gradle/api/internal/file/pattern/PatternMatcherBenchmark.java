@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching paths against many patterns with the combined automaton and with one matcher per pattern.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PatternMatcherBenchmark {
+    private static final String[] DIRECTORIES = {"src", "main", "test", "java", "resources", "org", "gradle", "internal", "api", "generated", "build", "tmp"};
+    private static final String[] FILES = {"Foo.java", "Bar.kt", "Baz.groovy", "data.json", "messages.properties", "Foo$1.class", "module-info.java", "README.md"};
+
+    @Param({"2", "10", "50"})
+    int patternCount;
+
+    private PatternMatcher combined;
+    private PatternMatcher individual;
+    private List<String[]> paths;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        List<String> patterns = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            switch (i % 5) {
+                case 0:
+                    patterns.add("**/" + DIRECTORIES[random.nextInt(DIRECTORIES.length)] + "/**");
+                    break;
+                case 1:
+                    patterns.add("src/*/java/**/*" + i + ".java");
+                    break;
+                case 2:
+                    patterns.add("**/*." + (i % 2 == 0 ? "class" : "properties"));
+                    break;
+                case 3:
+                    patterns.add("src/main/resources/" + DIRECTORIES[random.nextInt(DIRECTORIES.length)] + "/");
+                    break;
+                default:
+                    patterns.add("build/generated/source" + i + "/**");
+            }
+        }
+        combined = new CombinedPatternMatcher(true, true, patterns);
+        individual = null;
+        for (String pattern : patterns) {
+            PatternMatcher matcher = PatternMatcherFactory.getPatternMatcher(true, true, pattern);
+            individual = individual == null ? matcher : individual.or(matcher);
+        }
+
+        paths = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String[] segments = new String[1 + random.nextInt(8)];
+            for (int j = 0; j < segments.length - 1; j++) {
+                segments[j] = DIRECTORIES[random.nextInt(DIRECTORIES.length)];
+            }
+            segments[segments.length - 1] = FILES[random.nextInt(FILES.length)];
+            paths.add(segments);
+        }
+    }
+
+    @Benchmark
+    public void combinedMatcher(Blackhole blackhole) {
+        for (String[] path : paths) {
+            blackhole.consume(combined.test(path, true));
+        }
+    }
+
+    @Benchmark
+    public void individualMatchers(Blackhole blackhole) {
+        for (String[] path : paths) {
+            blackhole.consume(individual.test(path, true));
+        }
+    }
+}
@@ -72,5 +72,17 @@ enum ZipCompressionMethod {
      */
     boolean canReopen();
 
+    /**
+     * The CRC-32 checksum of the uncompressed content as recorded in the central directory of the archive,
+     * or -1 if it is not known without reading the content.
+     */
+    long getCrc();
+
+    /**
+     * The size of the compressed content in bytes as recorded in the central directory of the archive,
+     * or -1 if it is not known without reading the content.
+     */
+    long getCompressedSize();
+
     ZipCompressionMethod getCompressionMethod();
 }
@@ -66,6 +66,16 @@ public byte[] apply(InputStream inputStream) throws IOException {
         });
     }
 
+    @Override
+    public long getCrc() {
+        return -1;
+    }
+
+    @Override
+    public long getCompressedSize() {
+        return -1;
+    }
+
     @Override
     public ZipCompressionMethod getCompressionMethod() {
         switch (entry.getMethod()) {
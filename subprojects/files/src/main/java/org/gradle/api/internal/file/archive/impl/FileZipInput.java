@@ -120,5 +120,16 @@ private InputStream getInputStream() {
         public boolean canReopen() {
             return true;
         }
+
+        @Override
+        public long getCrc() {
+            // ZipFile reads entries from the central directory, so the checksum is always available
+            return getEntry().getCrc();
+        }
+
+        @Override
+        public long getCompressedSize() {
+            return getEntry().getCompressedSize();
+        }
     }
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches a path against many Ant-style patterns at once.
+ *
+ * The patterns are compiled into a single automaton over path segments: patterns that start with the same segments share
+ * the same states, literal segments are looked up by hash instead of being compared one by one, and each {@code **} becomes
+ * a state that consumes any number of segments. A path is matched by walking its segments once, tracking the set of states
+ * that are still alive, instead of matching it against each pattern separately.
+ *
+ * Matches exactly the same paths as combining the matchers for the individual patterns created by {@link PatternMatcherFactory#getPatternMatcher(boolean, boolean, String)}.
+ */
+public class CombinedPatternMatcher extends PatternMatcher {
+    private static final Splitter PATH_SPLITTER = Splitter.on(CharMatcher.anyOf("\\/")).omitEmptyStrings();
+    private static final String GREEDY = "**";
+
+    private final boolean partialMatchDirs;
+    private final State start;
+
+    public CombinedPatternMatcher(boolean partialMatchDirs, boolean caseSensitive, Iterable<String> patterns) {
+        this.partialMatchDirs = partialMatchDirs;
+        this.start = new State(false);
+        for (String pattern : patterns) {
+            add(pattern, caseSensitive);
+        }
+        start.compile(caseSensitive);
+    }
+
+    private void add(String pattern, boolean caseSensitive) {
+        // trailing / or \ assumes **
+        if (pattern.endsWith("/") || pattern.endsWith("\\")) {
+            pattern = pattern + GREEDY;
+        }
+        State state = start;
+        for (String part : PATH_SPLITTER.split(pattern)) {
+            if (part.equals(GREEDY)) {
+                if (!state.greedy) {
+                    state = state.greedyState();
+                }
+            } else {
+                state = state.step(part, caseSensitive);
+            }
+        }
+        state.accepting = true;
+    }
+
+    @Override
+    public boolean test(String[] segments, boolean isFile) {
+        boolean partial = !isFile && partialMatchDirs;
+        List<State> current = new ArrayList<>();
+        start.addTo(current);
+        if (segments.length == 0 && partial) {
+            // An empty directory path can lead to a match unless the only pattern is the empty pattern
+            for (State state : current) {
+                if (state.hasTransitions()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<State> next = new ArrayList<>();
+        for (String segment : segments) {
+            for (State state : current) {
+                if (state.greedy && (partial || state.accepting)) {
+                    // Any path below this one matches
+                    return true;
+                }
+                state.transition(segment, next);
+            }
+            if (next.isEmpty()) {
+                return false;
+            }
+            List<State> previous = current;
+            current = next;
+            next = previous;
+            next.clear();
+        }
+
+        if (partial) {
+            return true;
+        }
+        for (State state : current) {
+            if (state.accepting) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class State {
+        private final boolean greedy;
+        private boolean accepting;
+        private State greedyState;
+        private Map<String, State> literals;
+        private Map<String, State> wildcardsBySource;
+        private PatternStep[] wildcardSteps;
+        private State[] wildcardTargets;
+
+        State(boolean greedy) {
+            this.greedy = greedy;
+        }
+
+        State greedyState() {
+            if (greedyState == null) {
+                greedyState = new State(true);
+            }
+            return greedyState;
+        }
+
+        State step(String part, boolean caseSensitive) {
+            if (caseSensitive && CharMatcher.anyOf("*?").matchesNoneOf(part)) {
+                if (literals == null) {
+                    literals = new HashMap<>();
+                }
+                return literals.computeIfAbsent(part, p -> new State(false));
+            }
+            if (wildcardsBySource == null) {
+                wildcardsBySource = new LinkedHashMap<>();
+            }
+            return wildcardsBySource.computeIfAbsent(part, p -> new State(false));
+        }
+
+        /**
+         * Replaces the maps of wildcard steps with arrays, for this state and all states reachable from it.
+         */
+        void compile(boolean caseSensitive) {
+            List<State> pending = new ArrayList<>();
+            pending.add(this);
+            while (!pending.isEmpty()) {
+                State state = pending.remove(pending.size() - 1);
+                if (state.greedyState != null) {
+                    pending.add(state.greedyState);
+                }
+                if (state.literals != null) {
+                    pending.addAll(state.literals.values());
+                }
+                state.compileWildcards(caseSensitive, pending);
+            }
+        }
+
+        private void compileWildcards(boolean caseSensitive, List<State> pending) {
+            if (wildcardsBySource == null) {
+                return;
+            }
+            int count = wildcardsBySource.size();
+            wildcardSteps = new PatternStep[count];
+            wildcardTargets = new State[count];
+            int i = 0;
+            for (Map.Entry<String, State> entry : wildcardsBySource.entrySet()) {
+                wildcardSteps[i] = PatternStepFactory.getStep(entry.getKey(), caseSensitive);
+                wildcardTargets[i] = entry.getValue();
+                pending.add(entry.getValue());
+                i++;
+            }
+            wildcardsBySource = null;
+        }
+
+        boolean hasTransitions() {
+            return greedy || literals != null || wildcardSteps != null;
+        }
+
+        /**
+         * Adds this state and the states reachable from it without consuming a segment.
+         */
+        void addTo(List<State> states) {
+            if (!states.contains(this)) {
+                states.add(this);
+            }
+            if (greedyState != null) {
+                greedyState.addTo(states);
+            }
+        }
+
+        void transition(String segment, List<State> next) {
+            if (greedy) {
+                addTo(next);
+            }
+            if (literals != null) {
+                State target = literals.get(segment);
+                if (target != null) {
+                    target.addTo(next);
+                }
+            }
+            if (wildcardSteps != null) {
+                for (int i = 0; i < wildcardSteps.length; i++) {
+                    if (wildcardSteps[i].matches(segment)) {
+                        wildcardTargets[i].addTo(next);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "{state greedy: " + greedy + ", accepting: " + accepting + "}";
+        }
+    }
+}
@@ -19,6 +19,7 @@
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class PatternMatcherFactory {
@@ -27,14 +28,15 @@ public class PatternMatcherFactory {
     private static final Splitter PATH_SPLITTER = Splitter.on(CharMatcher.anyOf("\\/")).omitEmptyStrings();
 
     public static PatternMatcher getPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Iterable<String> patterns) {
-        PatternMatcher matcher = PatternMatcher.MATCH_ALL;
-        for (String pattern : patterns) {
-            PatternMatcher patternMatcher = getPatternMatcher(partialMatchDirs, caseSensitive, pattern);
-            matcher = matcher == PatternMatcher.MATCH_ALL
-                ? patternMatcher
-                : matcher.or(patternMatcher);
+        Iterator<String> iterator = patterns.iterator();
+        if (!iterator.hasNext()) {
+            return PatternMatcher.MATCH_ALL;
         }
-        return matcher;
+        String first = iterator.next();
+        if (!iterator.hasNext()) {
+            return getPatternMatcher(partialMatchDirs, caseSensitive, first);
+        }
+        return new CombinedPatternMatcher(partialMatchDirs, caseSensitive, patterns);
     }
 
     public static PatternMatcher getPatternMatcher(boolean partialMatchDirs, boolean caseSensitive, String pattern) {
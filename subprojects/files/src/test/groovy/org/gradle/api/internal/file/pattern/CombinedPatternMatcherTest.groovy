@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern
+
+import spock.lang.Specification
+
+class CombinedPatternMatcherTest extends Specification {
+    static final List<String> PATTERNS = [
+        "", "**", "**/", "a", "a/b", "a\\b", "a//b", "a/b/", "a/*", "*/b", "**/a", "a/**", "**/a/**", "a/**/b", "**/*.java",
+        "a/b/**/c/**", "?b*", "a*c/**", "**/**/x", "A/B"
+    ]
+    static final List<List<String>> PATHS = [
+        [], ["a"], ["b"], ["A"], ["x"], ["a", "b"], ["A", "B"], ["a", "c"], ["b", "a"], ["a", "b", "c"], ["a", "x", "b"],
+        ["abc"], ["abc", "d"], ["Foo.java"], ["src", "Foo.java"], ["a", "b", "d", "c", "e"], ["q", "r", "x"], ["q", "a", "r"]
+    ]
+
+    def "matches the same paths as the individual patterns when combining #patterns"() {
+        expect:
+        [true, false].each { partialMatchDirs ->
+            [true, false].each { caseSensitive ->
+                def combined = new CombinedPatternMatcher(partialMatchDirs, caseSensitive, patterns)
+                def individual = patterns.collect { PatternMatcherFactory.getPatternMatcher(partialMatchDirs, caseSensitive, it) }
+                PATHS.each { path ->
+                    String[] segments = path as String[]
+                    [true, false].each { isFile ->
+                        def expected = individual.any { it.test(segments, isFile) }
+                        assert combined.test(segments, isFile) == expected: "$patterns, path $path, file $isFile, partial $partialMatchDirs, case sensitive $caseSensitive"
+                    }
+                }
+            }
+        }
+
+        where:
+        patterns << PATTERNS.collect { [it] } + [PATTERNS] + (0..<PATTERNS.size() - 1).collect { PATTERNS.subList(it, it + 2) }
+    }
+
+    def "prunes directories which cannot contain matches"() {
+        def matcher = new CombinedPatternMatcher(true, true, ["src/main/**/*.java", "src/test/resources/"])
+
+        expect:
+        matcher.test([] as String[], false)
+        matcher.test(["src"] as String[], false)
+        matcher.test(["src", "main", "org"] as String[], false)
+        matcher.test(["src", "test", "resources", "data"] as String[], false)
+        !matcher.test(["build"] as String[], false)
+        !matcher.test(["src", "test", "java"] as String[], false)
+    }
+
+    def "can be created from the factory for multiple patterns"() {
+        expect:
+        PatternMatcherFactory.getPatternsMatcher(true, true, ["a", "b"]) instanceof CombinedPatternMatcher
+        PatternMatcherFactory.getPatternsMatcher(true, true, ["a"]) instanceof PatternMatcherFactory.DefaultPatternMatcher
+        PatternMatcherFactory.getPatternsMatcher(true, true, []) == PatternMatcher.MATCH_ALL
+    }
+}
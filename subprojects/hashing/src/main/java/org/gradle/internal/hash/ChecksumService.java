@@ -19,6 +19,9 @@
 import org.gradle.internal.service.scopes.ServiceScope;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @ServiceScope(Scopes.BuildSession.class)
 public interface ChecksumService {
@@ -31,4 +34,18 @@ public interface ChecksumService {
     HashCode sha512(File file);
 
     HashCode hash(File src, String algorithm);
+
+    /**
+     * Calculates the hashes of the given file with each of the given algorithms.
+     * Implementations should read the file at most once, regardless of how many hashes are missing.
+     *
+     * @return the hashes, keyed by the requested algorithm names, in the order they were requested
+     */
+    default Map<String, HashCode> hashes(File src, Collection<String> algorithms) {
+        Map<String, HashCode> hashes = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            hashes.put(algorithm, hash(src, algorithm));
+        }
+        return hashes;
+    }
 }
@@ -1,5 +1,6 @@
 plugins {
     id("gradlebuild.distribution.api-java")
+    id("gradlebuild.jmh")
 }
 
 description = "Plugins and domain objects for building different native languages"
@@ -12,6 +13,7 @@ dependencies {
     implementation(project(":core-api"))
     implementation(project(":model-core"))
     implementation(project(":core"))
+    implementation(project(":execution"))
     implementation(project(":files"))
     implementation(project(":file-collections"))
     implementation(project(":file-temp"))
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing the preprocessor directives of headers shaped like those of large native code bases:
+ * long license comments, include guards, a few includes and macros, and mostly declarations and inline code.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    private final RegexBackedCSourceParser parser = new RegexBackedCSourceParser();
+    private List<String> headers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        headers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            headers.add(header(i, 200 + i * 100));
+        }
+    }
+
+    private static String header(int index, int declarations) {
+        StringBuilder header = new StringBuilder();
+        header.append("/*\n");
+        for (int i = 0; i < 20; i++) {
+            header.append(" * Distributed under the License, Version 1.0. See the accompanying file LICENSE_1_0.txt\n");
+        }
+        header.append(" */\n");
+        header.append("#ifndef LIBRARY_HEADER_").append(index).append("_HPP\n");
+        header.append("#define LIBRARY_HEADER_").append(index).append("_HPP\n\n");
+        header.append("#include <library/config.hpp>\n");
+        header.append("#include \"detail/header_").append(index).append("_impl.hpp\"\n");
+        header.append("#include LIBRARY_PLATFORM_HEADER(platform.hpp)\n\n");
+        header.append("#define LIBRARY_PLATFORM_HEADER(name) <library/platform/name>\n\n");
+        header.append("namespace library {\n");
+        for (int i = 0; i < declarations; i++) {
+            header.append("    /// Returns the value of the given element, see \"Elements\" in the documentation\n");
+            header.append("    template <typename T, typename Alloc = std::allocator<T> >\n");
+            header.append("    inline const T& element_").append(i).append("(const container<T, Alloc>& c, std::size_t i) { return c.data()[i]; } /* inline */\n");
+            if (i % 50 == 0) {
+                header.append("#if defined(LIBRARY_HAS_FEATURE_").append(i).append(")\n");
+                header.append("#  define LIBRARY_FEATURE_").append(i).append(" 1\n");
+                header.append("#endif\n");
+            }
+        }
+        header.append("} // namespace library\n\n");
+        header.append("#endif // LIBRARY_HEADER_").append(index).append("_HPP\n");
+        return header.toString();
+    }
+
+    @Benchmark
+    public void parseDirectives(Blackhole blackhole) throws IOException {
+        for (String header : headers) {
+            blackhole.consume(parser.parseSource(new StringReader(header)));
+        }
+    }
+
+    @Benchmark
+    public void readAllLines(Blackhole blackhole) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (String header : headers) {
+            PreprocessingReader reader = new PreprocessingReader(new StringReader(header));
+            while (reader.readNextLine(line)) {
+                blackhole.consume(line.length());
+                line.setLength(0);
+            }
+        }
+    }
+}
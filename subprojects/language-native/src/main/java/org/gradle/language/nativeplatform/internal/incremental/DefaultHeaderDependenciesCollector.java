@@ -18,9 +18,6 @@
 
 import com.google.common.collect.ImmutableSortedSet;
 import org.gradle.api.NonNullApi;
-import org.gradle.api.file.EmptyFileVisitor;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,10 +29,10 @@
 @NonNullApi
 public class DefaultHeaderDependenciesCollector implements HeaderDependenciesCollector {
     private final Logger logger = LoggerFactory.getLogger(DefaultHeaderDependenciesCollector.class);
-    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final IncludeResolutionCache cache;
 
-    public DefaultHeaderDependenciesCollector(DirectoryFileTreeFactory directoryFileTreeFactory) {
-        this.directoryFileTreeFactory = directoryFileTreeFactory;
+    public DefaultHeaderDependenciesCollector(IncludeResolutionCache cache) {
+        this.cache = cache;
     }
 
     @Override
@@ -54,12 +51,7 @@ public ImmutableSortedSet<File> collectExistingHeaderDependencies(String taskPat
     private void addIncludeRoots(String taskPath, List<File> includeRoots, final Set<File> headerDependencies) {
         for (final File includeRoot : includeRoots) {
             logger.info("adding files in {} to header dependencies for {}", includeRoot, taskPath);
-            directoryFileTreeFactory.create(includeRoot).visit(new EmptyFileVisitor() {
-                @Override
-                public void visitFile(FileVisitDetails fileDetails) {
-                    headerDependencies.add(fileDetails.getFile());
-                }
-            });
+            headerDependencies.addAll(cache.getFilesIn(includeRoot));
         }
     }
 }
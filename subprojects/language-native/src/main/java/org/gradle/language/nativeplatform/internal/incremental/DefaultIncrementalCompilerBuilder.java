@@ -20,7 +20,6 @@
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.TaskOutputsInternal;
 import org.gradle.api.internal.file.TaskFileVarFactory;
-import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.MinimalFileSet;
 import org.gradle.api.internal.tasks.properties.LifecycleAwareValue;
 import org.gradle.api.provider.Provider;
@@ -48,7 +47,7 @@ public class DefaultIncrementalCompilerBuilder implements IncrementalCompilerBui
     private final CompilationStateCacheFactory compilationStateCacheFactory;
     private final CSourceParser sourceParser;
     private final Deleter deleter;
-    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final IncludeResolutionCache includeResolutionCache;
     private final FileSystemAccess fileSystemAccess;
     private final TaskFileVarFactory fileVarFactory;
 
@@ -57,14 +56,14 @@ public DefaultIncrementalCompilerBuilder(
         CompilationStateCacheFactory compilationStateCacheFactory,
         CSourceParser sourceParser,
         Deleter deleter,
-        DirectoryFileTreeFactory directoryFileTreeFactory,
+        IncludeResolutionCache includeResolutionCache,
         FileSystemAccess fileSystemAccess,
         TaskFileVarFactory fileVarFactory
     ) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.compilationStateCacheFactory = compilationStateCacheFactory;
         this.deleter = deleter;
-        this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.includeResolutionCache = includeResolutionCache;
         this.fileSystemAccess = fileSystemAccess;
         this.fileVarFactory = fileVarFactory;
         this.sourceParser = sourceParser;
@@ -82,7 +81,7 @@ public IncrementalCompiler newCompiler(TaskInternal task, FileCollection sourceF
             compilationStateCacheFactory,
             sourceParser,
             deleter,
-            directoryFileTreeFactory,
+            includeResolutionCache,
             fileSystemAccess,
             fileVarFactory
         );
@@ -93,7 +92,7 @@ private static class StateCollectingIncrementalCompiler implements IncrementalCo
         private final CompilationStateCacheFactory compilationStateCacheFactory;
         private final CSourceParser sourceParser;
         private final Deleter deleter;
-        private final DirectoryFileTreeFactory directoryFileTreeFactory;
+        private final IncludeResolutionCache includeResolutionCache;
         private final FileSystemAccess fileSystemAccess;
 
         private final Map<String, String> macros;
@@ -117,7 +116,7 @@ private static class StateCollectingIncrementalCompiler implements IncrementalCo
             CompilationStateCacheFactory compilationStateCacheFactory,
             CSourceParser sourceParser,
             Deleter deleter,
-            DirectoryFileTreeFactory directoryFileTreeFactory,
+            IncludeResolutionCache includeResolutionCache,
             FileSystemAccess fileSystemAccess,
             TaskFileVarFactory fileVarFactory
         ) {
@@ -132,7 +131,7 @@ private static class StateCollectingIncrementalCompiler implements IncrementalCo
             this.buildOperationExecutor = buildOperationExecutor;
             this.compilationStateCacheFactory = compilationStateCacheFactory;
             this.deleter = deleter;
-            this.directoryFileTreeFactory = directoryFileTreeFactory;
+            this.includeResolutionCache = includeResolutionCache;
             this.fileSystemAccess = fileSystemAccess;
             this.sourceParser = sourceParser;
         }
@@ -150,13 +149,13 @@ public Set<File> getFiles() {
             List<File> includeRoots = ImmutableList.copyOf(includeDirs);
             compileStateCache = compilationStateCacheFactory.create(taskPath);
             DefaultSourceIncludesParser sourceIncludesParser = new DefaultSourceIncludesParser(sourceParser, importAware.get());
-            DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(includeRoots, fileSystemAccess);
+            DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(includeRoots, includeResolutionCache);
             IncludeDirectives includeDirectives = directivesForMacros(macros);
             IncrementalCompileFilesFactory incrementalCompileFilesFactory = new IncrementalCompileFilesFactory(includeDirectives, sourceIncludesParser, dependencyParser, fileSystemAccess);
             IncrementalCompileProcessor incrementalCompileProcessor = new IncrementalCompileProcessor(compileStateCache, incrementalCompileFilesFactory, buildOperationExecutor);
 
             incrementalCompilation = incrementalCompileProcessor.processSourceFiles(sourceFiles.getFiles());
-            DefaultHeaderDependenciesCollector headerDependenciesCollector = new DefaultHeaderDependenciesCollector(directoryFileTreeFactory);
+            DefaultHeaderDependenciesCollector headerDependenciesCollector = new DefaultHeaderDependenciesCollector(includeResolutionCache);
             return headerDependenciesCollector.collectExistingHeaderDependencies(taskPath, includeRoots, incrementalCompilation);
         }
 
@@ -34,26 +34,25 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private static final MissingIncludeFile MISSING_INCLUDE_FILE = new MissingIncludeFile();
-    private final FileSystemAccess fileSystemAccess;
-    private final Map<File, DirectoryContents> includeRoots = new HashMap<File, DirectoryContents>();
+    private final IncludeResolutionCache cache;
     private final FixedIncludePath includePath;
 
-    public DefaultSourceIncludesResolver(List<File> includePaths, FileSystemAccess fileSystemAccess) {
-        this.fileSystemAccess = fileSystemAccess;
+    public DefaultSourceIncludesResolver(List<File> includePaths, IncludeResolutionCache cache) {
+        this.cache = cache;
         List<DirectoryContents> includeDirs = new ArrayList<DirectoryContents>(includePaths.size());
         for (File includeDir : includePaths) {
-            includeDirs.add(toDir(includeDir));
+            includeDirs.add(cache.getDirectory(includeDir));
         }
-        this.includePath = new FixedIncludePath(includeDirs);
+        this.includePath = new FixedIncludePath(includeDirs, cache.getSearchPathLookups(includePaths));
     }
 
     @Override
@@ -258,22 +257,13 @@ public IncludeFile resolveInclude(@Nullable File sourceFile, String includePath)
         return path.searchForDependency(includePath, sourceFile != null);
     }
 
-    private DirectoryContents toDir(File includeDir) {
-        DirectoryContents directoryContents = includeRoots.get(includeDir);
-        if (directoryContents == null) {
-            directoryContents = new DirectoryContents(includeDir);
-            includeRoots.put(includeDir, directoryContents);
-        }
-        return directoryContents;
-    }
-
     private IncludePath prependSourceDir(File sourceFile, FixedIncludePath includePaths) {
         File sourceDir = sourceFile.getParentFile();
         if (includePaths.startsWith(sourceDir)) {
             // Source dir already at the start of the path, just use the include path
             return includePaths;
         }
-        return new PrefixedIncludePath(toDir(sourceDir), includePaths);
+        return new PrefixedIncludePath(cache.getDirectory(sourceDir), includePaths);
     }
 
     private static abstract class IncludePath {
@@ -303,16 +293,19 @@ IncludeFile searchForDependency(String includePath, boolean quotedPath) {
 
     private static class FixedIncludePath extends IncludePath {
         private final List<DirectoryContents> directories;
-        private final Map<String, CachedIncludeFile> cachedLookups = new HashMap<String, CachedIncludeFile>();
+        private final Map<String, CachedIncludeFile> cachedLookups;
 
-        FixedIncludePath(List<DirectoryContents> directories) {
+        FixedIncludePath(List<DirectoryContents> directories, Map<String, CachedIncludeFile> cachedLookups) {
             this.directories = directories;
+            this.cachedLookups = cachedLookups;
         }
 
         @Nullable
         @Override
         IncludeFile searchForDependency(String includePath, boolean quotedPath) {
-            CachedIncludeFile includeFile = cachedLookups.get(includePath);
+            // Lookups of paths that may point outside the search path are only cached per directory
+            boolean shared = !DirectoryContents.mayEscape(includePath);
+            CachedIncludeFile includeFile = shared ? cachedLookups.get(includePath) : null;
             if (includeFile == null) {
                 for (DirectoryContents dir : directories) {
                     includeFile = dir.get(includePath);
@@ -323,7 +316,9 @@ IncludeFile searchForDependency(String includePath, boolean quotedPath) {
                 if (includeFile == null) {
                     includeFile = MISSING_INCLUDE_FILE;
                 }
-                cachedLookups.put(includePath, includeFile);
+                if (shared) {
+                    cachedLookups.put(includePath, includeFile);
+                }
             }
             if (includeFile.getType() == FileType.RegularFile) {
                 return includeFile.toIncludeFile(quotedPath);
@@ -336,15 +331,21 @@ public boolean startsWith(File sourceDir) {
         }
     }
 
-    private class DirectoryContents {
+    static class DirectoryContents {
         private final File searchDir;
-        private final Map<String, CachedIncludeFile> contents = new HashMap<String, CachedIncludeFile>();
+        private final FileSystemAccess fileSystemAccess;
+        private final Map<String, CachedIncludeFile> contents = new ConcurrentHashMap<String, CachedIncludeFile>();
+        private volatile boolean escaped;
 
-        DirectoryContents(File searchDir) {
+        DirectoryContents(File searchDir, FileSystemAccess fileSystemAccess) {
             this.searchDir = searchDir;
+            this.fileSystemAccess = fileSystemAccess;
         }
 
         CachedIncludeFile get(String includePath) {
+            if (!escaped && mayEscape(includePath)) {
+                escaped = true;
+            }
             return contents.computeIfAbsent(includePath,
                 key -> {
                     File candidate = normalizeIncludePath(searchDir, includePath);
@@ -353,9 +354,23 @@ CachedIncludeFile get(String includePath) {
                         .orElse(MISSING_INCLUDE_FILE);
                 });
         }
+
+        /**
+         * Checks whether a change to any of the given paths may affect the lookups made in this directory.
+         */
+        boolean isAffectedBy(Iterable<String> changedPaths) {
+            if (escaped) {
+                return changedPaths.iterator().hasNext();
+            }
+            return IncludeResolutionCache.isAffected(searchDir, changedPaths);
+        }
+
+        static boolean mayEscape(String includePath) {
+            return includePath.contains("..");
+        }
     }
 
-    private File normalizeIncludePath(File searchDir, String prefixPath) {
+    private static File normalizeIncludePath(File searchDir, String prefixPath) {
         boolean onlyDotsSinceLastSeparator = true;
         for (int i = 0; i < prefixPath.length(); i++) {
             char currentChar = prefixPath.charAt(i);
@@ -373,7 +388,7 @@ private File normalizeIncludePath(File searchDir, String prefixPath) {
         return new File(searchDir, prefixPath);
     }
 
-    private static abstract class CachedIncludeFile {
+    static abstract class CachedIncludeFile {
         abstract FileType getType();
 
         abstract IncludeFile toIncludeFile(boolean quotedPath);
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.internal.execution.OutputChangeListener;
+import org.gradle.internal.service.scopes.ListenerService;
+import org.gradle.internal.vfs.FileSystemAccess;
+import org.gradle.language.nativeplatform.internal.incremental.DefaultSourceIncludesResolver.CachedIncludeFile;
+import org.gradle.language.nativeplatform.internal.incremental.DefaultSourceIncludesResolver.DirectoryContents;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the probes made while resolving include files, so that native compile tasks which share include directories
+ * don't look up the same files again. The cache is shared by all tasks of the build. Whenever task outputs change,
+ * the lookups in directories affected by the change are discarded, the same way as the virtual file system is updated.
+ */
+@ListenerService
+public class IncludeResolutionCache implements OutputChangeListener {
+    private final FileSystemAccess fileSystemAccess;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final ConcurrentMap<File, DirectoryContents> directories = new ConcurrentHashMap<>();
+    private final ConcurrentMap<List<File>, Map<String, CachedIncludeFile>> searchPathLookups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<File, Set<File>> filesInIncludeRoots = new ConcurrentHashMap<>();
+
+    public IncludeResolutionCache(FileSystemAccess fileSystemAccess, DirectoryFileTreeFactory directoryFileTreeFactory) {
+        this.fileSystemAccess = fileSystemAccess;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+    }
+
+    /**
+     * Returns the lookups made in the given directory.
+     */
+    DirectoryContents getDirectory(File directory) {
+        return directories.computeIfAbsent(directory, key -> new DirectoryContents(key, fileSystemAccess));
+    }
+
+    /**
+     * Returns the lookups made on the given search path.
+     */
+    Map<String, CachedIncludeFile> getSearchPathLookups(List<File> searchPath) {
+        return searchPathLookups.computeIfAbsent(searchPath, key -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Returns all files in the given include root.
+     */
+    public Set<File> getFilesIn(File includeRoot) {
+        return filesInIncludeRoots.computeIfAbsent(includeRoot, key -> {
+            ImmutableSet.Builder<File> files = ImmutableSet.builder();
+            directoryFileTreeFactory.create(key).visit(new EmptyFileVisitor() {
+                @Override
+                public void visitFile(FileVisitDetails fileDetails) {
+                    files.add(fileDetails.getFile());
+                }
+            });
+            return files.build();
+        });
+    }
+
+    @Override
+    public void invalidateCachesFor(Iterable<String> affectedOutputPaths) {
+        directories.values().removeIf(directory -> directory.isAffectedBy(affectedOutputPaths));
+        searchPathLookups.keySet().removeIf(searchPath -> {
+            for (File directory : searchPath) {
+                if (isAffected(directory, affectedOutputPaths)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        filesInIncludeRoots.keySet().removeIf(includeRoot -> isAffected(includeRoot, affectedOutputPaths));
+    }
+
+    /**
+     * Checks whether any of the given paths is the given directory, is located in it, or contains it.
+     */
+    static boolean isAffected(File directory, Iterable<String> affectedPaths) {
+        String directoryPath = directory.getAbsolutePath();
+        for (String affectedPath : affectedPaths) {
+            if (isSameOrAncestor(directoryPath, affectedPath) || isSameOrAncestor(affectedPath, directoryPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameOrAncestor(String ancestor, String path) {
+        if (!path.startsWith(ancestor)) {
+            return false;
+        }
+        return path.length() == ancestor.length()
+            || path.charAt(ancestor.length()) == File.separatorChar
+            || ancestor.endsWith(File.separator);
+    }
+}
@@ -36,6 +36,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class IncrementalCompileFilesFactory {
 
@@ -66,6 +67,7 @@ private class DefaultIncrementalCompileSourceProcessor implements IncrementalCom
         private final List<File> toRecompile = new ArrayList<File>();
         private final Set<File> existingHeaders = new HashSet<File>();
         private final Map<File, FileDetails> visitedFiles = new HashMap<File, FileDetails>();
+        private final Map<File, IncludeDirectives> parsedSources = new ConcurrentHashMap<File, IncludeDirectives>();
         private boolean hasUnresolvedHeaders;
 
         DefaultIncrementalCompileSourceProcessor(CompilationState previousCompileState) {
@@ -77,6 +79,27 @@ public IncrementalCompilation getResult() {
             return new DefaultIncrementalCompilation(current.snapshot(), toRecompile, getRemovedSources(), existingHeaders, hasUnresolvedHeaders);
         }
 
+        @Override
+        public Collection<File> getChangedSources(Collection<File> sourceFiles) {
+            List<File> changed = new ArrayList<File>();
+            for (File sourceFile : sourceFiles) {
+                SourceFileState previousState = previous.getState(sourceFile);
+                boolean unchanged = fileSystemAccess.readRegularFileContentHash(sourceFile.getAbsolutePath())
+                    .map(fileContent -> previousState != null && fileContent.equals(previousState.getHash()))
+                    // Skip things that aren't files
+                    .orElse(true);
+                if (!unchanged) {
+                    changed.add(sourceFile);
+                }
+            }
+            return changed;
+        }
+
+        @Override
+        public void parseSource(File sourceFile) {
+            parsedSources.put(sourceFile, sourceIncludesParser.parseIncludes(sourceFile));
+        }
+
         @Override
         public void processSource(File sourceFile) {
             if (visitSourceFile(sourceFile)) {
@@ -174,7 +197,10 @@ private FileVisitResult visitFile(File file, HashCode newHash, CollectingMacroLo
             }
 
             if (fileDetails == null) {
-                IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
+                IncludeDirectives includeDirectives = parsedSources.remove(file);
+                if (includeDirectives == null) {
+                    includeDirectives = sourceIncludesParser.parseIncludes(file);
+                }
                 fileDetails = new FileDetails(includeDirectives);
                 visitedFiles.put(file, fileDetails);
             }
@@ -15,14 +15,18 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import org.gradle.cache.ObjectHolder;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.List;
 
 public class IncrementalCompileProcessor {
     private final ObjectHolder<CompilationState> previousCompileStateCache;
@@ -35,12 +39,18 @@ public IncrementalCompileProcessor(ObjectHolder<CompilationState> previousCompil
         this.buildOperationExecutor = buildOperationExecutor;
     }
 
+    /**
+     * The number of changed source files parsed by each build operation.
+     */
+    private static final int PARSE_BATCH_SIZE = 20;
+
     public IncrementalCompilation processSourceFiles(final Collection<File> sourceFiles) {
         return buildOperationExecutor.call(new CallableBuildOperation<IncrementalCompilation>() {
             @Override
             public IncrementalCompilation call(BuildOperationContext context) {
                 CompilationState previousCompileState = previousCompileStateCache.get();
                 IncrementalCompileSourceProcessor processor = incrementalCompileFilesFactory.files(previousCompileState);
+                parseChangedSources(processor, sourceFiles);
                 for (File sourceFile : sourceFiles) {
                     processor.processSource(sourceFile);
                 }
@@ -55,6 +65,21 @@ public BuildOperationDescriptor.Builder description() {
                     .details(operationDetails);
             }
 
+            /**
+             * Parses the sources which have changed concurrently, so that only the include graph has to be processed one file at a time.
+             */
+            private void parseChangedSources(IncrementalCompileSourceProcessor processor, Collection<File> sourceFiles) {
+                List<File> changedSources = ImmutableList.copyOf(processor.getChangedSources(sourceFiles));
+                if (changedSources.size() < 2) {
+                    return;
+                }
+                buildOperationExecutor.runAll(queue -> {
+                    for (List<File> batch : Lists.partition(changedSources, PARSE_BATCH_SIZE)) {
+                        queue.add(new ParseSourceFiles(processor, batch));
+                    }
+                });
+            }
+
             class ProcessSourceFilesDetails {
                 private final int sourceFileCount;
 
@@ -69,4 +94,25 @@ public int getSourceFileCount() {
         });
     }
 
+    private static class ParseSourceFiles implements RunnableBuildOperation {
+        private final IncrementalCompileSourceProcessor processor;
+        private final List<File> sourceFiles;
+
+        ParseSourceFiles(IncrementalCompileSourceProcessor processor, List<File> sourceFiles) {
+            this.processor = processor;
+            this.sourceFiles = sourceFiles;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            for (File sourceFile : sourceFiles) {
+                processor.parseSource(sourceFile);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Parse " + sourceFiles.size() + " source files");
+        }
+    }
 }
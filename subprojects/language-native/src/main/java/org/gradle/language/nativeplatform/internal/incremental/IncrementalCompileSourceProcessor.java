@@ -17,8 +17,19 @@
 package org.gradle.language.nativeplatform.internal.incremental;
 
 import java.io.File;
+import java.util.Collection;
 
 public interface IncrementalCompileSourceProcessor {
+    /**
+     * Returns those of the given source files which are new or have changed since the previous compilation, and so will need to be parsed.
+     */
+    Collection<File> getChangedSources(Collection<File> sourceFiles);
+
+    /**
+     * Parses the given source file ahead of processing it. May be called concurrently for different source files, but not concurrently with {@link #processSource(File)}.
+     */
+    void parseSource(File sourceFile);
+
     void processSource(File sourceFile);
 
     IncrementalCompilation getResult();
@@ -24,6 +24,12 @@
  */
 public class PreprocessingReader {
     private final Reader reader;
+    /**
+     * Characters read from the reader in bulk, so that characters don't need to be read from the reader one at a time.
+     */
+    private final char[] chars = new char[8192];
+    private int charsPos;
+    private int charsLength;
     /**
      * The read-ahead characters, used for reading ahead up to 2 characters and pushing back into stream.
      * A value of -1 indicates that no character is in the buffer.
@@ -71,6 +77,53 @@ public boolean readNextLine(Appendable buffer) throws IOException {
         return read;
     }
 
+    /**
+     * Collects the next preprocessor directive line from the filtered stream into the given buffer, starting at the {@code #} character.
+     * Lines that do not start with a {@code #} after any whitespace are skipped without being collected. Does not include the line separators.
+     *
+     * @return true if a directive line is available, false when end of stream reached.
+     */
+    public boolean readNextDirectiveLine(StringBuilder buffer) throws IOException {
+        while (true) {
+            int ch = read();
+            while (ch >= 0 && !isEndOfLine(ch) && isWhitespace(ch)) {
+                ch = read();
+            }
+            if (ch == '#') {
+                buffer.append('#');
+                while ((ch = read()) >= 0 && !isEndOfLine(ch)) {
+                    buffer.append((char) ch);
+                }
+                consumeEndOfLine(ch);
+                return true;
+            }
+            while (ch >= 0 && !isEndOfLine(ch)) {
+                ch = read();
+            }
+            if (ch < 0) {
+                return false;
+            }
+            consumeEndOfLine(ch);
+        }
+    }
+
+    private static boolean isEndOfLine(int ch) {
+        return ch == '\n' || ch == '\r';
+    }
+
+    private static boolean isWhitespace(int ch) {
+        return Character.isWhitespace(ch) || ch == 0;
+    }
+
+    private void consumeEndOfLine(int ch) throws IOException {
+        if (ch == '\r') {
+            int next = next();
+            if (next != '\n') {
+                pushBack(next);
+            }
+        }
+    }
+
     /**
      * Returns the next character in the filtered stream:
      * <ul>
@@ -153,7 +206,18 @@ private int next() throws IOException {
             return ch;
         }
 
-        return reader.read();
+        if (charsPos == charsLength) {
+            int read;
+            do {
+                read = reader.read(chars);
+            } while (read == 0);
+            if (read < 0) {
+                return -1;
+            }
+            charsPos = 0;
+            charsLength = read;
+        }
+        return chars[charsPos++];
     }
 
     private void pushBack(int ch) {
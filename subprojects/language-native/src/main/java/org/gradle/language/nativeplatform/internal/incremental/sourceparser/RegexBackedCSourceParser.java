@@ -28,7 +28,6 @@
 import org.gradle.language.nativeplatform.internal.MacroFunction;
 
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
@@ -58,18 +57,15 @@ protected IncludeDirectives parseSource(Reader sourceReader) throws IOException
         Set<Include> includes = Sets.newLinkedHashSet();
         List<Macro> macros = Lists.newArrayList();
         List<MacroFunction> macroFunctions = Lists.newArrayList();
-        BufferedReader reader = new BufferedReader(sourceReader);
-        PreprocessingReader lineReader = new PreprocessingReader(reader);
+        PreprocessingReader lineReader = new PreprocessingReader(sourceReader);
         Buffer buffer = new Buffer();
         while (true) {
             buffer.reset();
-            if (!lineReader.readNextLine(buffer.value)) {
+            // Only lines starting with '#' are collected, all other lines are skipped by the reader
+            if (!lineReader.readNextDirectiveLine(buffer.value)) {
                 break;
             }
-            buffer.consumeWhitespace();
-            if (!buffer.consume('#')) {
-                continue;
-            }
+            buffer.consume('#');
             buffer.consumeWhitespace();
             if (buffer.consume("define")) {
                 parseDefineDirectiveBody(buffer, macros, macroFunctions);
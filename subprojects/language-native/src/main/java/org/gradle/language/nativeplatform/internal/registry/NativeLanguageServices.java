@@ -22,6 +22,7 @@
 import org.gradle.language.internal.DefaultNativeComponentFactory;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultCompilationStateCacheFactory;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultIncrementalCompilerBuilder;
+import org.gradle.language.nativeplatform.internal.incremental.IncludeResolutionCache;
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CachingCSourceParser;
 import org.gradle.language.nativeplatform.internal.toolchains.DefaultToolChainSelector;
 
@@ -30,6 +31,7 @@ public class NativeLanguageServices extends AbstractPluginServiceRegistry {
     public void registerGradleServices(ServiceRegistration registration) {
         registration.add(DefaultCompilationStateCacheFactory.class);
         registration.add(CachingCSourceParser.class);
+        registration.add(IncludeResolutionCache.class);
     }
 
     @Override
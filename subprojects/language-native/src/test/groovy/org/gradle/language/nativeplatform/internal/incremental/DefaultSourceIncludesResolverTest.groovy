@@ -53,7 +53,7 @@ class DefaultSourceIncludesResolverTest extends Specification {
     def resolve(Include include) {
         def macros = new CollectingMacroLookup()
         macros.append(sourceFile, included)
-        return new DefaultSourceIncludesResolver(includePaths, fileSystemAccess).resolveInclude(sourceFile, include, macros)
+        return new DefaultSourceIncludesResolver(includePaths, new IncludeResolutionCache(fileSystemAccess, TestFiles.directoryFileTreeFactory())).resolveInclude(sourceFile, include, macros)
     }
 
     def "ignores system include file that does not exist"() {
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.vfs.FileSystemAccess
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class IncludeResolutionCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def fileSystemAccess = Mock(FileSystemAccess)
+    def cache = new IncludeResolutionCache(fileSystemAccess, TestFiles.directoryFileTreeFactory())
+    def sdkDir = temporaryFolder.createDir("sdk")
+    def otherDir = temporaryFolder.createDir("other")
+    def header = sdkDir.file("sdk.h")
+    def hash = HashCode.fromString("0123456789abcdef")
+
+    def "shares lookups between resolvers with the same include path"() {
+        when:
+        def first = new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "sdk.h")
+        def second = new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "sdk.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(header.absolutePath) >> Optional.of(hash)
+        0 * fileSystemAccess._
+        first.file == header
+        second.file == header
+    }
+
+    def "shares lookups between resolvers with different include paths"() {
+        when:
+        def first = new DefaultSourceIncludesResolver([otherDir, sdkDir], cache).resolveInclude(null, "sdk.h")
+        def second = new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "sdk.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(otherDir.file("sdk.h").absolutePath) >> Optional.empty()
+        1 * fileSystemAccess.readRegularFileContentHash(header.absolutePath) >> Optional.of(hash)
+        0 * fileSystemAccess._
+        first.file == header
+        second.file == header
+    }
+
+    def "discards lookups in directories affected by changed outputs"() {
+        given:
+        def otherHeader = otherDir.file("other.h")
+        def resolver = new DefaultSourceIncludesResolver([sdkDir, otherDir], cache)
+
+        when:
+        resolver.resolveInclude(null, "sdk.h")
+        resolver.resolveInclude(null, "other.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(header.absolutePath) >> Optional.of(hash)
+        1 * fileSystemAccess.readRegularFileContentHash(sdkDir.file("other.h").absolutePath) >> Optional.empty()
+        1 * fileSystemAccess.readRegularFileContentHash(otherHeader.absolutePath) >> Optional.of(hash)
+
+        when:
+        cache.invalidateCachesFor([otherDir.file("generated.h").absolutePath])
+        def sdkHeader = new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "sdk.h")
+        def other = new DefaultSourceIncludesResolver([otherDir], cache).resolveInclude(null, "other.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(otherHeader.absolutePath) >> Optional.empty()
+        0 * fileSystemAccess._
+        sdkHeader.file == header
+        other == null
+    }
+
+    def "discards lookups in directories contained in changed outputs"() {
+        when:
+        new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "sdk.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(header.absolutePath) >> Optional.of(hash)
+
+        when:
+        cache.invalidateCachesFor([temporaryFolder.testDirectory.absolutePath])
+        new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "sdk.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(header.absolutePath) >> Optional.of(hash)
+    }
+
+    def "discards lookups that leave the directory when any output changes"() {
+        given:
+        def parentHeader = temporaryFolder.testDirectory.file("parent.h")
+
+        when:
+        new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "../parent.h")
+        new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "../parent.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(parentHeader.absolutePath) >> Optional.empty()
+        0 * fileSystemAccess._
+
+        when:
+        cache.invalidateCachesFor([parentHeader.absolutePath])
+        def resolved = new DefaultSourceIncludesResolver([sdkDir], cache).resolveInclude(null, "../parent.h")
+
+        then:
+        1 * fileSystemAccess.readRegularFileContentHash(parentHeader.absolutePath) >> Optional.of(hash)
+        resolved.file == parentHeader
+    }
+
+    def "collects files in include root once until it changes"() {
+        given:
+        header.createFile()
+        def nested = sdkDir.createFile("sys/types.h")
+
+        expect:
+        cache.getFilesIn(sdkDir) == [header, nested] as Set
+        cache.getFilesIn(sdkDir).is(cache.getFilesIn(sdkDir))
+
+        when:
+        def added = sdkDir.createFile("added.h")
+        cache.invalidateCachesFor([otherDir.absolutePath])
+
+        then:
+        cache.getFilesIn(sdkDir) == [header, nested] as Set
+
+        when:
+        cache.invalidateCachesFor([added.absolutePath])
+
+        then:
+        cache.getFilesIn(sdkDir) == [header, nested, added] as Set
+    }
+}
@@ -150,4 +150,46 @@ line comments.
         "inline comment" | "/* inline comment at the start */of the line" | " of the line"
         "line continuation" | "${BN} at the start of the content" | " at the start of the content"
     }
+
+    def "reads only directive lines"() {
+        def reader = new PreprocessingReader(new StringReader(text.replace('\n', eol)))
+        def lines = []
+        def line = new StringBuilder()
+        while (reader.readNextDirectiveLine(line)) {
+            lines << line.toString()
+            line.setLength(0)
+        }
+
+        expect:
+        lines == ["#include <a.h>", "# define X \"b.h\"", "#import <c.h>  ", "#"]
+
+        where:
+        eol << ["\n", "\r", "\r\n"]
+        text = """int a; // #include <ignored.h>
+#include <a.h>
+  /* comment */ # define X "b.h"
+not a #directive
+/* #include <ignored.h>
+*/ #import <c.h> /* trailing */
+    \t
+#"""
+    }
+
+    def "reads directive lines larger than the read buffer"() {
+        def longLine = "#define X " + ("a" * 20000)
+        def reader = new PreprocessingReader(new StringReader(("b" * 10000) + "\n" + longLine + "\n#include <a.h>"))
+        def line = new StringBuilder()
+
+        expect:
+        reader.readNextDirectiveLine(line)
+        line.toString() == longLine
+
+        when:
+        line.setLength(0)
+
+        then:
+        reader.readNextDirectiveLine(line)
+        line.toString() == "#include <a.h>"
+        !reader.readNextDirectiveLine(line)
+    }
 }
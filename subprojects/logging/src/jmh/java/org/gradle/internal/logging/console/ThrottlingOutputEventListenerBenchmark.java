@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.console;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.logging.events.EndOutputEvent;
+import org.gradle.internal.logging.events.LogEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.logging.events.ProgressEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.time.Time;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of output events sent to the console pipeline from many worker threads.
+ */
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ThrottlingOutputEventListenerBenchmark {
+    private final AtomicLong operationIds = new AtomicLong();
+    private ThrottlingOutputEventListener listener;
+
+    @State(Scope.Thread)
+    public static class WorkerState {
+        OperationIdentifier operationId;
+        LogEvent logEvent;
+        ProgressEvent progressEvent;
+
+        @Setup(Level.Trial)
+        public void setup(ThrottlingOutputEventListenerBenchmark benchmark) {
+            operationId = new OperationIdentifier(benchmark.operationIds.incrementAndGet());
+            logEvent = new LogEvent(0, "category", LogLevel.INFO, "Test output from a worker", null, operationId);
+            progressEvent = new ProgressEvent(operationId, "3 tests completed", false);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        OutputEventListener console = event -> {
+        };
+        listener = new ThrottlingOutputEventListener(console, 100, Executors.newSingleThreadScheduledExecutor(), Time.clock());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        listener.onOutput(new EndOutputEvent());
+    }
+
+    @Benchmark
+    public void logEvents(WorkerState worker) {
+        listener.onOutput(worker.logEvent);
+    }
+
+    @Benchmark
+    public void progressEvents(WorkerState worker) {
+        listener.onOutput(worker.progressEvent);
+    }
+}
@@ -20,22 +20,36 @@
 import org.gradle.internal.logging.events.FlushOutputEvent;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.logging.events.ProgressCompleteEvent;
+import org.gradle.internal.logging.events.ProgressEvent;
 import org.gradle.internal.logging.events.UpdateNowEvent;
+import org.gradle.internal.operations.OperationIdentifier;
 import org.gradle.internal.time.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Queue output events to be forwarded and schedule flush when time passed or if end of build is signalled.
+ *
+ * Producers only append to a lock-free queue. Events are forwarded by whichever thread triggers a render, one render at a time.
+ * Progress events of an operation that are followed by a newer progress event of the same operation in the same batch are not forwarded,
+ * since only the latest status is displayed.
  */
 public class ThrottlingOutputEventListener implements OutputEventListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(ThrottlingOutputEventListener.class);
+    private static final int MAX_QUEUED_EVENTS = 10000;
 
     private final OutputEventListener listener;
 
@@ -44,7 +58,10 @@ public class ThrottlingOutputEventListener implements OutputEventListener {
     private final int throttleMs;
     private final Object lock = new Object();
 
-    private final List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Events taken from the queue but not yet forwarded, guarded by lock
+    private final Deque<OutputEvent> pending = new ArrayDeque<OutputEvent>();
 
     public ThrottlingOutputEventListener(OutputEventListener listener, Clock clock) {
         this(listener, Integer.getInteger("org.gradle.internal.console.throttle", 100), Executors.newSingleThreadScheduledExecutor(), clock);
@@ -75,34 +92,54 @@ public void run() {
 
     @Override
     public void onOutput(OutputEvent newEvent) {
-        synchronized (lock) {
-            queue.add(newEvent);
+        queue.add(newEvent);
+        int queuedEvents = queued.incrementAndGet();
 
-            if (queue.size() == 10000 || newEvent instanceof UpdateNowEvent) {
-                renderNow();
-                return;
-            }
+        if (queuedEvents >= MAX_QUEUED_EVENTS || newEvent instanceof UpdateNowEvent || newEvent instanceof FlushOutputEvent) {
+            renderNow();
+            return;
+        }
 
-            if (newEvent instanceof FlushOutputEvent) {
-                renderNow();
-                return;
-            }
+        if (newEvent instanceof EndOutputEvent) {
+            // Flush and clean up
+            renderNow();
+            executor.shutdown();
+        }
 
-            if (newEvent instanceof EndOutputEvent) {
-                // Flush and clean up
-                renderNow();
-                executor.shutdown();
-            }
+        // Else, wait for the next update event
+    }
 
-            // Else, wait for the next update event
+    private void renderNow() {
+        synchronized (lock) {
+            OutputEvent event;
+            while ((event = queue.poll()) != null) {
+                queued.decrementAndGet();
+                pending.add(event);
+            }
+            coalesceProgress();
+            // Remove event only as it is handled, and leave unhandled events for the next render
+            while (!pending.isEmpty()) {
+                listener.onOutput(pending.peekFirst());
+                pending.removeFirst();
+            }
         }
     }
 
-    private void renderNow() {
-        // Remove event only as it is handled, and leave unhandled events in the queue
-        while (!queue.isEmpty()) {
-            OutputEvent event = queue.remove(0);
-            listener.onOutput(event);
+    private void coalesceProgress() {
+        Set<OperationIdentifier> laterProgress = null;
+        Iterator<OutputEvent> iterator = pending.descendingIterator();
+        while (iterator.hasNext()) {
+            OutputEvent event = iterator.next();
+            if (event instanceof ProgressEvent) {
+                if (laterProgress == null) {
+                    laterProgress = new HashSet<OperationIdentifier>();
+                }
+                if (!laterProgress.add(((ProgressEvent) event).getProgressOperationId())) {
+                    iterator.remove();
+                }
+            } else if (event instanceof ProgressCompleteEvent && laterProgress != null) {
+                laterProgress.remove(((ProgressCompleteEvent) event).getProgressOperationId());
+            }
         }
     }
 }
@@ -18,8 +18,12 @@ package org.gradle.internal.logging.console
 import org.gradle.internal.logging.OutputSpecification
 import org.gradle.internal.logging.events.EndOutputEvent
 import org.gradle.internal.logging.events.FlushOutputEvent
+import org.gradle.internal.logging.events.LogEvent
 import org.gradle.internal.logging.events.OutputEventListener
+import org.gradle.internal.logging.events.ProgressCompleteEvent
+import org.gradle.internal.logging.events.ProgressEvent
 import org.gradle.internal.logging.events.UpdateNowEvent
+import org.gradle.internal.operations.OperationIdentifier
 import org.gradle.internal.time.Clock
 import org.gradle.internal.time.MockClock
 import org.gradle.util.internal.MockExecutor
@@ -119,6 +123,74 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
         10_000 * listener.onOutput(_)
     }
 
+    def "forwards only the latest queued progress of an operation"() {
+        def op1 = new OperationIdentifier(1)
+        def op2 = new OperationIdentifier(2)
+        def progress1 = new ProgressEvent(op1, "1 of 3", false)
+        def progress2 = new ProgressEvent(op2, "other", false)
+        def progress3 = new ProgressEvent(op1, "2 of 3", false)
+        def log = event('message')
+        def progress4 = new ProgressEvent(op1, "3 of 3", true)
+        def flush = new FlushOutputEvent()
+
+        when:
+        [progress1, progress2, progress3, log, progress4, flush].each { renderer.onOutput(it) }
+
+        then:
+        1 * listener.onOutput(progress2)
+
+        then:
+        1 * listener.onOutput(log)
+
+        then:
+        1 * listener.onOutput(progress4)
+
+        then:
+        1 * listener.onOutput(flush)
+        0 * _
+    }
+
+    def "does not coalesce progress across completion of an operation"() {
+        def op1 = new OperationIdentifier(1)
+        def progress = new ProgressEvent(op1, "running", false)
+        def complete = new ProgressCompleteEvent(op1, 0, "done", false)
+        def flush = new FlushOutputEvent()
+
+        when:
+        [progress, complete, flush].each { renderer.onOutput(it) }
+
+        then:
+        1 * listener.onOutput(progress)
+
+        then:
+        1 * listener.onOutput(complete)
+
+        then:
+        1 * listener.onOutput(flush)
+        0 * _
+    }
+
+    def "forwards events from many threads in order per thread"() {
+        def received = []
+        def renderer = new ThrottlingOutputEventListener({ received << it } as OutputEventListener, 100, executor, clock)
+        def threads = 8
+        def eventsPerThread = 5000
+
+        when:
+        (0..<threads).collect { thread ->
+            Thread.start {
+                eventsPerThread.times { renderer.onOutput(event("$thread:$it")) }
+            }
+        }*.join()
+        renderer.onOutput(new FlushOutputEvent())
+
+        then:
+        received.size() == threads * eventsPerThread + 1
+        (0..<threads).each { thread ->
+            assert received.findAll { it instanceof LogEvent && it.message.startsWith("$thread:") }*.message == (0..<eventsPerThread).collect { "$thread:$it" }
+        }
+    }
+
     def "background flush does nothing when events already flushed"() {
         def event1 = event('1')
         def event2 = event('2')
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.api.internal.file.archive.ZipEntry;
+import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher;
+import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext;
+import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContextHasher;
+import org.gradle.internal.fingerprint.hashing.ZipEntryContext;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.io.IoFunction;
+import org.gradle.internal.io.IoSupplier;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.ZipFile;
+
+/**
+ * Measures the ABI hashing throughput per class, with and without the class hash cache.
+ * The classes of the ASM library are used as a realistic sample of compile classpath entries.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class AbiHashingBenchmark {
+    private final List<ZipEntryContext> classes = new ArrayList<>();
+    private AbiExtractingClasspathResourceHasher uncachedHasher;
+    private AbiExtractingClasspathResourceHasher cachedHasher;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File asmJar = new File(ClassReader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        try (ZipFile zipFile = new ZipFile(asmJar)) {
+            Enumeration<? extends java.util.zip.ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                java.util.zip.ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                        classes.add(new InMemoryZipEntryContext(entry.getName(), ByteStreams.toByteArray(inputStream)));
+                    }
+                }
+            }
+        }
+        uncachedHasher = AbiExtractingClasspathResourceHasher.DEFAULT;
+        cachedHasher = AbiExtractingClasspathResourceHasher.DEFAULT.withClassHashCache(new InMemoryResourceSnapshotterCacheService());
+        for (ZipEntryContext clazz : classes) {
+            cachedHasher.hash(clazz);
+        }
+    }
+
+    @Benchmark
+    public void extractAbi(Blackhole blackhole) throws IOException {
+        blackhole.consume(uncachedHasher.hash(nextClass()));
+    }
+
+    @Benchmark
+    public void lookupCachedAbi(Blackhole blackhole) throws IOException {
+        blackhole.consume(cachedHasher.hash(nextClass()));
+    }
+
+    private ZipEntryContext nextClass() {
+        ZipEntryContext next = classes.get(index);
+        index = (index + 1) % classes.size();
+        return next;
+    }
+
+    private static class InMemoryResourceSnapshotterCacheService implements ResourceSnapshotterCacheService {
+        private static final HashCode NO_HASH = Hashing.signature("no hash");
+        private final Map<HashCode, HashCode> cache = new ConcurrentHashMap<>();
+
+        @Override
+        public HashCode hashFile(FileSystemLocationSnapshot snapshot, FileSystemLocationSnapshotHasher hasher, HashCode configurationHash) throws IOException {
+            return hasher.hash(snapshot);
+        }
+
+        @Override
+        public HashCode hashFile(RegularFileSnapshotContext fileSnapshotContext, RegularFileSnapshotContextHasher hasher, HashCode configurationHash) throws IOException {
+            return hasher.hash(fileSnapshotContext);
+        }
+
+        @Nullable
+        @Override
+        public HashCode hashContent(HashCode contentHash, IoSupplier<HashCode> hasher, HashCode configurationHash) throws IOException {
+            Hasher keyHasher = Hashing.newHasher();
+            keyHasher.putHash(configurationHash);
+            keyHasher.putHash(contentHash);
+            HashCode key = keyHasher.hash();
+            HashCode result = cache.get(key);
+            if (result == null) {
+                result = hasher.get();
+                cache.put(key, result == null ? NO_HASH : result);
+            }
+            return NO_HASH.equals(result) ? null : result;
+        }
+    }
+
+    private static class InMemoryZipEntryContext implements ZipEntryContext, ZipEntry {
+        private final String name;
+        private final byte[] content;
+
+        InMemoryZipEntryContext(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        @Override
+        public ZipEntry getEntry() {
+            return this;
+        }
+
+        @Override
+        public String getFullName() {
+            return name;
+        }
+
+        @Override
+        public String getRootParentName() {
+            return "asm.jar";
+        }
+
+        @Override
+        public Supplier<String[]> getRelativePathSegments() {
+            return () -> name.split("/");
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public byte[] getContent() {
+            return content;
+        }
+
+        @Override
+        public <T> T withInputStream(IoFunction<InputStream, T> action) throws IOException {
+            return action.apply(new ByteArrayInputStream(content));
+        }
+
+        @Override
+        public int size() {
+            return content.length;
+        }
+
+        @Override
+        public boolean canReopen() {
+            return true;
+        }
+
+        @Override
+        public long getCrc() {
+            return -1;
+        }
+
+        @Override
+        public long getCompressedSize() {
+            return -1;
+        }
+
+        @Override
+        public ZipCompressionMethod getCompressionMethod() {
+            return ZipCompressionMethod.DEFLATED;
+        }
+    }
+}
@@ -42,18 +42,39 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
 
     private final ApiClassExtractor extractor;
     private final FallbackStrategy fallbackStrategy;
+    @Nullable
+    private final ResourceSnapshotterCacheService classHashCache;
+    @Nullable
+    private final HashCode configurationHash;
 
-    private AbiExtractingClasspathResourceHasher(ApiClassExtractor extractor, FallbackStrategy fallbackStrategy) {
+    private AbiExtractingClasspathResourceHasher(ApiClassExtractor extractor, FallbackStrategy fallbackStrategy, @Nullable ResourceSnapshotterCacheService classHashCache) {
         this.extractor = extractor;
         this.fallbackStrategy = fallbackStrategy;
+        this.classHashCache = classHashCache;
+        if (classHashCache != null) {
+            Hasher hasher = Hashing.newHasher();
+            appendConfigurationToHasher(hasher);
+            this.configurationHash = hasher.hash();
+        } else {
+            this.configurationHash = null;
+        }
     }
 
     public static AbiExtractingClasspathResourceHasher withFallback(ApiClassExtractor extractor) {
-        return new AbiExtractingClasspathResourceHasher(extractor, FallbackStrategy.FULL_HASH);
+        return new AbiExtractingClasspathResourceHasher(extractor, FallbackStrategy.FULL_HASH, null);
     }
 
     public static AbiExtractingClasspathResourceHasher withoutFallback(ApiClassExtractor extractor) {
-        return new AbiExtractingClasspathResourceHasher(extractor, FallbackStrategy.NONE);
+        return new AbiExtractingClasspathResourceHasher(extractor, FallbackStrategy.NONE, null);
+    }
+
+    /**
+     * Returns a hasher which caches the ABI hash of each class in a ZIP file by the hash of the class' content.
+     * When a ZIP file changes, only the classes that actually changed need to have their ABI extracted again.
+     * Classes in directories are already cached by their file hash via {@link CachingResourceHasher}.
+     */
+    public AbiExtractingClasspathResourceHasher withClassHashCache(ResourceSnapshotterCacheService classHashCache) {
+        return new AbiExtractingClasspathResourceHasher(extractor, fallbackStrategy, classHashCache);
     }
 
     @Nullable
@@ -95,7 +116,15 @@ public HashCode hash(ZipEntryContext zipEntryContext) throws IOException {
 
         // If there is a problem with hashing the public api of the zip entry, use a fallback strategy (if available) to
         // calculate a fallback hash for the entry
-        return fallbackStrategy.handle(new ZipEntryContent(zipEntry.getName(), content), entry -> hashClassBytes(content));
+        return fallbackStrategy.handle(new ZipEntryContent(zipEntry.getName(), content), entry -> hashClassBytesWithCache(content));
+    }
+
+    @Nullable
+    private HashCode hashClassBytesWithCache(byte[] classBytes) throws IOException {
+        if (classHashCache == null) {
+            return hashClassBytes(classBytes);
+        }
+        return classHashCache.hashContent(Hashing.hashBytes(classBytes), () -> hashClassBytes(classBytes), configurationHash);
     }
 
     private boolean isNotClassFile(String name) {
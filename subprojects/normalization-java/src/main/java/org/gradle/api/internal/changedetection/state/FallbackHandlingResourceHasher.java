@@ -160,6 +160,16 @@ public boolean canReopen() {
             return true;
         }
 
+        @Override
+        public long getCrc() {
+            return delegate.getCrc();
+        }
+
+        @Override
+        public long getCompressedSize() {
+            return delegate.getCompressedSize();
+        }
+
         @Override
         public ZipCompressionMethod getCompressionMethod() {
             return delegate.getCompressionMethod();
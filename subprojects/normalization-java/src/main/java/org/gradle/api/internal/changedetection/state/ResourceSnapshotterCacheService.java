@@ -20,6 +20,7 @@
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContextHasher;
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.io.IoSupplier;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 
 import javax.annotation.Nullable;
@@ -31,4 +32,12 @@ public interface ResourceSnapshotterCacheService {
 
     @Nullable
     HashCode hashFile(RegularFileSnapshotContext fileSnapshotContext, RegularFileSnapshotContextHasher hasher, HashCode configurationHash) throws IOException;
+
+    /**
+     * Hashes a resource which is not backed by a file on its own, like an entry of a ZIP file,
+     * caching the result by the hash of its content.
+     * Since the key does not depend on where the resource comes from, the result can be shared by all files containing the same resource.
+     */
+    @Nullable
+    HashCode hashContent(HashCode contentHash, IoSupplier<HashCode> hasher, HashCode configurationHash) throws IOException;
 }
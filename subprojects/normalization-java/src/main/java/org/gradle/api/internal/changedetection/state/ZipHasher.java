@@ -59,19 +59,40 @@ public static boolean isZipFile(final String name) {
     private final ResourceHasher resourceHasher;
     private final ZipHasher fallbackZipHasher;
     private final HashingExceptionReporter hashingExceptionReporter;
+    @Nullable
+    private final ResourceSnapshotterCacheService entryHashCache;
+    private final HashCode resourceHasherConfigurationHash;
 
     public ZipHasher(ResourceHasher resourceHasher) {
+        this(resourceHasher, null);
+    }
+
+    public ZipHasher(ResourceHasher resourceHasher, @Nullable ResourceSnapshotterCacheService entryHashCache) {
         this(
             resourceHasher,
             null,
-            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e)
+            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e),
+            entryHashCache
         );
     }
 
     public ZipHasher(ResourceHasher resourceHasher, @Nullable ZipHasher fallbackZipHasher, HashingExceptionReporter hashingExceptionReporter) {
+        this(resourceHasher, fallbackZipHasher, hashingExceptionReporter, null);
+    }
+
+    /**
+     * @param entryHashCache when present, the normalized hash of each entry is memoised by the entry's path, size and CRC-32 from the central directory,
+     * so that entries which did not change in a rebuilt archive don't need to be read again.
+     */
+    public ZipHasher(ResourceHasher resourceHasher, @Nullable ZipHasher fallbackZipHasher, HashingExceptionReporter hashingExceptionReporter, @Nullable ResourceSnapshotterCacheService entryHashCache) {
         this.resourceHasher = resourceHasher;
         this.fallbackZipHasher = fallbackZipHasher;
         this.hashingExceptionReporter = hashingExceptionReporter;
+        this.entryHashCache = entryHashCache;
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(getClass().getName());
+        resourceHasher.appendConfigurationToHasher(hasher);
+        this.resourceHasherConfigurationHash = hasher.hash();
     }
 
     @Nullable
@@ -133,12 +154,38 @@ private void fingerprintZipEntries(String parentName, String rootParentName, Lis
     }
 
     private void fingerprintZipEntry(ZipEntryContext zipEntryContext, List<FileSystemLocationFingerprint> fingerprints) throws IOException {
-        HashCode hash = resourceHasher.hash(zipEntryContext);
+        HashCode hash = hashZipEntry(zipEntryContext);
         if (hash != null) {
             fingerprints.add(new DefaultFileSystemLocationFingerprint(zipEntryContext.getFullName(), FileType.RegularFile, hash));
         }
     }
 
+    /**
+     * Hashes the entry, reusing the hash of an entry with the same path, compression method, uncompressed and compressed sizes and CRC-32
+     * hashed before. All of these are read from the central directory, so the content of unchanged entries is not read again.
+     *
+     * Two entries with different content would need to agree on all of these to be confused. The CRC-32 detects any change of up to
+     * 32 consecutive bits, and other changes leave it the same with a chance of one in 2^32, in which case the compressed size of a
+     * deflated entry very likely still differs. Such a collision is accepted as being far less likely than other reasons for a stale build.
+     */
+    @Nullable
+    private HashCode hashZipEntry(ZipEntryContext zipEntryContext) throws IOException {
+        ZipEntry zipEntry = zipEntryContext.getEntry();
+        long crc = zipEntry.getCrc();
+        int size = zipEntry.size();
+        long compressedSize = zipEntry.getCompressedSize();
+        if (entryHashCache == null || crc == -1 || size < 0 || compressedSize < 0) {
+            return resourceHasher.hash(zipEntryContext);
+        }
+        Hasher entryKey = Hashing.newHasher();
+        entryKey.putString(zipEntryContext.getFullName());
+        entryKey.putString(zipEntry.getCompressionMethod().name());
+        entryKey.putLong(crc);
+        entryKey.putInt(size);
+        entryKey.putLong(compressedSize);
+        return entryHashCache.hashContent(entryKey.hash(), () -> resourceHasher.hash(zipEntryContext), resourceHasherConfigurationHash);
+    }
+
     private DefaultFileSystemLocationFingerprint newZipMarker(String relativePath) {
         return new DefaultFileSystemLocationFingerprint(relativePath, FileType.RegularFile, EMPTY_HASH_MARKER);
     }
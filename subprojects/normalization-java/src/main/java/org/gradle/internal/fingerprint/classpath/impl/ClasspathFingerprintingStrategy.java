@@ -110,12 +110,12 @@ public static ClasspathFingerprintingStrategy runtimeClasspath(
         LineEndingSensitivity lineEndingSensitivity
     ) {
         ResourceHasher resourceHasher = runtimeClasspathResourceHasher(runtimeClasspathResourceHasher, lineEndingSensitivity, propertiesFileFilters, manifestAttributeResourceEntryFilter, classpathResourceFilter);
-        ZipHasher zipHasher = new ZipHasher(resourceHasher);
+        ZipHasher zipHasher = new ZipHasher(resourceHasher, cacheService);
         return new ClasspathFingerprintingStrategy(CLASSPATH_IDENTIFIER, USE_FILE_HASH, resourceHasher, zipHasher, cacheService, stringInterner);
     }
 
     public static ClasspathFingerprintingStrategy compileClasspath(ResourceHasher classpathResourceHasher, ResourceSnapshotterCacheService cacheService, Interner<String> stringInterner) {
-        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher);
+        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher, cacheService);
         return new ClasspathFingerprintingStrategy(COMPILE_CLASSPATH_IDENTIFIER, IGNORE, classpathResourceHasher, zipHasher, cacheService, stringInterner);
     }
 
@@ -126,8 +126,8 @@ public static ClasspathFingerprintingStrategy compileClasspathFallbackToRuntimeC
         Interner<String> stringInterner,
         ZipHasher.HashingExceptionReporter hashingExceptionReporter
     ) {
-        ZipHasher fallbackZipHasher = new ZipHasher(runtimeClasspathResourceHasher);
-        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher, fallbackZipHasher, hashingExceptionReporter);
+        ZipHasher fallbackZipHasher = new ZipHasher(runtimeClasspathResourceHasher, cacheService);
+        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher, fallbackZipHasher, hashingExceptionReporter, cacheService);
         return new ClasspathFingerprintingStrategy(COMPILE_CLASSPATH_IDENTIFIER, IGNORE, classpathResourceHasher, zipHasher, cacheService, stringInterner);
     }
 
@@ -155,6 +155,30 @@ class AbiExtractingClasspathResourceHasherTest extends Specification {
         e.message == "Boom!"
     }
 
+    def "caches abi hash of zip entries by class content when class hash cache is used"() {
+        def apiClassExtractor = Mock(ApiClassExtractor)
+        def classHashCache = Mock(ResourceSnapshotterCacheService)
+        def cachedHash = Hashing.signature("cached")
+
+        def resourceHasher = AbiExtractingClasspathResourceHasher.withFallback(apiClassExtractor).withClassHashCache(classHashCache)
+        def zipEntryContext = Mock(ZipEntryContext)
+        def zipEntry = Mock(ZipEntry)
+        def classContent = bytesOf(String.class)
+
+        when:
+        def hash = resourceHasher.hash(zipEntryContext)
+
+        then:
+        1 * zipEntryContext.getEntry() >> zipEntry
+        _ * zipEntry.getName() >> 'String.class'
+        1 * zipEntry.getContent() >> classContent
+        1 * classHashCache.hashContent(Hashing.hashBytes(classContent), _, configurationHashOf(resourceHasher)) >> cachedHash
+        0 * apiClassExtractor.extractApiClassFrom(_)
+
+        and:
+        hash == cachedHash
+    }
+
     private static HashCode configurationHashOf(ConfigurableNormalizer normalizer) {
         def hasher = Hashing.md5().newHasher()
         normalizer.appendConfigurationToHasher(hasher)
@@ -222,6 +222,16 @@ class LineEndingNormalizingResourceHasherTest extends Specification {
                 return !unsafe
             }
 
+            @Override
+            long getCrc() {
+                return -1
+            }
+
+            @Override
+            long getCompressedSize() {
+                return -1
+            }
+
             @Override
             ZipEntry.ZipCompressionMethod getCompressionMethod() {
                 return ZipEntry.ZipCompressionMethod.DEFLATED
@@ -484,6 +484,16 @@ class MetaInfAwareClasspathResourceHasherTest extends Specification {
                 return !unsafe
             }
 
+            @Override
+            long getCrc() {
+                return -1
+            }
+
+            @Override
+            long getCompressedSize() {
+                return -1
+            }
+
             @Override
             ZipEntry.ZipCompressionMethod getCompressionMethod() {
                 return ZipEntry.ZipCompressionMethod.DEFLATED
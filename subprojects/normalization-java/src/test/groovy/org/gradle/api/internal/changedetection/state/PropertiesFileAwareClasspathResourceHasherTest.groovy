@@ -382,6 +382,16 @@ class PropertiesFileAwareClasspathResourceHasherTest extends Specification {
                 return !unsafe
             }
 
+            @Override
+            long getCrc() {
+                return -1
+            }
+
+            @Override
+            long getCompressedSize() {
+                return -1
+            }
+
             @Override
             ZipEntry.ZipCompressionMethod getCompressionMethod() {
                 return ZipEntry.ZipCompressionMethod.DEFLATED
@@ -21,7 +21,10 @@ import org.gradle.internal.file.FileMetadata.AccessType
 import org.gradle.internal.file.impl.DefaultFileMetadata
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext
 import org.gradle.internal.fingerprint.hashing.ResourceHasher
+import org.gradle.internal.fingerprint.hashing.ZipEntryContext
+import org.gradle.internal.hash.HashCode
 import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.io.IoSupplier
 import org.gradle.internal.snapshot.RegularFileSnapshot
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -148,6 +151,36 @@ class ZipHasherTest extends Specification {
         hash1 == hash2
     }
 
+    def "reuses the hashes of unchanged entries when an archive changes"() {
+        given:
+        def entryHashes = [:]
+        def entryHashCache = Stub(ResourceSnapshotterCacheService) {
+            hashContent(_, _, _) >> { HashCode key, IoSupplier<HashCode> hasher, HashCode configurationHash ->
+                entryHashes.computeIfAbsent(key) { hasher.get() }
+            }
+        }
+        def resourceHasher = Spy(RuntimeClasspathResourceHasher)
+        def memoisingZipHasher = new ZipHasher(resourceHasher, entryHashCache)
+        def content = tmpDir.createDir("content")
+        content.file("unchanged.txt") << "unchanged"
+        content.file("changed.txt") << "before"
+        def jar = tmpDir.file("lib.jar")
+        content.zipTo(jar)
+        memoisingZipHasher.hash(snapshotContext(jar))
+
+        when:
+        content.file("changed.txt").text = "after"
+        content.zipTo(jar)
+        def hash = memoisingZipHasher.hash(snapshotContext(jar))
+
+        then:
+        1 * resourceHasher.hash({ it instanceof ZipEntryContext && it.fullName == "changed.txt" })
+        0 * resourceHasher.hash({ it instanceof ZipEntryContext && it.fullName == "unchanged.txt" })
+
+        and:
+        hash == new ZipHasher(new RuntimeClasspathResourceHasher()).hash(snapshotContext(jar))
+    }
+
     def createJarWithAttributes(TestFile jarfile, Map<String, String> attributes) {
         def manifest = new Manifest()
         def mainAttributes = manifest.getMainAttributes()
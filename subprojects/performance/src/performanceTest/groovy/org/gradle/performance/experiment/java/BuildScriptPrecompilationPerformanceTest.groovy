@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.java
+
+import org.gradle.configuration.project.BuildScriptPrecompiler
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.annotations.RunFor
+import org.gradle.performance.annotations.Scenario
+import org.gradle.performance.fixture.GradleBuildExperimentSpec
+import org.gradle.profiler.mutations.AbstractCleanupMutator
+import org.gradle.profiler.mutations.ClearGradleUserHomeMutator
+
+import static org.gradle.performance.annotations.ScenarioType.PER_WEEK
+import static org.gradle.performance.results.OperatingSystem.LINUX
+
+@RunFor(
+    @Scenario(type = PER_WEEK, operatingSystems = [LINUX], testProjects = ["largeJavaMultiProject"])
+)
+class BuildScriptPrecompilationPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    def "first use with and without precompiled build scripts"() {
+        given:
+        runner.testGroup = "build script compilation"
+        runner.buildSpec {
+            displayName("precompiled build scripts")
+        }
+        runner.baseline {
+            displayName("build scripts compiled on evaluation")
+            invocation {
+                args("-D${BuildScriptPrecompiler.PRECOMPILE_BUILD_SCRIPTS.systemPropertyName}=false")
+            }
+        }
+
+        when:
+        def results = runner.run()
+
+        then:
+        results
+    }
+
+    @Override
+    protected void defaultSpec(GradleBuildExperimentSpec.GradleBuilder builder) {
+        super.defaultSpec(builder)
+        builder.warmUpCount = 2
+        builder.invocationCount = 5
+        // Start each build with an empty script cache
+        builder.addBuildMutator { invocationSettings ->
+            new ClearGradleUserHomeMutator(invocationSettings.gradleUserHome, AbstractCleanupMutator.CleanupSchedule.BUILD)
+        }
+        builder.invocation {
+            tasksToRun("help")
+            useDaemon(false)
+        }
+    }
+}
@@ -41,6 +41,8 @@
 import org.gradle.internal.id.RandomLongIdGenerator;
 import org.gradle.internal.io.ExponentialBackoff;
 import org.gradle.internal.io.IOQuery;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.util.internal.GFileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -133,6 +135,9 @@ private class DefaultFileLock extends AbstractFileAccess implements FileLock {
         private LockState lockState;
         private final int port;
         private final long lockId;
+        private int failedAttempts;
+        private int releaseRequests;
+        private volatile Timer heldTimer;
 
         public DefaultFileLock(File target, LockOptions options, String displayName, String operationDisplayName, int port, Action<FileLockReleasedSignal> whenContended) throws Throwable {
             this.port = port;
@@ -159,7 +164,11 @@ public DefaultFileLock(File target, LockOptions options, String displayName, Str
             lockFileAccess = new LockFileAccess(lockFile, new LockStateAccess(stateProtocol));
             try {
                 if (whenContended != null) {
-                    fileLockContentionHandler.start(lockId, whenContended);
+                    fileLockContentionHandler.start(lockId, signal -> {
+                        Timer timer = heldTimer;
+                        LOGGER.info("Releasing lock on {} requested by another Gradle instance after holding it for {}.", displayName, timer == null ? "an unknown time" : timer.getElapsed());
+                        whenContended.execute(signal);
+                    });
                 }
                 lockState = lock(options.getMode());
             } catch (Throwable t) {
@@ -290,6 +299,7 @@ private LockState lock(LockMode lockMode) throws Throwable {
             LOGGER.debug("Waiting to acquire {} lock on {}.", lockMode.toString().toLowerCase(), displayName);
 
             // Lock the state region, with the requested mode
+            Timer waitTimer = Time.startTimer();
             FileLockOutcome lockOutcome = lockStateRegion(lockMode);
             if (!lockOutcome.isLockWasAcquired()) {
                 LockInfo lockInfo = readInformationRegion(newExponentialBackoff(shortTimeoutMs));
@@ -321,6 +331,11 @@ private LockState lock(LockMode lockMode) throws Throwable {
                     lockState = lockFileAccess.readLockState();
                 }
                 LOGGER.debug("Lock acquired on {}.", displayName);
+                if (failedAttempts > 0) {
+                    LOGGER.info("Acquired {} lock on {} after waiting {} for another Gradle instance ({} attempts, {} release requests sent).",
+                        lockMode.toString().toLowerCase(), displayName, waitTimer.getElapsed(), failedAttempts + 1, releaseRequests);
+                }
+                heldTimer = Time.startTimer();
                 lock = stateRegionLock;
                 return lockState;
             } catch (Throwable t) {
@@ -369,6 +384,7 @@ public IOQuery.Result<FileLockOutcome> run() throws IOException, InterruptedExce
                     if (lockOutcome.isLockWasAcquired()) {
                         return IOQuery.Result.successful(lockOutcome);
                     }
+                    failedAttempts++;
                     if (port != -1) { //we don't like the assumption about the port very much
                         LockInfo lockInfo = readInformationRegion(backoff);
                         if (lockInfo.port != -1) {
@@ -379,6 +395,7 @@ public IOQuery.Result<FileLockOutcome> run() throws IOException, InterruptedExce
                             }
                             if (fileLockContentionHandler.maybePingOwner(lockInfo.port, lockInfo.lockId, displayName, backoff.getTimer().getElapsedMillis() - lastPingTime, backoff.getSignal())) {
                                 lastPingTime = backoff.getTimer().getElapsedMillis();
+                                releaseRequests++;
                                 LOGGER.debug("The file lock for {} is held by a different Gradle process (pid: {}, lockId: {}). Pinged owner at port {}", displayName, lockInfo.pid, lockInfo.lockId, lockInfo.port);
                             }
                         } else {
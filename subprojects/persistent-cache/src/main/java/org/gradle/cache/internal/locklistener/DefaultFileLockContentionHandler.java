@@ -27,7 +27,9 @@
 
 import java.net.DatagramPacket;
 import java.net.SocketAddress;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +37,7 @@
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.gradle.cache.internal.locklistener.FileLockPacketType.LOCK_RELEASE_CONFIRMATION;
+import static org.gradle.cache.internal.locklistener.FileLockPacketType.UNLOCK_REQUEST;
 
 /**
  * The contention handler is responsible for negotiating the transfer of a lock from one process to another.
@@ -72,16 +75,21 @@
  * <p>
  * As Lock Requester, the state of the request is always stored per lock (lockId) and Lock Holder (port). The Lock Holder
  * for a lock might change without acquiring the lock if several Lock Requester compete for the same lock.
+ * <p>
+ * If a former Lock Holder receives a message for a lock it has recently released, the message is answered with a lock release
+ * confirmation right away, so the Lock Requester can retry immediately instead of waiting for its next attempt.
  */
 public class DefaultFileLockContentionHandler implements FileLockContentionHandler, Stoppable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileLockContentionHandler.class);
     private static final int PING_DELAY = 1000;
+    private static final int MAX_RELEASED_LOCKS = 100;
     private final Lock lock = new ReentrantLock();
 
     private final Map<Long, ContendedAction> contendedActions = new HashMap<Long, ContendedAction>();
     private final Map<Long, FileLockReleasedSignal> lockReleasedSignals = new HashMap<Long, FileLockReleasedSignal>();
     private final Map<Long, Integer> unlocksRequestedFrom = new HashMap<Long, Integer>();
     private final Map<Long, Integer> unlocksConfirmedFrom = new HashMap<Long, Integer>();
+    private final Set<Long> releasedLocks = new LinkedHashSet<Long>();
 
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
@@ -126,7 +134,11 @@ private void doRun() {
                     try {
                         ContendedAction contendedAction = contendedActions.get(payload.getLockId());
                         if (contendedAction == null) {
-                            acceptConfirmationAsLockRequester(payload, packet.getPort());
+                            if (payload.getType() == UNLOCK_REQUEST && releasedLocks.contains(payload.getLockId())) {
+                                confirmLockReleaseAsFormerLockHolder(payload, packet.getSocketAddress());
+                            } else {
+                                acceptConfirmationAsLockRequester(payload, packet.getPort());
+                            }
                         } else {
                             contendedAction.addRequester(packet.getSocketAddress());
                             if (!contendedAction.running) {
@@ -147,6 +159,11 @@ private void startLockReleaseAsLockHolder(ContendedAction contendedAction) {
         unlockActionExecutor.execute(contendedAction);
     }
 
+    private void confirmLockReleaseAsFormerLockHolder(FileLockPacketPayload payload, SocketAddress requester) {
+        LOGGER.debug("Received unlock request for lock with id {} which has already been released.", payload.getLockId());
+        communicator.confirmLockRelease(Collections.singleton(requester), payload.getLockId());
+    }
+
     private void acceptConfirmationAsLockRequester(FileLockPacketPayload payload, Integer port) {
         long lockId = payload.getLockId();
         if (payload.getType() == LOCK_RELEASE_CONFIRMATION) {
@@ -224,7 +241,14 @@ private void assertNotStopped() {
     public void stop(long lockId) {
         lock.lock();
         try {
-            contendedActions.remove(lockId);
+            if (contendedActions.remove(lockId) != null) {
+                releasedLocks.add(lockId);
+                if (releasedLocks.size() > MAX_RELEASED_LOCKS) {
+                    Iterator<Long> oldest = releasedLocks.iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
         } finally {
             lock.unlock();
         }
@@ -134,6 +134,44 @@ class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
         canHandleMoreRequests()
     }
 
+    def "client receives signal when requesting a lock that was already released"() {
+        def signaled = new AtomicBoolean()
+
+        when:
+        int port = handler.reservePort()
+        handler.start(10, { assert false })
+        handler.stop(10)
+
+        client.reservePort()
+        client.start(11) {}
+        client.maybePingOwner(port, 10, "lock 1", 50000) {
+            signaled.set(true)
+        }
+
+        then:
+        poll {
+            assert signaled.get()
+        }
+    }
+
+    def "client does not receive signal when requesting a lock the handler never held"() {
+        def signaled = new AtomicBoolean()
+
+        when:
+        int port = handler.reservePort()
+        handler.start(10, {})
+
+        client.reservePort()
+        client.start(11) {}
+        client.maybePingOwner(port, 12, "lock 1", 50000) {
+            signaled.set(true)
+        }
+        sleep(300)
+
+        then:
+        !signaled.get()
+    }
+
     private void canHandleMoreRequests() {
         def executed = new AtomicBoolean()
         int port = handler.reservePort();
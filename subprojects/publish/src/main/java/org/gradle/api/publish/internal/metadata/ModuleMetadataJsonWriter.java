@@ -16,23 +16,28 @@
 
 package org.gradle.api.publish.internal.metadata;
 
+import com.google.common.collect.ImmutableList;
 import com.google.gson.stream.JsonWriter;
 import org.gradle.api.artifacts.ExcludeRule;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.GradleModuleMetadataParser;
 import org.gradle.internal.hash.ChecksumService;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.util.GradleVersion;
 
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.gradle.util.internal.GUtil.elvis;
 
 class ModuleMetadataJsonWriter extends JsonWriterScope {
 
+    private static final List<String> CHECKSUM_ALGORITHMS = ImmutableList.of("sha512", "sha256", "sha1", "md5");
+
     private final ModuleMetadataSpec metadata;
     @Nullable
     private final String buildId;
@@ -186,10 +191,10 @@ private void writeArtifacts(List<ModuleMetadataSpec.Artifact> artifacts) throws
                     write("url", artifact.uri);
                     File file = artifact.file;
                     write("size", file.length());
-                    write("sha512", sha512(file));
-                    write("sha256", sha256(file));
-                    write("sha1", sha1(file));
-                    write("md5", md5(file));
+                    Map<String, HashCode> checksums = checksumService.hashes(file, CHECKSUM_ALGORITHMS);
+                    for (String algorithm : CHECKSUM_ALGORITHMS) {
+                        write(algorithm, checksums.get(algorithm).toString());
+                    }
                 });
             }
         });
@@ -290,20 +295,4 @@ private void writeExcludes(Set<ExcludeRule> excludeRules) throws IOException {
             }
         });
     }
-
-    private String md5(File file) {
-        return checksumService.md5(file).toString();
-    }
-
-    private String sha1(File file) {
-        return checksumService.sha1(file).toString();
-    }
-
-    private String sha256(File file) {
-        return checksumService.sha256(file).toString();
-    }
-
-    private String sha512(File file) {
-        return checksumService.sha512(file).toString();
-    }
 }
@@ -103,17 +103,27 @@ public void invalidate(Iterable<String> locations) {
         LOGGER.debug("Invalidating VFS paths: {}", locations);
         updateRootUnderLock(root -> {
             SnapshotHierarchy result = root;
-            VersionHierarchyRoot newVersionHierarchyRoot = versionHierarchyRoot;
             for (String location : locations) {
                 SnapshotHierarchy currentRoot = result;
                 result = updateNotifyingListeners(diffListener -> currentRoot.invalidate(location, diffListener));
-                newVersionHierarchyRoot = newVersionHierarchyRoot.updateVersion(location);
             }
-            versionHierarchyRoot = newVersionHierarchyRoot;
+            updateVersions(locations);
             return result;
         });
     }
 
+    /**
+     * Records that the given locations changed, so snapshots of them which are taken concurrently are not stored.
+     * Needs to be called while holding the update lock.
+     */
+    protected void updateVersions(Iterable<String> locations) {
+        VersionHierarchyRoot newVersionHierarchyRoot = versionHierarchyRoot;
+        for (String location : locations) {
+            newVersionHierarchyRoot = newVersionHierarchyRoot.updateVersion(location);
+        }
+        versionHierarchyRoot = newVersionHierarchyRoot;
+    }
+
     @Override
     public void invalidateAll() {
         LOGGER.debug("Invalidating the whole VFS");